@@ -206,6 +206,52 @@ INSERT INTO `exam_question` VALUES (28, 4, 18, 20, 13);
 INSERT INTO `exam_question` VALUES (29, 4, 19, 20, 14);
 INSERT INTO `exam_question` VALUES (30, 4, 20, 20, 15);
 
+-- ----------------------------
+-- Table structure for exam_submission
+-- ----------------------------
+DROP TABLE IF EXISTS `exam_submission`;
+CREATE TABLE `exam_submission`  (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '回执号',
+  `exam_id` int(11) NOT NULL,
+  `course_id` int(11) NOT NULL,
+  `student_id` int(11) NOT NULL,
+  `answers` text CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '原始答卷 JSON',
+  `status` varchar(16) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL DEFAULT 'PENDING' COMMENT 'PENDING/PROCESSING/GRADED/FAILED',
+  `claim_token` varchar(40) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '领取这一批的判分任务标识',
+  `retry_count` int(11) NOT NULL DEFAULT 0 COMMENT '超时被重新放回队列的次数',
+  `attempt_id` int(11) NULL DEFAULT NULL,
+  `attempt_no` int(11) NULL DEFAULT NULL,
+  `score` double NULL DEFAULT NULL,
+  `error_msg` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `submit_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '交卷时间',
+  `claimed_time` datetime NULL DEFAULT NULL,
+  `graded_time` datetime NULL DEFAULT NULL,
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_status_id`(`status`, `id`) USING BTREE,
+  INDEX `idx_claim_token`(`claim_token`) USING BTREE,
+  INDEX `idx_student_exam`(`student_id`, `exam_id`) USING BTREE
+) ENGINE = InnoDB AUTO_INCREMENT = 1 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '异步交卷队列' ROW_FORMAT = Dynamic;
+
+-- ----------------------------
+-- Records of exam_submission
+-- ----------------------------
+
+-- ----------------------------
+-- Table structure for feature_watermark
+-- ----------------------------
+DROP TABLE IF EXISTS `feature_watermark`;
+CREATE TABLE `feature_watermark`  (
+  `source_table` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '源表名',
+  `last_time` datetime NOT NULL COMMENT '已处理到的更新时间',
+  `last_id` bigint(20) NOT NULL DEFAULT 0 COMMENT '同一更新时间内已处理到的主键',
+  `updated_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '最后推进时间',
+  PRIMARY KEY (`source_table`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '增量特征计算高水位表' ROW_FORMAT = Dynamic;
+
+-- ----------------------------
+-- Records of feature_watermark
+-- ----------------------------
+
 -- ----------------------------
 -- Table structure for homework
 -- ----------------------------
@@ -450,6 +496,20 @@ INSERT INTO `question` VALUES (18, 1, 'MySQL 中创建索引的主要目的是
 INSERT INTO `question` VALUES (19, 1, 'Spring Boot 默认内嵌的 Web 容器通常是？', 'Jetty', 'Tomcat', 'Nginx', 'IIS', 'B', 1, '演示_20260208_1338', '2026-02-08 15:20:05', '2026-02-08 15:20:05');
 INSERT INTO `question` VALUES (20, 1, 'Vue3 + Vite 项目中常用来发请求的封装文件一般放在哪？', 'router/', 'views/', 'utils/', 'assets/', 'C', 2, '演示_20260208_1338', '2026-02-08 15:20:05', '2026-02-08 15:20:05');
 
+-- ----------------------------
+-- Table structure for risk_alert_daily
+-- ----------------------------
+DROP TABLE IF EXISTS `risk_alert_daily`;
+CREATE TABLE `risk_alert_daily`  (
+  `stat_date` date NOT NULL COMMENT '预警日期（alert_time 的日期部分）',
+  `alert_level` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '' COMMENT '预警等级',
+  `alert_type` varchar(30) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '' COMMENT '预警类型',
+  `status` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '' COMMENT '处理状态',
+  `alert_count` int(11) NOT NULL DEFAULT 0 COMMENT '预警数量',
+  `updated_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`stat_date`, `alert_level`, `alert_type`, `status`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '预警日汇总表' ROW_FORMAT = Dynamic;
+
 -- ----------------------------
 -- Table structure for risk_alerts
 -- ----------------------------
@@ -487,7 +547,8 @@ CREATE TABLE `risk_alerts`  (
   UNIQUE INDEX `alert_no`(`alert_no`) USING BTREE,
   INDEX `idx_student`(`student_id`) USING BTREE,
   INDEX `idx_status`(`status`) USING BTREE,
-  INDEX `idx_alert_level`(`alert_level`) USING BTREE
+  INDEX `idx_alert_level`(`alert_level`) USING BTREE,
+  INDEX `idx_alert_time`(`alert_time`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 2744 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -2725,6 +2786,7 @@ CREATE TABLE `student_behavior`  (
   INDEX `idx_risk`(`is_at_risk`) USING BTREE,
   INDEX `idx_student_course`(`student_id`, `course_id`) USING BTREE,
   INDEX `idx_date_risk`(`behavior_date`, `is_at_risk`) USING BTREE,
+  INDEX `idx_update_time`(`update_time`, `id`) USING BTREE,
   CONSTRAINT `student_behavior_ibfk_1` FOREIGN KEY (`student_id`) REFERENCES `student` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT,
   CONSTRAINT `student_behavior_ibfk_2` FOREIGN KEY (`course_id`) REFERENCES `course` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT
 ) ENGINE = InnoDB AUTO_INCREMENT = 53 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '学生学习行为记录表' ROW_FORMAT = Dynamic;
@@ -2842,10 +2904,24 @@ CREATE TABLE `student_behavior_event`  (
   `behavior_extra` json NULL COMMENT '扩展信息：如 currentTime/duration 等',
   `behavior_time` datetime NOT NULL,
   `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
-  PRIMARY KEY (`id`) USING BTREE,
+  PRIMARY KEY (`id`, `behavior_time`) USING BTREE,
   INDEX `idx_student_course_time`(`student_id`, `course_id`, `behavior_time`) USING BTREE,
   INDEX `idx_type_time`(`behavior_type`, `behavior_time`) USING BTREE
-) ENGINE = InnoDB AUTO_INCREMENT = 20 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci ROW_FORMAT = Dynamic;
+) ENGINE = InnoDB AUTO_INCREMENT = 20 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci ROW_FORMAT = Dynamic
+PARTITION BY RANGE COLUMNS (`behavior_time`)
+(PARTITION `p202602` VALUES LESS THAN ('2026-03-01 00:00:00') ENGINE = InnoDB,
+PARTITION `p202603` VALUES LESS THAN ('2026-04-01 00:00:00') ENGINE = InnoDB,
+PARTITION `p202604` VALUES LESS THAN ('2026-05-01 00:00:00') ENGINE = InnoDB,
+PARTITION `p202605` VALUES LESS THAN ('2026-06-01 00:00:00') ENGINE = InnoDB,
+PARTITION `p202606` VALUES LESS THAN ('2026-07-01 00:00:00') ENGINE = InnoDB,
+PARTITION `p202607` VALUES LESS THAN ('2026-08-01 00:00:00') ENGINE = InnoDB,
+PARTITION `p202608` VALUES LESS THAN ('2026-09-01 00:00:00') ENGINE = InnoDB,
+PARTITION `p202609` VALUES LESS THAN ('2026-10-01 00:00:00') ENGINE = InnoDB,
+PARTITION `p202610` VALUES LESS THAN ('2026-11-01 00:00:00') ENGINE = InnoDB,
+PARTITION `p202611` VALUES LESS THAN ('2026-12-01 00:00:00') ENGINE = InnoDB,
+PARTITION `p202612` VALUES LESS THAN ('2027-01-01 00:00:00') ENGINE = InnoDB,
+PARTITION `pmax` VALUES LESS THAN (MAXVALUE) ENGINE = InnoDB)
+;
 
 -- ----------------------------
 -- Records of student_behavior_event
@@ -2878,6 +2954,7 @@ CREATE TABLE `system_metrics`  (
   `task_id` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '任务ID',
   `execution_time` bigint(20) NOT NULL COMMENT '执行耗时(ms)',
   `status` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '执行状态: SUCCESS/FAILED/NO_DATA',
+  `metric_value` double NULL DEFAULT NULL COMMENT '指标数值（如吞吐量 rows/s）',
   `created_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   PRIMARY KEY (`id`) USING BTREE,
   INDEX `idx_metric_name`(`metric_name`) USING BTREE,
@@ -2888,76 +2965,76 @@ CREATE TABLE `system_metrics`  (
 -- ----------------------------
 -- Records of system_metrics
 -- ----------------------------
-INSERT INTO `system_metrics` VALUES (1, 'risk_scan', 'RISK_SCAN_1770287400011', 42, 'SUCCESS', '2026-02-05 18:30:00');
-INSERT INTO `system_metrics` VALUES (2, 'risk_scan', 'RISK_SCAN_1770289200010', 5, 'SUCCESS', '2026-02-05 19:00:00');
-INSERT INTO `system_metrics` VALUES (3, 'risk_scan', 'RISK_SCAN_1770300000022', 130, 'SUCCESS', '2026-02-05 22:00:00');
-INSERT INTO `system_metrics` VALUES (4, 'risk_scan', 'RISK_SCAN_1770301800022', 45, 'SUCCESS', '2026-02-05 22:30:00');
-INSERT INTO `system_metrics` VALUES (5, 'risk_scan', 'RISK_SCAN_1770345000011', 61, 'SUCCESS', '2026-02-06 10:30:00');
-INSERT INTO `system_metrics` VALUES (6, 'risk_scan', 'RISK_SCAN_1770346800009', 11, 'SUCCESS', '2026-02-06 11:00:00');
-INSERT INTO `system_metrics` VALUES (7, 'risk_scan', 'RISK_SCAN_1770346800021', 36, 'SUCCESS', '2026-02-06 11:00:00');
-INSERT INTO `system_metrics` VALUES (8, 'risk_scan', 'RISK_SCAN_1770348600013', 9, 'SUCCESS', '2026-02-06 11:30:00');
-INSERT INTO `system_metrics` VALUES (9, 'risk_scan', 'RISK_SCAN_1770348600014', 14, 'SUCCESS', '2026-02-06 11:30:00');
-INSERT INTO `system_metrics` VALUES (10, 'risk_scan', 'RISK_SCAN_1770350400006', 7, 'SUCCESS', '2026-02-06 12:00:00');
-INSERT INTO `system_metrics` VALUES (11, 'risk_scan', 'RISK_SCAN_1770350400006', 14, 'SUCCESS', '2026-02-06 12:00:00');
-INSERT INTO `system_metrics` VALUES (12, 'risk_scan', 'RISK_SCAN_1770352200011', 9, 'SUCCESS', '2026-02-06 12:30:00');
-INSERT INTO `system_metrics` VALUES (13, 'risk_scan', 'RISK_SCAN_1770352200011', 10, 'SUCCESS', '2026-02-06 12:30:00');
-INSERT INTO `system_metrics` VALUES (14, 'risk_scan', 'RISK_SCAN_1770354000013', 11, 'SUCCESS', '2026-02-06 13:00:00');
-INSERT INTO `system_metrics` VALUES (15, 'risk_scan', 'RISK_SCAN_1770354000021', 63, 'SUCCESS', '2026-02-06 13:00:00');
-INSERT INTO `system_metrics` VALUES (16, 'risk_scan', 'RISK_SCAN_1770355800021', 7, 'SUCCESS', '2026-02-06 13:30:00');
-INSERT INTO `system_metrics` VALUES (17, 'risk_scan', 'RISK_SCAN_1770355800024', 11, 'SUCCESS', '2026-02-06 13:30:00');
-INSERT INTO `system_metrics` VALUES (18, 'risk_scan', 'RISK_SCAN_1770357600001', 6, 'SUCCESS', '2026-02-06 14:00:00');
-INSERT INTO `system_metrics` VALUES (19, 'risk_scan', 'RISK_SCAN_1770357600018', 18, 'SUCCESS', '2026-02-06 14:00:00');
-INSERT INTO `system_metrics` VALUES (20, 'risk_scan', 'RISK_SCAN_1770359400012', 13, 'SUCCESS', '2026-02-06 14:30:00');
-INSERT INTO `system_metrics` VALUES (21, 'risk_scan', 'RISK_SCAN_1770359400014', 23, 'SUCCESS', '2026-02-06 14:30:00');
-INSERT INTO `system_metrics` VALUES (22, 'risk_scan', 'RISK_SCAN_1770361200012', 18, 'SUCCESS', '2026-02-06 15:00:00');
-INSERT INTO `system_metrics` VALUES (23, 'risk_scan', 'RISK_SCAN_1770361200012', 23, 'SUCCESS', '2026-02-06 15:00:00');
-INSERT INTO `system_metrics` VALUES (24, 'risk_scan', 'RISK_SCAN_1770363000009', 49, 'SUCCESS', '2026-02-06 15:30:00');
-INSERT INTO `system_metrics` VALUES (25, 'risk_scan', 'RISK_SCAN_1770363000027', 74, 'SUCCESS', '2026-02-06 15:30:00');
-INSERT INTO `system_metrics` VALUES (26, 'risk_scan', 'RISK_SCAN_1770364800011', 24, 'SUCCESS', '2026-02-06 16:00:00');
-INSERT INTO `system_metrics` VALUES (27, 'risk_scan', 'RISK_SCAN_1770364800011', 24, 'SUCCESS', '2026-02-06 16:00:00');
-INSERT INTO `system_metrics` VALUES (28, 'risk_scan', 'RISK_SCAN_1770366600013', 15, 'SUCCESS', '2026-02-06 16:30:00');
-INSERT INTO `system_metrics` VALUES (29, 'risk_scan', 'RISK_SCAN_1770366600021', 10, 'SUCCESS', '2026-02-06 16:30:00');
-INSERT INTO `system_metrics` VALUES (30, 'risk_scan', 'RISK_SCAN_1770368400011', 7, 'SUCCESS', '2026-02-06 17:00:00');
-INSERT INTO `system_metrics` VALUES (31, 'risk_scan', 'RISK_SCAN_1770368400011', 9, 'SUCCESS', '2026-02-06 17:00:00');
-INSERT INTO `system_metrics` VALUES (32, 'risk_scan', 'RISK_SCAN_1770370200011', 8, 'SUCCESS', '2026-02-06 17:30:00');
-INSERT INTO `system_metrics` VALUES (33, 'risk_scan', 'RISK_SCAN_1770370200012', 9, 'SUCCESS', '2026-02-06 17:30:00');
-INSERT INTO `system_metrics` VALUES (34, 'risk_scan', 'RISK_SCAN_1770372000006', 8, 'SUCCESS', '2026-02-06 18:00:00');
-INSERT INTO `system_metrics` VALUES (35, 'risk_scan', 'RISK_SCAN_1770372000006', 17, 'SUCCESS', '2026-02-06 18:00:00');
-INSERT INTO `system_metrics` VALUES (36, 'risk_scan', 'RISK_SCAN_1770373800015', 7, 'SUCCESS', '2026-02-06 18:30:00');
-INSERT INTO `system_metrics` VALUES (37, 'risk_scan', 'RISK_SCAN_1770373800015', 14, 'SUCCESS', '2026-02-06 18:30:00');
-INSERT INTO `system_metrics` VALUES (38, 'risk_scan', 'RISK_SCAN_1770375600001', 7, 'SUCCESS', '2026-02-06 19:00:00');
-INSERT INTO `system_metrics` VALUES (39, 'risk_scan', 'RISK_SCAN_1770375600001', 8, 'SUCCESS', '2026-02-06 19:00:00');
-INSERT INTO `system_metrics` VALUES (40, 'risk_scan', 'RISK_SCAN_1770377400013', 14, 'SUCCESS', '2026-02-06 19:30:00');
-INSERT INTO `system_metrics` VALUES (41, 'risk_scan', 'RISK_SCAN_1770377400013', 16, 'SUCCESS', '2026-02-06 19:30:00');
-INSERT INTO `system_metrics` VALUES (42, 'risk_scan', 'RISK_SCAN_1770379200002', 17, 'SUCCESS', '2026-02-06 20:00:00');
-INSERT INTO `system_metrics` VALUES (43, 'risk_scan', 'RISK_SCAN_1770379200003', 49, 'SUCCESS', '2026-02-06 20:00:00');
-INSERT INTO `system_metrics` VALUES (44, 'risk_scan', 'RISK_SCAN_1770381000009', 28, 'SUCCESS', '2026-02-06 20:30:00');
-INSERT INTO `system_metrics` VALUES (45, 'risk_scan', 'RISK_SCAN_1770382800010', 16, 'SUCCESS', '2026-02-06 21:00:00');
-INSERT INTO `system_metrics` VALUES (46, 'risk_scan', 'RISK_SCAN_1770384600009', 19, 'SUCCESS', '2026-02-06 21:30:00');
-INSERT INTO `system_metrics` VALUES (47, 'risk_scan', 'RISK_SCAN_1770386400012', 12, 'SUCCESS', '2026-02-06 22:00:00');
-INSERT INTO `system_metrics` VALUES (48, 'risk_scan', 'RISK_SCAN_1770388200004', 13, 'SUCCESS', '2026-02-06 22:30:00');
-INSERT INTO `system_metrics` VALUES (49, 'risk_scan', 'RISK_SCAN_1770390000015', 14, 'SUCCESS', '2026-02-06 23:00:00');
-INSERT INTO `system_metrics` VALUES (50, 'risk_scan', 'RISK_SCAN_1770433200029', 50, 'SUCCESS', '2026-02-07 11:00:00');
-INSERT INTO `system_metrics` VALUES (51, 'risk_scan', 'RISK_SCAN_1770435000004', 185, 'NO_DATA', '2026-02-07 11:30:00');
-INSERT INTO `system_metrics` VALUES (52, 'risk_scan', 'RISK_SCAN_1770436800008', 116, 'NO_DATA', '2026-02-07 12:00:00');
-INSERT INTO `system_metrics` VALUES (53, 'risk_scan', 'RISK_SCAN_1770438600007', 44, 'NO_DATA', '2026-02-07 12:30:00');
-INSERT INTO `system_metrics` VALUES (54, 'risk_scan', 'RISK_SCAN_1770456600013', 180, 'NO_DATA', '2026-02-07 17:30:00');
-INSERT INTO `system_metrics` VALUES (55, 'risk_scan', 'RISK_SCAN_1770458400003', 90, 'NO_DATA', '2026-02-07 18:00:00');
-INSERT INTO `system_metrics` VALUES (56, 'risk_scan', 'RISK_SCAN_1770460200009', 77, 'NO_DATA', '2026-02-07 18:30:00');
-INSERT INTO `system_metrics` VALUES (57, 'risk_scan', 'RISK_SCAN_1770462000003', 72, 'NO_DATA', '2026-02-07 19:00:00');
-INSERT INTO `system_metrics` VALUES (58, 'risk_scan', 'RISK_SCAN_1770463800013', 153, 'NO_DATA', '2026-02-07 19:30:00');
-INSERT INTO `system_metrics` VALUES (59, 'risk_scan', 'RISK_SCAN_1770465600011', 143, 'NO_DATA', '2026-02-07 20:00:00');
-INSERT INTO `system_metrics` VALUES (60, 'risk_scan', 'RISK_SCAN_1770517800015', 275, 'NO_DATA', '2026-02-08 10:30:00');
-INSERT INTO `system_metrics` VALUES (61, 'risk_scan', 'RISK_SCAN_1770519600014', 134, 'NO_DATA', '2026-02-08 11:00:00');
-INSERT INTO `system_metrics` VALUES (62, 'risk_scan', 'RISK_SCAN_1770521400014', 95, 'NO_DATA', '2026-02-08 11:30:00');
-INSERT INTO `system_metrics` VALUES (63, 'risk_scan', 'RISK_SCAN_1770523200002', 82, 'NO_DATA', '2026-02-08 12:00:00');
-INSERT INTO `system_metrics` VALUES (64, 'risk_scan', 'RISK_SCAN_1770525000003', 74, 'NO_DATA', '2026-02-08 12:30:00');
-INSERT INTO `system_metrics` VALUES (65, 'risk_scan', 'RISK_SCAN_1770526800013', 195, 'NO_DATA', '2026-02-08 13:00:00');
-INSERT INTO `system_metrics` VALUES (66, 'risk_scan', 'RISK_SCAN_1770528600006', 185, 'NO_DATA', '2026-02-08 13:30:00');
-INSERT INTO `system_metrics` VALUES (67, 'risk_scan', 'RISK_SCAN_1770530400014', 109, 'NO_DATA', '2026-02-08 14:00:00');
-INSERT INTO `system_metrics` VALUES (68, 'risk_scan', 'RISK_SCAN_1770532200013', 74, 'NO_DATA', '2026-02-08 14:30:00');
-INSERT INTO `system_metrics` VALUES (69, 'risk_scan', 'RISK_SCAN_1770534000007', 104, 'NO_DATA', '2026-02-08 15:00:00');
-INSERT INTO `system_metrics` VALUES (70, 'risk_scan', 'RISK_SCAN_1770535800001', 79, 'NO_DATA', '2026-02-08 15:30:00');
+INSERT INTO `system_metrics` VALUES (1, 'risk_scan', 'RISK_SCAN_1770287400011', 42, 'SUCCESS', NULL, '2026-02-05 18:30:00');
+INSERT INTO `system_metrics` VALUES (2, 'risk_scan', 'RISK_SCAN_1770289200010', 5, 'SUCCESS', NULL, '2026-02-05 19:00:00');
+INSERT INTO `system_metrics` VALUES (3, 'risk_scan', 'RISK_SCAN_1770300000022', 130, 'SUCCESS', NULL, '2026-02-05 22:00:00');
+INSERT INTO `system_metrics` VALUES (4, 'risk_scan', 'RISK_SCAN_1770301800022', 45, 'SUCCESS', NULL, '2026-02-05 22:30:00');
+INSERT INTO `system_metrics` VALUES (5, 'risk_scan', 'RISK_SCAN_1770345000011', 61, 'SUCCESS', NULL, '2026-02-06 10:30:00');
+INSERT INTO `system_metrics` VALUES (6, 'risk_scan', 'RISK_SCAN_1770346800009', 11, 'SUCCESS', NULL, '2026-02-06 11:00:00');
+INSERT INTO `system_metrics` VALUES (7, 'risk_scan', 'RISK_SCAN_1770346800021', 36, 'SUCCESS', NULL, '2026-02-06 11:00:00');
+INSERT INTO `system_metrics` VALUES (8, 'risk_scan', 'RISK_SCAN_1770348600013', 9, 'SUCCESS', NULL, '2026-02-06 11:30:00');
+INSERT INTO `system_metrics` VALUES (9, 'risk_scan', 'RISK_SCAN_1770348600014', 14, 'SUCCESS', NULL, '2026-02-06 11:30:00');
+INSERT INTO `system_metrics` VALUES (10, 'risk_scan', 'RISK_SCAN_1770350400006', 7, 'SUCCESS', NULL, '2026-02-06 12:00:00');
+INSERT INTO `system_metrics` VALUES (11, 'risk_scan', 'RISK_SCAN_1770350400006', 14, 'SUCCESS', NULL, '2026-02-06 12:00:00');
+INSERT INTO `system_metrics` VALUES (12, 'risk_scan', 'RISK_SCAN_1770352200011', 9, 'SUCCESS', NULL, '2026-02-06 12:30:00');
+INSERT INTO `system_metrics` VALUES (13, 'risk_scan', 'RISK_SCAN_1770352200011', 10, 'SUCCESS', NULL, '2026-02-06 12:30:00');
+INSERT INTO `system_metrics` VALUES (14, 'risk_scan', 'RISK_SCAN_1770354000013', 11, 'SUCCESS', NULL, '2026-02-06 13:00:00');
+INSERT INTO `system_metrics` VALUES (15, 'risk_scan', 'RISK_SCAN_1770354000021', 63, 'SUCCESS', NULL, '2026-02-06 13:00:00');
+INSERT INTO `system_metrics` VALUES (16, 'risk_scan', 'RISK_SCAN_1770355800021', 7, 'SUCCESS', NULL, '2026-02-06 13:30:00');
+INSERT INTO `system_metrics` VALUES (17, 'risk_scan', 'RISK_SCAN_1770355800024', 11, 'SUCCESS', NULL, '2026-02-06 13:30:00');
+INSERT INTO `system_metrics` VALUES (18, 'risk_scan', 'RISK_SCAN_1770357600001', 6, 'SUCCESS', NULL, '2026-02-06 14:00:00');
+INSERT INTO `system_metrics` VALUES (19, 'risk_scan', 'RISK_SCAN_1770357600018', 18, 'SUCCESS', NULL, '2026-02-06 14:00:00');
+INSERT INTO `system_metrics` VALUES (20, 'risk_scan', 'RISK_SCAN_1770359400012', 13, 'SUCCESS', NULL, '2026-02-06 14:30:00');
+INSERT INTO `system_metrics` VALUES (21, 'risk_scan', 'RISK_SCAN_1770359400014', 23, 'SUCCESS', NULL, '2026-02-06 14:30:00');
+INSERT INTO `system_metrics` VALUES (22, 'risk_scan', 'RISK_SCAN_1770361200012', 18, 'SUCCESS', NULL, '2026-02-06 15:00:00');
+INSERT INTO `system_metrics` VALUES (23, 'risk_scan', 'RISK_SCAN_1770361200012', 23, 'SUCCESS', NULL, '2026-02-06 15:00:00');
+INSERT INTO `system_metrics` VALUES (24, 'risk_scan', 'RISK_SCAN_1770363000009', 49, 'SUCCESS', NULL, '2026-02-06 15:30:00');
+INSERT INTO `system_metrics` VALUES (25, 'risk_scan', 'RISK_SCAN_1770363000027', 74, 'SUCCESS', NULL, '2026-02-06 15:30:00');
+INSERT INTO `system_metrics` VALUES (26, 'risk_scan', 'RISK_SCAN_1770364800011', 24, 'SUCCESS', NULL, '2026-02-06 16:00:00');
+INSERT INTO `system_metrics` VALUES (27, 'risk_scan', 'RISK_SCAN_1770364800011', 24, 'SUCCESS', NULL, '2026-02-06 16:00:00');
+INSERT INTO `system_metrics` VALUES (28, 'risk_scan', 'RISK_SCAN_1770366600013', 15, 'SUCCESS', NULL, '2026-02-06 16:30:00');
+INSERT INTO `system_metrics` VALUES (29, 'risk_scan', 'RISK_SCAN_1770366600021', 10, 'SUCCESS', NULL, '2026-02-06 16:30:00');
+INSERT INTO `system_metrics` VALUES (30, 'risk_scan', 'RISK_SCAN_1770368400011', 7, 'SUCCESS', NULL, '2026-02-06 17:00:00');
+INSERT INTO `system_metrics` VALUES (31, 'risk_scan', 'RISK_SCAN_1770368400011', 9, 'SUCCESS', NULL, '2026-02-06 17:00:00');
+INSERT INTO `system_metrics` VALUES (32, 'risk_scan', 'RISK_SCAN_1770370200011', 8, 'SUCCESS', NULL, '2026-02-06 17:30:00');
+INSERT INTO `system_metrics` VALUES (33, 'risk_scan', 'RISK_SCAN_1770370200012', 9, 'SUCCESS', NULL, '2026-02-06 17:30:00');
+INSERT INTO `system_metrics` VALUES (34, 'risk_scan', 'RISK_SCAN_1770372000006', 8, 'SUCCESS', NULL, '2026-02-06 18:00:00');
+INSERT INTO `system_metrics` VALUES (35, 'risk_scan', 'RISK_SCAN_1770372000006', 17, 'SUCCESS', NULL, '2026-02-06 18:00:00');
+INSERT INTO `system_metrics` VALUES (36, 'risk_scan', 'RISK_SCAN_1770373800015', 7, 'SUCCESS', NULL, '2026-02-06 18:30:00');
+INSERT INTO `system_metrics` VALUES (37, 'risk_scan', 'RISK_SCAN_1770373800015', 14, 'SUCCESS', NULL, '2026-02-06 18:30:00');
+INSERT INTO `system_metrics` VALUES (38, 'risk_scan', 'RISK_SCAN_1770375600001', 7, 'SUCCESS', NULL, '2026-02-06 19:00:00');
+INSERT INTO `system_metrics` VALUES (39, 'risk_scan', 'RISK_SCAN_1770375600001', 8, 'SUCCESS', NULL, '2026-02-06 19:00:00');
+INSERT INTO `system_metrics` VALUES (40, 'risk_scan', 'RISK_SCAN_1770377400013', 14, 'SUCCESS', NULL, '2026-02-06 19:30:00');
+INSERT INTO `system_metrics` VALUES (41, 'risk_scan', 'RISK_SCAN_1770377400013', 16, 'SUCCESS', NULL, '2026-02-06 19:30:00');
+INSERT INTO `system_metrics` VALUES (42, 'risk_scan', 'RISK_SCAN_1770379200002', 17, 'SUCCESS', NULL, '2026-02-06 20:00:00');
+INSERT INTO `system_metrics` VALUES (43, 'risk_scan', 'RISK_SCAN_1770379200003', 49, 'SUCCESS', NULL, '2026-02-06 20:00:00');
+INSERT INTO `system_metrics` VALUES (44, 'risk_scan', 'RISK_SCAN_1770381000009', 28, 'SUCCESS', NULL, '2026-02-06 20:30:00');
+INSERT INTO `system_metrics` VALUES (45, 'risk_scan', 'RISK_SCAN_1770382800010', 16, 'SUCCESS', NULL, '2026-02-06 21:00:00');
+INSERT INTO `system_metrics` VALUES (46, 'risk_scan', 'RISK_SCAN_1770384600009', 19, 'SUCCESS', NULL, '2026-02-06 21:30:00');
+INSERT INTO `system_metrics` VALUES (47, 'risk_scan', 'RISK_SCAN_1770386400012', 12, 'SUCCESS', NULL, '2026-02-06 22:00:00');
+INSERT INTO `system_metrics` VALUES (48, 'risk_scan', 'RISK_SCAN_1770388200004', 13, 'SUCCESS', NULL, '2026-02-06 22:30:00');
+INSERT INTO `system_metrics` VALUES (49, 'risk_scan', 'RISK_SCAN_1770390000015', 14, 'SUCCESS', NULL, '2026-02-06 23:00:00');
+INSERT INTO `system_metrics` VALUES (50, 'risk_scan', 'RISK_SCAN_1770433200029', 50, 'SUCCESS', NULL, '2026-02-07 11:00:00');
+INSERT INTO `system_metrics` VALUES (51, 'risk_scan', 'RISK_SCAN_1770435000004', 185, 'NO_DATA', NULL, '2026-02-07 11:30:00');
+INSERT INTO `system_metrics` VALUES (52, 'risk_scan', 'RISK_SCAN_1770436800008', 116, 'NO_DATA', NULL, '2026-02-07 12:00:00');
+INSERT INTO `system_metrics` VALUES (53, 'risk_scan', 'RISK_SCAN_1770438600007', 44, 'NO_DATA', NULL, '2026-02-07 12:30:00');
+INSERT INTO `system_metrics` VALUES (54, 'risk_scan', 'RISK_SCAN_1770456600013', 180, 'NO_DATA', NULL, '2026-02-07 17:30:00');
+INSERT INTO `system_metrics` VALUES (55, 'risk_scan', 'RISK_SCAN_1770458400003', 90, 'NO_DATA', NULL, '2026-02-07 18:00:00');
+INSERT INTO `system_metrics` VALUES (56, 'risk_scan', 'RISK_SCAN_1770460200009', 77, 'NO_DATA', NULL, '2026-02-07 18:30:00');
+INSERT INTO `system_metrics` VALUES (57, 'risk_scan', 'RISK_SCAN_1770462000003', 72, 'NO_DATA', NULL, '2026-02-07 19:00:00');
+INSERT INTO `system_metrics` VALUES (58, 'risk_scan', 'RISK_SCAN_1770463800013', 153, 'NO_DATA', NULL, '2026-02-07 19:30:00');
+INSERT INTO `system_metrics` VALUES (59, 'risk_scan', 'RISK_SCAN_1770465600011', 143, 'NO_DATA', NULL, '2026-02-07 20:00:00');
+INSERT INTO `system_metrics` VALUES (60, 'risk_scan', 'RISK_SCAN_1770517800015', 275, 'NO_DATA', NULL, '2026-02-08 10:30:00');
+INSERT INTO `system_metrics` VALUES (61, 'risk_scan', 'RISK_SCAN_1770519600014', 134, 'NO_DATA', NULL, '2026-02-08 11:00:00');
+INSERT INTO `system_metrics` VALUES (62, 'risk_scan', 'RISK_SCAN_1770521400014', 95, 'NO_DATA', NULL, '2026-02-08 11:30:00');
+INSERT INTO `system_metrics` VALUES (63, 'risk_scan', 'RISK_SCAN_1770523200002', 82, 'NO_DATA', NULL, '2026-02-08 12:00:00');
+INSERT INTO `system_metrics` VALUES (64, 'risk_scan', 'RISK_SCAN_1770525000003', 74, 'NO_DATA', NULL, '2026-02-08 12:30:00');
+INSERT INTO `system_metrics` VALUES (65, 'risk_scan', 'RISK_SCAN_1770526800013', 195, 'NO_DATA', NULL, '2026-02-08 13:00:00');
+INSERT INTO `system_metrics` VALUES (66, 'risk_scan', 'RISK_SCAN_1770528600006', 185, 'NO_DATA', NULL, '2026-02-08 13:30:00');
+INSERT INTO `system_metrics` VALUES (67, 'risk_scan', 'RISK_SCAN_1770530400014', 109, 'NO_DATA', NULL, '2026-02-08 14:00:00');
+INSERT INTO `system_metrics` VALUES (68, 'risk_scan', 'RISK_SCAN_1770532200013', 74, 'NO_DATA', NULL, '2026-02-08 14:30:00');
+INSERT INTO `system_metrics` VALUES (69, 'risk_scan', 'RISK_SCAN_1770534000007', 104, 'NO_DATA', NULL, '2026-02-08 15:00:00');
+INSERT INTO `system_metrics` VALUES (70, 'risk_scan', 'RISK_SCAN_1770535800001', 79, 'NO_DATA', NULL, '2026-02-08 15:30:00');
 
 -- ----------------------------
 -- Table structure for teacher
@@ -0,0 +1,171 @@
+package com.example.algorithm;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * JMH 基准入口（mvn -Pbenchmark verify 时由 exec 插件调用）
+ *
+ * 跑完后把每个基准的平均耗时和 gc.alloc.rate.norm（每次调用分配字节数）
+ * 与 src/jmh/jmh-baseline.properties 比对，任一项超过基线 (1 + 容差) 就以非 0 退出，让构建失败。
+ * 基线和机器相关，换机器或确认是预期变化后用 -Djmh.updateBaseline=true 重新生成并提交。
+ */
+public final class BenchmarkRunner {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    // 分配量接近 0 时容差乘出来也接近 0，再给一点绝对余量，避免 JIT 抖动误报
+    private static final double ALLOC_SLACK_BYTES = 1024;
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = System.getProperty("jmh.include", "com.example.algorithm.*Benchmark");
+        double tolerance = Double.parseDouble(System.getProperty("jmh.tolerance", "0.30"));
+        boolean updateBaseline = Boolean.getBoolean("jmh.updateBaseline");
+        Path baselineFile = Paths.get(System.getProperty("jmh.baseline", "src/jmh/jmh-baseline.properties"));
+
+        Files.createDirectories(Paths.get("target"));
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        Map<String, Double> current = collect(results);
+        if (updateBaseline) {
+            // 只覆盖本次跑过的项，用 -Djmh.include 跑部分基准时不会丢掉其它项的基线
+            Map<String, Double> merged = new TreeMap<>();
+            readBaseline(baselineFile).forEach((k, v) -> merged.put((String) k, Double.parseDouble((String) v)));
+            merged.putAll(current);
+            writeBaseline(baselineFile, merged);
+            System.out.println("基准基线已更新: " + baselineFile.toAbsolutePath() + "（本次 " + current.size() + " 项）");
+            return;
+        }
+
+        Properties baseline = readBaseline(baselineFile);
+        if (baseline.isEmpty()) {
+            System.out.println("未找到基准基线 " + baselineFile + "，只输出结果不做比对");
+            return;
+        }
+
+        List<String> regressions = compare(current, baseline, tolerance);
+        if (!regressions.isEmpty()) {
+            System.out.println("基准退化（容差 " + (int) Math.round(tolerance * 100) + "%）:");
+            regressions.forEach(r -> System.out.println("  " + r));
+            System.exit(1);
+        }
+        System.out.println("基准比对通过，共 " + current.size() + " 项");
+    }
+
+    /**
+     * 结果展开成 key -> 数值
+     * key 形如 ScoringBenchmark.scoreColumnar.samples_1000.score（平均耗时）/ .alloc（字节/次）
+     */
+    private static Map<String, Double> collect(Collection<RunResult> results) {
+        Map<String, Double> values = new TreeMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            String key = key(params);
+
+            Result<?> primary = result.getPrimaryResult();
+            values.put(key + ".score", primary.getScore());
+
+            Result<?> alloc = result.getSecondaryResults().get(ALLOC_METRIC);
+            if (alloc != null) {
+                values.put(key + ".alloc", alloc.getScore());
+            }
+        }
+        return values;
+    }
+
+    private static String key(BenchmarkParams params) {
+        String benchmark = params.getBenchmark();
+        int methodDot = benchmark.lastIndexOf('.');
+        int classDot = benchmark.lastIndexOf('.', methodDot - 1);
+        StringBuilder key = new StringBuilder(benchmark.substring(classDot + 1));
+        for (String name : params.getParamsKeys()) {
+            key.append('.').append(name).append('_').append(params.getParam(name));
+        }
+        return key.toString();
+    }
+
+    private static List<String> compare(Map<String, Double> current, Properties baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            String key = entry.getKey();
+            String expected = baseline.getProperty(key);
+            if (expected == null) {
+                System.out.println("  [无基线] " + key + " = " + format(entry.getValue()));
+                continue;
+            }
+
+            double base = Double.parseDouble(expected);
+            double actual = entry.getValue();
+            double limit = base * (1 + tolerance) + (key.endsWith(".alloc") ? ALLOC_SLACK_BYTES : 0);
+            String line = key + ": 基线 " + format(base) + " -> 本次 " + format(actual);
+            if (actual > limit) {
+                regressions.add(line);
+            } else {
+                System.out.println("  [OK] " + line);
+            }
+        }
+        return regressions;
+    }
+
+    private static Properties readBaseline(Path file) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * 按 key 排序写出，方便 diff
+     */
+    private static void writeBaseline(Path file, Map<String, Double> values) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# JMH baseline, generated " + LocalDateTime.now().withNano(0) + "\n");
+            writer.write("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+                    + ", " + Runtime.getRuntime().availableProcessors() + " cpu\n");
+            writer.write("# .score = 平均耗时（单位见各基准 @OutputTimeUnit），.alloc = 每次调用分配字节数\n");
+            for (Map.Entry<String, Double> entry : values.entrySet()) {
+                writer.write(entry.getKey() + "=" + format(entry.getValue()) + "\n");
+            }
+        }
+    }
+
+    private static String format(double value) {
+        return String.format("%.3f", value);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.algorithm;
+
+import com.example.entity.LearningFeatures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 特征提取基准：逐行 new double[8] 的 batchExtractFeatures 对比直接写 TrainingDataset / 列存矩阵
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Xmx2g"})
+public class FeatureExtractionBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int samples;
+
+    private FeatureExtractor extractor;
+    private List<LearningFeatures> features;
+    private double[] matrix;
+    private List<Integer> labels;
+
+    @Setup
+    public void setup() {
+        extractor = new FeatureExtractor();
+        features = SyntheticData.features(samples);
+        matrix = new double[FeatureExtractor.FEATURE_SIZE * samples];
+        labels = SyntheticData.labels(SyntheticData.vectors(features));
+    }
+
+    @Benchmark
+    public List<double[]> batchExtractFeatures() {
+        return extractor.batchExtractFeatures(features);
+    }
+
+    @Benchmark
+    public TrainingDataset extractIntoDataset() {
+        return extractor.batchExtractFeatures(features, labels);
+    }
+
+    @Benchmark
+    public double[] extractIntoColumns() {
+        for (int i = 0; i < samples; i++) {
+            extractor.extractInto(features.get(i), matrix, i, samples);
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.algorithm;
+
+import com.example.entity.LearningFeatures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 打分基准
+ * - predictSingle：单条 predictProbability（与样本量无关）
+ * - predictBatch：LogisticRegression.predictBatch（List<double[]> 逐行）
+ * - scoreColumnar：BatchRiskScorer 列存矩阵批量打分
+ * - extractAndScoreStreaming：predictClassRisk 流式回调里的内存部分（复用 double[8] 提取 + 单条打分）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Xmx2g"})
+public class ScoringBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Single {
+        LogisticRegression model;
+        double[] x;
+
+        @Setup
+        public void setup() {
+            model = newModel();
+            x = SyntheticData.vectors(SyntheticData.features(1)).get(0);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Batch {
+        @Param({"1000", "100000", "1000000"})
+        public int samples;
+
+        LogisticRegression model;
+        ModelParameters params;
+        BatchRiskScorer scorer;
+        FeatureExtractor extractor;
+        List<LearningFeatures> features;
+        List<double[]> vectors;
+        double[] matrix;
+        double[] out;
+        double[] row;
+
+        @Setup
+        public void setup() {
+            model = newModel();
+            params = model.getModelParameters();
+            scorer = new BatchRiskScorer();
+            extractor = new FeatureExtractor();
+            features = SyntheticData.features(samples);
+            vectors = SyntheticData.vectors(features);
+            matrix = new double[FeatureExtractor.FEATURE_SIZE * samples];
+            for (int i = 0; i < samples; i++) {
+                extractor.extractInto(features.get(i), matrix, i, samples);
+            }
+            out = new double[samples];
+            row = new double[FeatureExtractor.FEATURE_SIZE];
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double predictSingle(Single s) {
+        return s.model.predictProbability(s.x);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] predictBatch(Batch b) {
+        return b.model.predictBatch(b.vectors);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] scoreColumnar(Batch b) {
+        b.scorer.score(b.matrix, b.samples, b.samples, b.params, b.out);
+        return b.out;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double extractAndScoreStreaming(Batch b) {
+        double total = 0.0;
+        for (LearningFeatures f : b.features) {
+            b.extractor.extractInto(f, b.row, 0, 1);
+            total += b.model.predictProbability(b.row);
+        }
+        return total;
+    }
+
+    private static LogisticRegression newModel() {
+        LogisticRegression model = new LogisticRegression();
+        model.setWeights(SyntheticData.fixedWeights());
+        model.setBias(SyntheticData.fixedBias());
+        return model;
+    }
+}
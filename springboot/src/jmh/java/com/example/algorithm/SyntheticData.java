@@ -0,0 +1,76 @@
+package com.example.algorithm;
+
+import com.example.entity.LearningFeatures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的合成数据（固定随机种子，每次生成的数据完全相同）
+ * 取值范围参照 learning_features 表里的真实分布
+ */
+final class SyntheticData {
+
+    static final long SEED = 20260101L;
+
+    // 生成标签用的“真实”模型：学习越投入风险越低
+    private static final double[] TRUE_WEIGHTS = {-1.2, -2.0, -2.5, -3.0, -0.8, -1.5, -1.8, -1.0};
+    private static final double TRUE_BIAS = 6.0;
+
+    private SyntheticData() {
+    }
+
+    static List<LearningFeatures> features(int n) {
+        Random random = new Random(SEED);
+        List<LearningFeatures> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LearningFeatures f = new LearningFeatures();
+            f.setId(i + 1);
+            f.setStudentId(i % 5000 + 1);
+            f.setCourseId(i % 20 + 1);
+            f.setVideoWatchTime(random.nextDouble() * 200);
+            f.setVideoCompletionRate(random.nextDouble() * 100);
+            f.setHomeworkSubmitRate(random.nextDouble() * 100);
+            f.setHomeworkAvgScore(random.nextDouble() * 100);
+            f.setLoginFrequency(random.nextInt(30));
+            f.setFocusScore(random.nextDouble() * 100);
+            f.setStudyConsistency(random.nextDouble() * 100);
+            f.setInteractionLevel(random.nextDouble() * 100);
+            list.add(f);
+        }
+        return list;
+    }
+
+    static List<double[]> vectors(List<LearningFeatures> features) {
+        return new FeatureExtractor().batchExtractFeatures(features);
+    }
+
+    /**
+     * 按真实模型加噪声生成 0/1 标签
+     */
+    static List<Integer> labels(List<double[]> vectors) {
+        Random random = new Random(SEED + 1);
+        List<Integer> labels = new ArrayList<>(vectors.size());
+        for (double[] x : vectors) {
+            double z = TRUE_BIAS;
+            for (int j = 0; j < x.length; j++) {
+                z += TRUE_WEIGHTS[j] * x[j];
+            }
+            double p = 1.0 / (1.0 + Math.exp(-z));
+            labels.add(random.nextDouble() < p ? 1 : 0);
+        }
+        return labels;
+    }
+
+    /**
+     * 固定权重，避免 LogisticRegression 构造时的随机初始化影响打分耗时比较
+     */
+    static double[] fixedWeights() {
+        return TRUE_WEIGHTS.clone();
+    }
+
+    static double fixedBias() {
+        return TRUE_BIAS;
+    }
+}
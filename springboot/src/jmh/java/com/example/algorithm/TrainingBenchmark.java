@@ -0,0 +1,87 @@
+package com.example.algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 训练基准：LogisticRegression.train 单线程全量梯度下降（List 入参 / TrainingDataset 入参）
+ * vs trainParallel（ForkJoin 分块求梯度）
+ * 每次只跑 ITERATIONS 轮（线上默认 1000 轮，1M 样本单次就要几分钟），比较的是每轮的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Xmx2g"})
+public class TrainingBenchmark {
+
+    static final int ITERATIONS = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    public int samples;
+
+    private List<double[]> vectors;
+    private List<Integer> labels;
+    private TrainingDataset dataset;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setup() {
+        vectors = SyntheticData.vectors(SyntheticData.features(samples));
+        labels = SyntheticData.labels(vectors);
+        dataset = TrainingDataset.of(vectors, labels);
+        // train() 每次都会往 System.out 打印损失和权重，压测期间屏蔽掉
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public double train() {
+        LogisticRegression model = new LogisticRegression();
+        model.setWeights(new double[model.getFeatureSize()]);
+        model.setBias(0.0);
+        model.setMaxIterations(ITERATIONS);
+        model.train(vectors, labels);
+        return model.getBias();
+    }
+
+    @Benchmark
+    public double trainDataset() {
+        LogisticRegression model = new LogisticRegression();
+        model.setWeights(new double[model.getFeatureSize()]);
+        model.setBias(0.0);
+        model.setMaxIterations(ITERATIONS);
+        model.train(dataset);
+        return model.getBias();
+    }
+
+    @Benchmark
+    public double trainParallel() {
+        LogisticRegression model = new LogisticRegression();
+        model.setMaxIterations(ITERATIONS);
+        model.setConvergenceTolerance(0.0);
+        model.trainParallel(dataset);
+        return model.getBias();
+    }
+}
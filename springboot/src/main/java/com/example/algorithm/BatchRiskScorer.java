@@ -0,0 +1,80 @@
+package com.example.algorithm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 批量打分引擎
+ * 输入是列存的特征矩阵（第 j 维第 i 行在 matrix[j * stride + i]），一次算完一整块的风险概率。
+ *
+ * 启动参数带了 --add-modules jdk.incubator.vector 时走 Vector API，否则自动退回标量循环，
+ * 两条路径的计算顺序一致，结果相同。
+ */
+@Component
+public class BatchRiskScorer {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchRiskScorer.class);
+
+    private final boolean vectorized;
+
+    public BatchRiskScorer() {
+        this.vectorized = detectVectorSupport();
+        log.info("批量打分引擎初始化：{}", vectorized ? "Vector API (" + VectorLinearKernel.lanes() + " lanes)" : "标量模式");
+    }
+
+    /**
+     * 对矩阵前 rows 行打分，结果写到 out[0..rows)
+     * @param matrix 列存特征矩阵
+     * @param stride 每一列的长度（即矩阵容量行数，>= rows）
+     * @param rows   本次有效行数
+     * @param params 模型参数（调用方负责传入同一时刻的快照）
+     * @param out    输出概率，长度 >= rows
+     */
+    public void score(double[] matrix, int stride, int rows, ModelParameters params, double[] out) {
+        double[] weights = params.getWeights();
+        if (matrix.length < weights.length * stride || out.length < rows || rows > stride) {
+            throw new IllegalArgumentException("批量打分矩阵尺寸不匹配");
+        }
+
+        if (vectorized) {
+            VectorLinearKernel.linear(matrix, stride, rows, weights, params.getBias(), out);
+        } else {
+            scalarLinear(matrix, stride, rows, weights, params.getBias(), out);
+        }
+
+        for (int i = 0; i < rows; i++) {
+            out[i] = 1.0 / (1.0 + Math.exp(-out[i]));
+        }
+    }
+
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    private void scalarLinear(double[] matrix, int stride, int rows, double[] weights, double bias, double[] z) {
+        for (int i = 0; i < rows; i++) {
+            z[i] = bias;
+        }
+        // 按列累加，内层循环连续访问内存
+        for (int j = 0; j < weights.length; j++) {
+            double w = weights[j];
+            int base = j * stride;
+            for (int i = 0; i < rows; i++) {
+                z[i] += w * matrix[base + i];
+            }
+        }
+    }
+
+    private static boolean detectVectorSupport() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            VectorLinearKernel.lanes();
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+}
@@ -17,6 +17,9 @@ import java.util.List;
 @Component
 public class FeatureExtractor {
 
+    /** 特征维度（与 LogisticRegression 默认维度一致） */
+    public static final int FEATURE_SIZE = 8;
+
     /**
      * 从LearningFeatures实体提取特征向量
      * 输出固定8维，并且每一维都在 0~1
@@ -26,35 +29,62 @@ public class FeatureExtractor {
             throw new IllegalArgumentException("特征数据不能为空");
         }
 
-        double[] featureVector = new double[8];
+        double[] featureVector = new double[FEATURE_SIZE];
+        fill(features, featureVector, 0, 1);
+        return featureVector;
+    }
+
+    /**
+     * 把一行特征直接写进列存矩阵：第 j 维写到 matrix[j * stride + row]
+     * 批量打分时复用同一块 double[]，避免每行 new 一个 double[8]
+     */
+    public void extractInto(LearningFeatures features, double[] matrix, int row, int stride) {
+        if (features == null) {
+            throw new IllegalArgumentException("特征数据不能为空");
+        }
+        fill(features, matrix, row, stride);
+    }
 
+    /**
+     * 提取一行特征直接追加到训练数据集（行存），不经过中间的 double[]
+     */
+    public void extractInto(LearningFeatures features, int label, TrainingDataset dataset) {
+        if (features == null) {
+            throw new IllegalArgumentException("特征数据不能为空");
+        }
+        if (dataset.featureSize() != FEATURE_SIZE) {
+            throw new IllegalArgumentException("特征维度不匹配，期望: " + FEATURE_SIZE + ", 实际: " + dataset.featureSize());
+        }
+        int row = dataset.appendRow(label);
+        fill(features, dataset.featureArray(), row * FEATURE_SIZE, 1);
+    }
+
+    private void fill(LearningFeatures features, double[] dst, int offset, int stride) {
         // 1. 视频观看时间（你的库里常见是“分钟”例如 90/173）
         //    这里自动识别：>24 视为分钟，转为小时；然后按 0~10 小时归一化
         double watchTimeHours = toHoursSmart(features.getVideoWatchTime());
-        featureVector[0] = normalizeRange(watchTimeHours, 0.0, 10.0);
+        dst[offset] = normalizeRange(watchTimeHours, 0.0, 10.0);
 
         // 2. 视频完成率（可能是 0~1 或 0~100）
-        featureVector[1] = norm01Smart(features.getVideoCompletionRate());
+        dst[offset + stride] = norm01Smart(features.getVideoCompletionRate());
 
         // 3. 作业提交率（可能是 0~1 或 0~100）
-        featureVector[2] = norm01Smart(features.getHomeworkSubmitRate());
+        dst[offset + 2 * stride] = norm01Smart(features.getHomeworkSubmitRate());
 
         // 4. 作业平均分（常见 0~100）
-        featureVector[3] = normalizeRange(safeDouble(features.getHomeworkAvgScore()), 0.0, 100.0);
+        dst[offset + 3 * stride] = normalizeRange(safeDouble(features.getHomeworkAvgScore()), 0.0, 100.0);
 
         // 5. 登录频率（次/周），按 0~50 归一化（你也可以改成 0~20 更敏感）
-        featureVector[4] = normalizeRange(safeDouble(features.getLoginFrequency()), 0.0, 50.0);
+        dst[offset + 4 * stride] = normalizeRange(safeDouble(features.getLoginFrequency()), 0.0, 50.0);
 
         // 6. 专注度评分（可能是 0~1 或 0~100）
-        featureVector[5] = norm01Smart(features.getFocusScore());
+        dst[offset + 5 * stride] = norm01Smart(features.getFocusScore());
 
         // 7. 学习持续性（可能是 0~1 或 0~100）
-        featureVector[6] = norm01Smart(features.getStudyConsistency());
+        dst[offset + 6 * stride] = norm01Smart(features.getStudyConsistency());
 
         // 8. 互动水平（可能是 0~1 或 0~100）
-        featureVector[7] = norm01Smart(features.getInteractionLevel());
-
-        return featureVector;
+        dst[offset + 7 * stride] = norm01Smart(features.getInteractionLevel());
     }
 
     /**
@@ -70,6 +100,21 @@ public class FeatureExtractor {
         return featureVectors;
     }
 
+    /**
+     * 批量提取特征，直接填进训练数据集
+     * @param labels 与 featuresList 一一对应的 0/1 标签
+     */
+    public TrainingDataset batchExtractFeatures(List<LearningFeatures> featuresList, List<Integer> labels) {
+        if (featuresList == null || labels == null || featuresList.size() != labels.size()) {
+            throw new IllegalArgumentException("训练数据和标签数量不匹配");
+        }
+        TrainingDataset dataset = new TrainingDataset(FEATURE_SIZE, featuresList.size());
+        for (int i = 0; i < featuresList.size(); i++) {
+            extractInto(featuresList.get(i), labels.get(i), dataset);
+        }
+        return dataset;
+    }
+
     /**
      * 从原始行为数据计算特征
      * 注意：这里我也做了“0~1/0~100兼容”，以及 watchTime 的分钟/小时处理
@@ -4,6 +4,9 @@ import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * 逻辑回归算法实现类
@@ -18,6 +21,16 @@ public class LogisticRegression {
     private int maxIterations = 1000;    // 最大迭代次数
     private int featureSize;       // 特征维度
 
+    // 并行训练（trainParallel）配置
+    private int batchSize = 0;                 // 小批量大小，<=0 表示全量梯度下降
+    private int parallelism = Runtime.getRuntime().availableProcessors(); // 计算梯度的线程数
+    private long seed = 42L;                   // 随机种子（初始化权重 + 每轮打乱样本）
+    private double convergenceTolerance = 1e-6; // 相邻两次检查的损失变化小于该值时提前停止
+    private int lossCheckInterval = 10;        // 每隔多少轮顺带算一次损失（算损失要两次 log，比梯度本身还贵）
+
+    // 并行计算梯度时每个分块的样本数；分块边界只和样本数有关，和线程数无关，保证结果可复现
+    private static final int GRADIENT_BLOCK_SIZE = 4096;
+
     /**
      * 初始化模型
      */
@@ -55,25 +68,32 @@ public class LogisticRegression {
      * @param labels 标签列表，0表示低风险，1表示高风险
      */
     public void train(List<double[]> features, List<Integer> labels) {
-        if (features == null || labels == null || features.size() != labels.size()) {
-            throw new IllegalArgumentException("特征和标签数量不匹配");
-        }
+        train(TrainingDataset.of(features, labels));
+    }
 
-        int m = features.size();
+    /**
+     * 训练模型（单线程全量梯度下降）
+     */
+    public void train(TrainingDataset dataset) {
+        checkDataset(dataset);
+
+        int m = dataset.size();
+        double[] x = dataset.featureArray();
+        byte[] y = dataset.labelArray();
+        double[] weightGradients = new double[featureSize];
 
         for (int iteration = 0; iteration < maxIterations; iteration++) {
-            double[] weightGradients = new double[featureSize];
+            Arrays.fill(weightGradients, 0.0);
             double biasGradient = 0.0;
 
             // 计算梯度
-            for (int i = 0; i < m; i++) {
-                double[] x = features.get(i);
-                double predicted = predictProbability(x);
-                double error = predicted - labels.get(i);
+            for (int i = 0, offset = 0; i < m; i++, offset += featureSize) {
+                double predicted = sigmoid(linear(x, offset));
+                double error = predicted - y[i];
 
                 // 累积梯度
                 for (int j = 0; j < featureSize; j++) {
-                    weightGradients[j] += error * x[j];
+                    weightGradients[j] += error * x[offset + j];
                 }
                 biasGradient += error;
             }
@@ -86,7 +106,7 @@ public class LogisticRegression {
 
             // 每100次迭代计算一次损失
             if (iteration % 100 == 0) {
-                double loss = calculateLoss(features, labels);
+                double loss = calculateLoss(dataset);
                 System.out.printf("迭代 %d, 损失: %.4f%n", iteration, loss);
             }
         }
@@ -96,6 +116,192 @@ public class LogisticRegression {
         System.out.println("偏置: " + bias);
     }
 
+    /**
+     * 并行训练模型（小批量随机梯度下降 + ForkJoinPool 分块求梯度）
+     *
+     * 与 train 的区别：
+     * 1) 每个批次的样本按固定大小分块，各块在 ForkJoinPool 里独立累积梯度，最后按块顺序归约，
+     *    所以同一个 seed 无论几个线程，训练结果都逐位相同
+     * 2) 每 lossCheckInterval 轮在求梯度的同一遍里顺带算损失，不再单独全量跑一遍 calculateLoss
+     * 3) 相邻两次检查的平均损失变化小于 convergenceTolerance 时提前停止
+     * 权重会先按 seed 重新初始化，不沿用上一次训练的结果。
+     *
+     * @return 实际训练的轮数
+     */
+    public int trainParallel(List<double[]> features, List<Integer> labels) {
+        return trainParallel(TrainingDataset.of(features, labels));
+    }
+
+    /**
+     * 并行训练模型（直接使用 TrainingDataset，说明见 trainParallel(List, List)）
+     *
+     * @return 实际训练的轮数
+     */
+    public int trainParallel(TrainingDataset dataset) {
+        checkDataset(dataset);
+        int m = dataset.size();
+        double[] x = dataset.featureArray();
+        byte[] y = dataset.labelArray();
+
+        Random random = new Random(seed);
+        for (int j = 0; j < featureSize; j++) {
+            weights[j] = random.nextDouble() * 0.01 - 0.005;
+        }
+        bias = random.nextDouble() * 0.01 - 0.005;
+
+        int batch = batchSize <= 0 || batchSize >= m ? m : batchSize;
+        int[] order = new int[m];
+        for (int i = 0; i < m; i++) order[i] = i;
+
+        // 每个块的梯度占 featureSize + 2 个位置：权重梯度、偏置梯度、损失
+        int maxBlocks = (batch + GRADIENT_BLOCK_SIZE - 1) / GRADIENT_BLOCK_SIZE;
+        double[] partials = new double[maxBlocks * (featureSize + 2)];
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            double previousLoss = Double.NaN;
+            int checkInterval = Math.max(1, lossCheckInterval);
+            int epoch = 0;
+            while (epoch < maxIterations) {
+                if (batch < m) {
+                    shuffle(order, random);
+                }
+                boolean withLoss = epoch % checkInterval == 0 || epoch == maxIterations - 1;
+
+                double epochLoss = 0.0;
+                for (int start = 0; start < m; start += batch) {
+                    int size = Math.min(batch, m - start);
+                    int blocks = (size + GRADIENT_BLOCK_SIZE - 1) / GRADIENT_BLOCK_SIZE;
+                    GradientTask task = new GradientTask(x, y, order, start, size, 0, blocks, weights, bias, withLoss, partials);
+                    if (blocks > 1) {
+                        pool.invoke(task);
+                    } else {
+                        task.compute();
+                    }
+                    epochLoss += applyGradient(partials, blocks, size);
+                }
+                epoch++;
+                if (!withLoss) continue;
+
+                epochLoss /= m;
+                if ((epoch - 1) % 100 == 0) {
+                    System.out.printf("轮次 %d, 损失: %.4f%n", epoch - 1, epochLoss);
+                }
+                if (!Double.isNaN(previousLoss) && Math.abs(previousLoss - epochLoss) < convergenceTolerance) {
+                    System.out.printf("损失收敛，第 %d 轮提前停止, 损失: %.6f%n", epoch, epochLoss);
+                    break;
+                }
+                previousLoss = epochLoss;
+            }
+
+            System.out.println("模型训练完成（并行，" + epoch + " 轮）");
+            System.out.println("权重: " + Arrays.toString(weights));
+            System.out.println("偏置: " + bias);
+            return epoch;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 按块顺序归约梯度并更新参数，返回本批次的损失总和（更新前的参数计算）
+     */
+    private double applyGradient(double[] partials, int blocks, int size) {
+        int width = featureSize + 2;
+        double[] weightGradients = new double[featureSize];
+        double biasGradient = 0.0;
+        double loss = 0.0;
+        for (int b = 0; b < blocks; b++) {
+            int base = b * width;
+            for (int j = 0; j < featureSize; j++) {
+                weightGradients[j] += partials[base + j];
+            }
+            biasGradient += partials[base + featureSize];
+            loss += partials[base + featureSize + 1];
+        }
+
+        for (int j = 0; j < featureSize; j++) {
+            weights[j] -= learningRate * weightGradients[j] / size;
+        }
+        bias -= learningRate * biasGradient / size;
+        return loss;
+    }
+
+    private static void shuffle(int[] order, Random random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int k = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[k];
+            order[k] = tmp;
+        }
+    }
+
+    /**
+     * 计算一个批次里 [blockFrom, blockTo) 这些块的梯度，每块结果写到 partials 各自的位置
+     */
+    private static final class GradientTask extends RecursiveAction {
+        private final double[] x;
+        private final byte[] y;
+        private final int[] order;
+        private final int start;
+        private final int size;
+        private final int blockFrom;
+        private final int blockTo;
+        private final double[] weights;
+        private final double bias;
+        private final boolean withLoss;
+        private final double[] partials;
+
+        GradientTask(double[] x, byte[] y, int[] order, int start, int size, int blockFrom, int blockTo,
+                     double[] weights, double bias, boolean withLoss, double[] partials) {
+            this.x = x;
+            this.y = y;
+            this.order = order;
+            this.start = start;
+            this.size = size;
+            this.blockFrom = blockFrom;
+            this.blockTo = blockTo;
+            this.weights = weights;
+            this.bias = bias;
+            this.withLoss = withLoss;
+            this.partials = partials;
+        }
+
+        @Override
+        protected void compute() {
+            if (blockTo - blockFrom > 1) {
+                int mid = (blockFrom + blockTo) >>> 1;
+                invokeAll(new GradientTask(x, y, order, start, size, blockFrom, mid, weights, bias, withLoss, partials),
+                        new GradientTask(x, y, order, start, size, mid, blockTo, weights, bias, withLoss, partials));
+                return;
+            }
+
+            int n = weights.length;
+            int base = blockFrom * (n + 2);
+            Arrays.fill(partials, base, base + n + 2, 0.0);
+
+            int from = blockFrom * GRADIENT_BLOCK_SIZE;
+            int to = Math.min(size, from + GRADIENT_BLOCK_SIZE);
+            for (int k = from; k < to; k++) {
+                int i = order[start + k];
+                int offset = i * n;
+                double z = bias;
+                for (int j = 0; j < n; j++) {
+                    z += weights[j] * x[offset + j];
+                }
+                double predicted = 1.0 / (1.0 + Math.exp(-z));
+                double error = predicted - y[i];
+                for (int j = 0; j < n; j++) {
+                    partials[base + j] += error * x[offset + j];
+                }
+                partials[base + n] += error;
+                if (withLoss) {
+                    partials[base + n + 1] -= y[i] * Math.log(predicted + 1e-10) + (1 - y[i]) * Math.log(1 - predicted + 1e-10);
+                }
+            }
+        }
+    }
+
     /**
      * 预测单个样本的风险概率
      * @param features 特征向量
@@ -146,13 +352,15 @@ public class LogisticRegression {
     /**
      * 计算损失函数（交叉熵损失）
      */
-    private double calculateLoss(List<double[]> features, List<Integer> labels) {
+    private double calculateLoss(TrainingDataset dataset) {
         double loss = 0.0;
-        int m = features.size();
+        int m = dataset.size();
+        double[] x = dataset.featureArray();
+        byte[] labels = dataset.labelArray();
 
-        for (int i = 0; i < m; i++) {
-            double predicted = predictProbability(features.get(i));
-            int y = labels.get(i);
+        for (int i = 0, offset = 0; i < m; i++, offset += featureSize) {
+            double predicted = sigmoid(linear(x, offset));
+            int y = labels[i];
 
             // 交叉熵损失
             loss += y * Math.log(predicted + 1e-10) + (1 - y) * Math.log(1 - predicted + 1e-10);
@@ -161,6 +369,26 @@ public class LogisticRegression {
         return -loss / m;
     }
 
+    /**
+     * 线性部分 bias + w·x，x 为行存数组里从 offset 开始的一行
+     */
+    private double linear(double[] x, int offset) {
+        double z = bias;
+        for (int j = 0; j < featureSize; j++) {
+            z += weights[j] * x[offset + j];
+        }
+        return z;
+    }
+
+    private void checkDataset(TrainingDataset dataset) {
+        if (dataset == null || dataset.isEmpty()) {
+            throw new IllegalArgumentException("训练样本不能为空");
+        }
+        if (dataset.featureSize() != featureSize) {
+            throw new IllegalArgumentException("特征维度不匹配，期望: " + featureSize + ", 实际: " + dataset.featureSize());
+        }
+    }
+
     /**
      * Sigmoid函数
      */
@@ -195,15 +423,27 @@ public class LogisticRegression {
      * 评估模型性能
      */
     public ModelMetrics evaluate(List<double[]> testFeatures, List<Integer> testLabels, double threshold) {
+        return evaluate(TrainingDataset.of(testFeatures, testLabels), threshold);
+    }
+
+    /**
+     * 评估模型性能（TrainingDataset）
+     */
+    public ModelMetrics evaluate(TrainingDataset dataset, double threshold) {
+        checkDataset(dataset);
+        double[] x = dataset.featureArray();
+        byte[] labels = dataset.labelArray();
+
         int truePositive = 0;  // 真正例
         int falsePositive = 0; // 假正例
         int trueNegative = 0;  // 真负例
         int falseNegative = 0; // 假负例
 
-        for (int i = 0; i < testFeatures.size(); i++) {
-            double probability = predictProbability(testFeatures.get(i));
+        int total = dataset.size();
+        for (int i = 0, offset = 0; i < total; i++, offset += featureSize) {
+            double probability = sigmoid(linear(x, offset));
             boolean predictedPositive = probability >= threshold;
-            boolean actualPositive = testLabels.get(i) == 1;
+            boolean actualPositive = labels[i] == 1;
 
             if (predictedPositive && actualPositive) truePositive++;
             else if (predictedPositive && !actualPositive) falsePositive++;
@@ -218,7 +458,6 @@ public class LogisticRegression {
         metrics.setFalseNegative(falseNegative);
 
         // 计算各项指标
-        int total = testFeatures.size();
         metrics.setAccuracy((double) (truePositive + trueNegative) / total);
 
         double precisionDenominator = truePositive + falsePositive;
@@ -269,6 +508,46 @@ public class LogisticRegression {
     public int getFeatureSize() {
         return featureSize;
     }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public double getConvergenceTolerance() {
+        return convergenceTolerance;
+    }
+
+    public void setConvergenceTolerance(double convergenceTolerance) {
+        this.convergenceTolerance = convergenceTolerance;
+    }
+
+    public int getLossCheckInterval() {
+        return lossCheckInterval;
+    }
+
+    public void setLossCheckInterval(int lossCheckInterval) {
+        this.lossCheckInterval = lossCheckInterval;
+    }
 }
 
 /**
@@ -0,0 +1,177 @@
+package com.example.algorithm;
+
+import cn.hutool.core.bean.BeanUtil;
+import com.example.entity.ModelVersion;
+import com.example.mapper.ModelVersionMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 模型注册表（线上打分读的唯一入口）
+ *
+ * 持有两样东西，放在同一个不可变 State 里整体替换：
+ *   serving —— 打分用的 ModelSnapshot（解析好的 double[] 权重 + 偏置 + 阈值）
+ *   active  —— 库里当前激活的 ModelVersion，给 getActiveModel 读，不用每次查库
+ * 读只是一次 volatile 读，不加锁也不查库；activateModel 提交后整体换掉引用。
+ * 别的实例激活了模型时，定时只查一条激活模型的版本戳（id + updated_time），变了才重新加载。
+ */
+@Component
+public class ModelRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelRegistry.class);
+
+    @Resource
+    private ModelVersionMapper modelVersionMapper;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.INITIAL);
+
+    // 从库里加载激活模型时串行，避免同时多次全量查询
+    private final Object loadLock = new Object();
+
+    private final AtomicLong swaps = new AtomicLong();
+    private final AtomicLong stampChecks = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+
+    /**
+     * 当前打分用的模型快照（从不为 null，没有模型时返回不可用的空快照）
+     */
+    public ModelSnapshot current() {
+        return state.get().serving();
+    }
+
+    /**
+     * 当前激活的模型版本（返回副本）；还没从库里加载过时读穿一次
+     * @return 没有激活模型时返回 null
+     */
+    public ModelVersion getActiveModel() {
+        State s = state.get();
+        if (!s.checked()) {
+            s = reloadActive();
+        }
+        return s.active() == null ? null : BeanUtil.copyProperties(s.active(), ModelVersion.class);
+    }
+
+    /**
+     * 解析并校验模型，供激活前检查；权重无效时抛 IllegalArgumentException
+     */
+    public ModelSnapshot prepare(ModelVersion model) {
+        return ModelSnapshot.fromModelVersion(model);
+    }
+
+    /**
+     * 激活（model 应是激活后从库里重新查出的行，版本戳才对得上）
+     */
+    public void activate(ModelVersion model, ModelSnapshot snapshot) {
+        ModelVersion copy = BeanUtil.copyProperties(model, ModelVersion.class);
+        state.set(new State(snapshot, copy, ModelSnapshot.stampOf(model), true));
+        swaps.incrementAndGet();
+        log.info("✅ 模型已切换: id={}, version={}", snapshot.getModelId(), snapshot.getVersion());
+    }
+
+    /**
+     * 临时用库里某个模型打分（不改变激活状态）
+     */
+    public ModelSnapshot load(ModelVersion model) {
+        ModelSnapshot snapshot = ModelSnapshot.fromModelVersion(model);
+        state.updateAndGet(s -> new State(snapshot, s.active(), s.dbStamp(), s.checked()));
+        swaps.incrementAndGet();
+        return snapshot;
+    }
+
+    /**
+     * 本进程刚训练完的模型立即用于打分（保存并激活后会被库里的同一份模型替换）
+     * params 必须是训练器参数的副本
+     */
+    public void publishTrained(ModelParameters params) {
+        state.updateAndGet(s -> new State(ModelSnapshot.fromTrained(params, s.serving()), s.active(), s.dbStamp(), s.checked()));
+        swaps.incrementAndGet();
+    }
+
+    /**
+     * 只调整当前模型的风险阈值
+     */
+    public void updateThresholds(double low, double medium, double high) {
+        state.updateAndGet(s -> new State(s.serving().withThresholds(low, medium, high), s.active(), s.dbStamp(), s.checked()));
+        swaps.incrementAndGet();
+    }
+
+    /**
+     * 按版本戳刷新：只查激活模型的 id 和 updated_time，和上次看到的不一样才全量加载
+     */
+    @Scheduled(fixedDelayString = "${app.model.registry-refresh-ms:30000}")
+    public void refresh() {
+        stampChecks.incrementAndGet();
+        try {
+            ModelVersion stampRow = modelVersionMapper.selectActiveStamp();
+            String dbStamp = stampRow == null ? null : ModelSnapshot.stampOf(stampRow);
+            State s = state.get();
+            if (s.checked() && Objects.equals(dbStamp, s.dbStamp())) return;
+            reloadActive();
+        } catch (Exception e) {
+            loadFailures.incrementAndGet();
+            log.warn("⚠️ 模型版本戳检查失败: {}", e.getMessage());
+        }
+    }
+
+    private State reloadActive() {
+        synchronized (loadLock) {
+            ModelVersion model = modelVersionMapper.selectActiveModel();
+            if (model == null) {
+                // 库里没有激活模型：记下来避免反复读穿；打分继续用手上的模型
+                return state.updateAndGet(s -> new State(s.serving(), null, null, true));
+            }
+
+            ModelVersion copy = BeanUtil.copyProperties(model, ModelVersion.class);
+            String dbStamp = ModelSnapshot.stampOf(model);
+            ModelSnapshot snapshot;
+            try {
+                snapshot = ModelSnapshot.fromModelVersion(model);
+            } catch (IllegalArgumentException e) {
+                // 权重坏了不换打分模型，但记下版本戳，等下次有变化再试
+                loadFailures.incrementAndGet();
+                log.error("❌ 激活模型 id={} 无法加载: {}", model.getId(), e.getMessage());
+                return state.updateAndGet(s -> new State(s.serving(), copy, dbStamp, true));
+            }
+
+            State next = state.updateAndGet(s -> new State(snapshot, copy, dbStamp, true));
+            swaps.incrementAndGet();
+            log.info("✅ 从库里加载激活模型: id={}, version={}", model.getId(), model.getVersion());
+            return next;
+        }
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        State s = state.get();
+        ModelSnapshot serving = s.serving();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("serving_source", serving.getSource());
+        stats.put("serving_model_id", serving.getModelId());
+        stats.put("serving_version", serving.getVersion());
+        stats.put("serving_usable", serving.isUsable());
+        stats.put("serving_loaded_time", serving.getLoadedTime().toString());
+        stats.put("active_stamp", s.dbStamp());
+        stats.put("swaps", swaps.get());
+        stats.put("stamp_checks", stampChecks.get());
+        stats.put("load_failures", loadFailures.get());
+        return stats;
+    }
+
+    /**
+     * checked=false 表示还没从库里确认过激活模型
+     */
+    private record State(ModelSnapshot serving, ModelVersion active, String dbStamp, boolean checked) {
+        static final State INITIAL = new State(ModelSnapshot.EMPTY, null, null, false);
+    }
+}
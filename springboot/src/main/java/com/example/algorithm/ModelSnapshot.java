@@ -0,0 +1,227 @@
+package com.example.algorithm;
+
+import com.example.entity.ModelVersion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * 线上打分用的模型快照（不可变）
+ *
+ * 创建时把权重拷一份，之后不再修改，打分线程拿到引用就能无锁读到一份完整一致的
+ * 权重 + 偏置 + 阈值，不会读到训练或切换模型过程中的中间状态。
+ * 换模型只换 ModelRegistry 里的引用。
+ */
+public final class ModelSnapshot {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    // 没有可用模型时的默认阈值（和 RiskPredictor 原来的默认值一致）
+    static final double DEFAULT_LOW_THRESHOLD = 0.3;
+    static final double DEFAULT_MEDIUM_THRESHOLD = 0.7;
+    static final double DEFAULT_HIGH_THRESHOLD = 0.9;
+
+    /** 还没有加载任何模型：不可用，打分走兜底规则 */
+    static final ModelSnapshot EMPTY = new ModelSnapshot(null, null, null, null, null,
+            DEFAULT_LOW_THRESHOLD, DEFAULT_MEDIUM_THRESHOLD, DEFAULT_HIGH_THRESHOLD, "EMPTY");
+
+    private final Integer modelId;
+    private final String modelNo;
+    private final String version;
+    // 版本戳（id + updated_time），定时和库里比对，不一致才重新加载
+    private final String stamp;
+    private final ModelParameters parameters;
+    private final double lowThreshold;
+    private final double mediumThreshold;
+    private final double highThreshold;
+    // 来源：DATABASE（库里激活的模型）/ TRAINED（本进程刚训练、尚未保存）/ EMPTY
+    private final String source;
+    private final boolean usable;
+    private final LocalDateTime loadedTime;
+
+    private ModelSnapshot(Integer modelId, String modelNo, String version, String stamp, ModelParameters parameters,
+                          double lowThreshold, double mediumThreshold, double highThreshold, String source) {
+        this.modelId = modelId;
+        this.modelNo = modelNo;
+        this.version = version;
+        this.stamp = stamp;
+        this.parameters = parameters;
+        this.lowThreshold = lowThreshold;
+        this.mediumThreshold = mediumThreshold;
+        this.highThreshold = highThreshold;
+        this.source = source;
+        this.usable = isUsable(parameters);
+        this.loadedTime = LocalDateTime.now();
+    }
+
+    /**
+     * 由库里的模型版本构建（解析权重 JSON）
+     * @throws IllegalArgumentException 权重缺失、格式错误或维度不对
+     */
+    static ModelSnapshot fromModelVersion(ModelVersion model) {
+        double[] weights = parseWeights(model.getWeights());
+        if (weights.length != FeatureExtractor.FEATURE_SIZE) {
+            throw new IllegalArgumentException("模型权重维度不匹配，期望: " + FeatureExtractor.FEATURE_SIZE + ", 实际: " + weights.length);
+        }
+
+        ModelParameters params = new ModelParameters();
+        params.setWeights(weights);
+        params.setBias(model.getBias() == null ? 0.0 : model.getBias());
+        params.setFeatureSize(weights.length);
+
+        return new ModelSnapshot(model.getId(), model.getModelNo(), model.getVersion(), stampOf(model), params,
+                model.getLowThreshold() != null ? model.getLowThreshold() : DEFAULT_LOW_THRESHOLD,
+                model.getMediumThreshold() != null ? model.getMediumThreshold() : DEFAULT_MEDIUM_THRESHOLD,
+                model.getHighThreshold() != null ? model.getHighThreshold() : DEFAULT_HIGH_THRESHOLD,
+                "DATABASE");
+    }
+
+    /**
+     * 由本进程刚训练出的参数构建（params 应是 getModelParameters 返回的副本），阈值沿用 base
+     */
+    static ModelSnapshot fromTrained(ModelParameters params, ModelSnapshot base) {
+        return new ModelSnapshot(null, null, null, null, params,
+                base.lowThreshold, base.mediumThreshold, base.highThreshold, "TRAINED");
+    }
+
+    /**
+     * 同一份参数换一组阈值（参数对象不可变，直接共用）
+     */
+    ModelSnapshot withThresholds(double low, double medium, double high) {
+        return new ModelSnapshot(modelId, modelNo, version, stamp, parameters, low, medium, high, source);
+    }
+
+    static String stampOf(ModelVersion model) {
+        return model.getId() + "@" + model.getUpdatedTime();
+    }
+
+    /**
+     * 解析权重：JSON 数组，如 [0.1, -0.2, ...]
+     * 旧数据用 Arrays.toString 存的格式同样是合法 JSON，可以直接兼容
+     */
+    static double[] parseWeights(String weights) {
+        if (weights == null || weights.isBlank()) {
+            throw new IllegalArgumentException("模型权重为空");
+        }
+        double[] parsed;
+        try {
+            parsed = JSON.readValue(weights, double[].class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("模型权重格式错误: " + e.getOriginalMessage());
+        }
+        for (double w : parsed) {
+            if (!Double.isFinite(w)) {
+                throw new IllegalArgumentException("模型权重包含非法数值");
+            }
+        }
+        return parsed;
+    }
+
+    static String formatWeights(double[] weights) {
+        try {
+            return JSON.writeValueAsString(weights);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("模型权重序列化失败", e);
+        }
+    }
+
+    /**
+     * 权重几乎为 0 且偏置几乎为 0 => 模型基本没学到东西
+     */
+    private static boolean isUsable(ModelParameters params) {
+        if (params == null || params.getWeights() == null || params.getWeights().length == 0) {
+            return false;
+        }
+        double l2 = 0.0;
+        for (double w : params.getWeights()) {
+            l2 += w * w;
+        }
+        return !(Math.sqrt(l2) < 1e-6 && Math.abs(params.getBias()) < 1e-6);
+    }
+
+    /**
+     * 单条打分（不可用时返回 NaN，调用方走兜底规则）
+     */
+    public double predictProbability(double[] features) {
+        if (!usable) return Double.NaN;
+        double[] weights = parameters.getWeights();
+        if (features.length != weights.length) {
+            throw new IllegalArgumentException("特征维度不匹配，期望: " + weights.length + ", 实际: " + features.length);
+        }
+        double z = parameters.getBias();
+        for (int i = 0; i < weights.length; i++) {
+            z += weights[i] * features[i];
+        }
+        return 1.0 / (1.0 + Math.exp(-z));
+    }
+
+    /**
+     * 按本快照的阈值确定风险等级
+     */
+    public String riskLevel(double probability) {
+        if (probability < lowThreshold) {
+            return "LOW";
+        } else if (probability < mediumThreshold) {
+            return "MEDIUM";
+        } else {
+            return "HIGH";
+        }
+    }
+
+    /**
+     * 批量打分用（只读，不要修改返回对象）
+     */
+    ModelParameters parameters() {
+        return parameters;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public Integer getModelId() {
+        return modelId;
+    }
+
+    public String getModelNo() {
+        return modelNo;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getStamp() {
+        return stamp;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public double getLowThreshold() {
+        return lowThreshold;
+    }
+
+    public double getMediumThreshold() {
+        return mediumThreshold;
+    }
+
+    public double getHighThreshold() {
+        return highThreshold;
+    }
+
+    public LocalDateTime getLoadedTime() {
+        return loadedTime;
+    }
+
+    public double[] getWeights() {
+        return parameters == null ? new double[0] : Arrays.copyOf(parameters.getWeights(), parameters.getWeights().length);
+    }
+
+    public double getBias() {
+        return parameters == null ? 0.0 : parameters.getBias();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.algorithm;
+
+import com.example.exception.CustomException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 批量预测执行器（Java 21 虚拟线程）
+ *
+ * 每个课程 / 学生一个虚拟线程，线程本身几乎不占资源；真正稀缺的是数据库连接，
+ * 所以查库的部分要包在 withDbPermit 里，由信号量限制同时查库的任务数（默认 8，要小于连接池大小）。
+ * forEachConcurrently 最多同时提交 maxInFlight 个任务，结果在调用线程里逐个合并，
+ * 已完成但还没合并的结果最多 maxInFlight 个，内存不随任务总数增长。
+ */
+@Component
+public class PredictionExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictionExecutor.class);
+
+    @Value("${app.prediction.db-concurrency:8}")
+    private int dbConcurrency;
+
+    @Value("${app.prediction.max-in-flight:64}")
+    private int maxInFlight;
+
+    private ExecutorService executor;
+    private Semaphore dbPermits;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong permitWaitNanos = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        dbPermits = new Semaphore(Math.max(1, dbConcurrency), true);
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("risk-predict-", 0).factory());
+        log.info("✅ 批量预测执行器启动: 虚拟线程, 查库并发上限 {}", dbConcurrency);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 占用一个查库名额执行 work（批量任务里所有查库的地方都要经过这里）
+     */
+    public <T> T withDbPermit(Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            dbPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException("批量预测被中断");
+        }
+        permitWaitNanos.addAndGet(System.nanoTime() - start);
+        try {
+            return work.get();
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    /**
+     * 并发执行 task，结果在调用线程里按完成顺序交给 merge（merge 不需要考虑线程安全）
+     * 单个任务失败只记日志并计入返回值，不影响其他任务
+     * @return 失败的任务数
+     */
+    public <I, R> int forEachConcurrently(Iterable<I> items, Function<I, R> task, BiConsumer<I, R> merge) {
+        return forEachConcurrently(items, task, merge, null);
+    }
+
+    /**
+     * 同上，失败的任务连同它的输入和异常交给 onFailure（也在调用线程里执行），调用方可以决定整体失败还是重试
+     */
+    public <I, R> int forEachConcurrently(Iterable<I> items, Function<I, R> task, BiConsumer<I, R> merge,
+                                          BiConsumer<I, Throwable> onFailure) {
+        CompletionService<Outcome<I, R>> completion = new ExecutorCompletionService<>(executor);
+        Iterator<I> it = items.iterator();
+        int inFlight = 0;
+        int failures = 0;
+        int limit = Math.max(1, maxInFlight);
+
+        try {
+            while (it.hasNext() || inFlight > 0) {
+                while (it.hasNext() && inFlight < limit) {
+                    I item = it.next();
+                    completion.submit(() -> {
+                        try {
+                            return new Outcome<>(item, task.apply(item), null);
+                        } catch (RuntimeException e) {
+                            return new Outcome<>(item, null, e);
+                        }
+                    });
+                    submitted.incrementAndGet();
+                    inFlight++;
+                }
+
+                Outcome<I, R> outcome;
+                try {
+                    outcome = completion.take().get();
+                } catch (ExecutionException e) {
+                    inFlight--;
+                    failures++;
+                    failed.incrementAndGet();
+                    log.warn("⚠️ 批量预测任务失败: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                    continue;
+                }
+                inFlight--;
+                if (outcome.error() != null) {
+                    failures++;
+                    failed.incrementAndGet();
+                    if (onFailure != null) {
+                        onFailure.accept(outcome.item(), outcome.error());
+                    } else {
+                        log.warn("⚠️ 批量预测任务失败 {}: {}", outcome.item(), outcome.error().getMessage());
+                    }
+                    continue;
+                }
+                completed.incrementAndGet();
+                merge.accept(outcome.item(), outcome.result());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException("批量预测被中断");
+        }
+        return failures;
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("db_concurrency", dbConcurrency);
+        stats.put("db_permits_available", dbPermits.availablePermits());
+        stats.put("db_permit_waiting", dbPermits.getQueueLength());
+        stats.put("db_permit_wait_ms", permitWaitNanos.get() / 1_000_000);
+        stats.put("submitted", submitted.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    private record Outcome<I, R>(I item, R result, Throwable error) {
+    }
+}
@@ -2,9 +2,15 @@ package com.example.algorithm;
 
 import com.example.entity.LearningFeatures;
 import com.example.entity.ModelVersion;
+import com.example.exception.CustomException;
 import com.example.service.LearningFeaturesService;
 import com.example.service.ModelVersionService;
+import com.example.service.metrics.MetricsSink;
+import com.example.service.sampling.TrainingSampleService;
 import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -16,6 +22,8 @@ import java.util.*;
 @Service
 public class RiskPredictor {
 
+    private static final Logger log = LoggerFactory.getLogger(RiskPredictor.class);
+
     @Resource
     private LogisticRegression logisticRegression;
 
@@ -28,10 +36,45 @@ public class RiskPredictor {
     @Resource
     private ModelVersionService modelVersionService;
 
-    // 风险阈值配置
-    private double lowThreshold = 0.3;
-    private double mediumThreshold = 0.7;
-    private double highThreshold = 0.9;
+    @Resource
+    private BatchRiskScorer batchRiskScorer;
+
+    @Resource
+    private ModelRegistry modelRegistry;
+
+    @Resource
+    private TrainingSampleService trainingSampleService;
+
+    @Resource
+    private PredictionExecutor predictionExecutor;
+
+    @Resource
+    private MetricsSink metricsSink;
+
+    // 批量刷新风险时每块的行数
+    private static final int REFRESH_CHUNK_SIZE = 1000;
+
+    // 训练配置：parallel=false 时退回原来的单线程全量梯度下降
+    @Value("${app.training.parallel:true}")
+    private boolean parallelTraining;
+
+    @Value("${app.training.batch-size:0}")
+    private int trainingBatchSize;
+
+    @Value("${app.training.parallelism:0}")
+    private int trainingParallelism;
+
+    @Value("${app.training.seed:42}")
+    private long trainingSeed;
+
+    @Value("${app.training.convergence-tolerance:1e-6}")
+    private double convergenceTolerance;
+
+    @Value("${app.training.loss-check-interval:10}")
+    private int lossCheckInterval;
+
+    @Value("${app.prediction.summary-chunk-size:200}")
+    private int summaryChunkSize;
 
     /**
      * 预测单个学生的风险
@@ -40,6 +83,12 @@ public class RiskPredictor {
         // 获取学生特征
         LearningFeatures features = learningFeaturesService.getStudentSummary(studentId, courseId, null, null);
 
+        // 整次预测用同一份模型快照
+        return buildStudentPrediction(studentId, courseId, features, modelRegistry.current());
+    }
+
+    private RiskPrediction buildStudentPrediction(Integer studentId, Integer courseId,
+                                                  LearningFeatures features, ModelSnapshot model) {
         if (features == null) {
             return createEmptyPrediction(studentId, "无学习行为数据");
         }
@@ -48,10 +97,10 @@ public class RiskPredictor {
         double[] featureVector = featureExtractor.extractFeatures(features);
 
         // 预测风险概率
-        double riskProbability = logisticRegression.predictProbability(featureVector);
+        double riskProbability = predictProbability(model, featureVector, features);
 
         // 确定风险等级
-        String riskLevel = determineRiskLevel(riskProbability);
+        String riskLevel = model.riskLevel(riskProbability);
 
         // 生成风险原因分析
         List<String> riskFactors = analyzeRiskFactors(features);
@@ -78,17 +127,40 @@ public class RiskPredictor {
 
     /**
      * 批量预测学生风险
+     * 学生按 summaryChunkSize 分块，每块一条 IN (...) 分组查询取汇总（500 个学生只要几条查询），
+     * 各块在虚拟线程上并发，查库受 PredictionExecutor 的并发上限约束；整批用同一份模型快照
+     * 有块失败时记下这些学生和原因并整体报错，不返回缺了一部分学生、看起来却完整的列表
      */
     public List<RiskPrediction> batchPredictStudentRisk(List<Integer> studentIds, Integer courseId) {
-        List<RiskPrediction> predictions = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(studentIds));
+        List<RiskPrediction> predictions = new ArrayList<>(ids.size());
+        ModelSnapshot model = modelRegistry.current();
+
+        int chunkSize = Math.max(1, summaryChunkSize);
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
 
-        for (Integer studentId : studentIds) {
-            try {
-                RiskPrediction prediction = predictStudentRisk(studentId, courseId);
-                predictions.add(prediction);
-            } catch (Exception e) {
-                System.err.println("预测学生 " + studentId + " 风险时出错: " + e.getMessage());
-            }
+        List<Integer> failedIds = new ArrayList<>();
+        predictionExecutor.forEachConcurrently(chunks,
+                chunk -> {
+                    Map<Integer, LearningFeatures> summaries = predictionExecutor.withDbPermit(
+                            () -> learningFeaturesService.getStudentSummaries(courseId, chunk, null, null));
+                    List<RiskPrediction> result = new ArrayList<>(chunk.size());
+                    for (Integer studentId : chunk) {
+                        result.add(buildStudentPrediction(studentId, courseId, summaries.get(studentId), model));
+                    }
+                    return result;
+                },
+                (chunk, result) -> predictions.addAll(result),
+                (chunk, error) -> {
+                    failedIds.addAll(chunk);
+                    log.error("❌ 批量预测失败 course={}, {} 个学生: {}", courseId, chunk.size(), chunk, error);
+                });
+        if (!failedIds.isEmpty()) {
+            throw new CustomException("批量预测失败：" + failedIds.size() + " / " + ids.size()
+                    + " 个学生未完成预测，请重试（studentIds=" + failedIds + "）");
         }
 
         // 按风险分数降序排序
@@ -98,42 +170,103 @@ public class RiskPredictor {
     }
 
     /**
-     * 预测班级整体风险
+     * 全部课程风险扫描
+     * 每门课一个虚拟线程流式打分（游标占连接，受查库并发上限约束），
+     * 每门课只带回统计和本课风险最高的 topN 个学生，全局再合并出风险最高的 topN，
+     * 内存和课程数、topN 有关，和学生总数无关
      */
-    public ClassRiskPrediction predictClassRisk(Integer courseId) {
-        // 获取课程所有学生的特征
-        List<LearningFeatures> featuresList = learningFeaturesService.selectByCourseId(courseId);
+    public CourseSweepResult predictAllCourses(int topN) {
+        long startTime = System.currentTimeMillis();
+        int keep = Math.max(0, topN);
+        ModelSnapshot model = modelRegistry.current();
+        List<Integer> courseIds = learningFeaturesService.selectCourseIds();
+
+        CourseSweepResult result = new CourseSweepResult();
+        List<ClassRiskPrediction> courses = new ArrayList<>(courseIds.size());
+        PriorityQueue<RiskPrediction> top = new PriorityQueue<>(Comparator.comparingDouble(RiskPrediction::getRiskScore));
+
+        int failures = predictionExecutor.forEachConcurrently(courseIds,
+                courseId -> {
+                    ClassRiskPrediction prediction = predictionExecutor.withDbPermit(() -> predictClassRisk(courseId, model));
+                    prediction.setStudentPredictions(topByRisk(prediction.getStudentPredictions(), keep));
+                    return prediction;
+                },
+                (courseId, prediction) -> {
+                    if (prediction.getTotalStudents() == 0) return;
+                    for (RiskPrediction student : prediction.getStudentPredictions()) {
+                        student.setCourseId(courseId);
+                        student.setCourseName(prediction.getCourseName());
+                        top.offer(student);
+                        if (top.size() > keep) top.poll();
+                    }
+                    prediction.setStudentPredictions(null);
+                    courses.add(prediction);
+                    result.setTotalStudents(result.getTotalStudents() + prediction.getTotalStudents());
+                    result.setHighRiskCount(result.getHighRiskCount() + prediction.getHighRiskCount());
+                    result.setMediumRiskCount(result.getMediumRiskCount() + prediction.getMediumRiskCount());
+                    result.setLowRiskCount(result.getLowRiskCount() + prediction.getLowRiskCount());
+                });
+
+        courses.sort(Comparator.comparingInt(ClassRiskPrediction::getHighRiskCount).reversed()
+                .thenComparing(ClassRiskPrediction::getCourseId));
+        List<RiskPrediction> topStudents = new ArrayList<>(top);
+        topStudents.sort((p1, p2) -> Double.compare(p2.getRiskScore(), p1.getRiskScore()));
+
+        result.setTotalCourses(courses.size());
+        result.setFailedCourses(failures);
+        result.setCourses(courses);
+        result.setTopRiskStudents(topStudents);
+        result.setElapsedMs(System.currentTimeMillis() - startTime);
+        result.setPredictionTime(LocalDateTime.now().toString());
+        return result;
+    }
 
-        if (featuresList.isEmpty()) {
-            return createEmptyClassPrediction(courseId, "课程无学生数据");
+    private static List<RiskPrediction> topByRisk(List<RiskPrediction> predictions, int n) {
+        if (predictions == null || predictions.isEmpty() || n == 0) return List.of();
+        if (predictions.size() <= n) return predictions;
+        PriorityQueue<RiskPrediction> heap = new PriorityQueue<>(Comparator.comparingDouble(RiskPrediction::getRiskScore));
+        for (RiskPrediction p : predictions) {
+            heap.offer(p);
+            if (heap.size() > n) heap.poll();
         }
+        return new ArrayList<>(heap);
+    }
+
+    /**
+     * 预测班级整体风险
+     * 逐行流式读取课程特征，边读边打分，内存只保留每个学生的预测结果
+     */
+    public ClassRiskPrediction predictClassRisk(Integer courseId) {
+        return predictClassRisk(courseId, modelRegistry.current());
+    }
 
+    private ClassRiskPrediction predictClassRisk(Integer courseId, ModelSnapshot model) {
         ClassRiskPrediction classPrediction = new ClassRiskPrediction();
         classPrediction.setCourseId(courseId);
-        classPrediction.setCourseName(featuresList.get(0).getCourseName());
-        classPrediction.setTotalStudents(featuresList.size());
-        classPrediction.setPredictionTime(LocalDateTime.now().toString());
 
         // 统计风险分布
-        int highRiskCount = 0;
-        int mediumRiskCount = 0;
-        int lowRiskCount = 0;
+        int[] riskCounts = new int[3]; // HIGH / MEDIUM / LOW
+        double[] totalRiskScore = new double[1];
         List<RiskPrediction> studentPredictions = new ArrayList<>();
-        double totalRiskScore = 0;
+        double[] featureVector = new double[FeatureExtractor.FEATURE_SIZE];
+
+        int total = learningFeaturesService.forEachByCourseId(courseId, features -> {
+            if (classPrediction.getCourseName() == null) {
+                classPrediction.setCourseName(features.getCourseName());
+            }
 
-        for (LearningFeatures features : featuresList) {
-            double[] featureVector = featureExtractor.extractFeatures(features);
-            double riskProbability = logisticRegression.predictProbability(featureVector);
-            String riskLevel = determineRiskLevel(riskProbability);
+            featureExtractor.extractInto(features, featureVector, 0, 1);
+            double riskProbability = predictProbability(model, featureVector, features);
+            String riskLevel = model.riskLevel(riskProbability);
 
             // 更新计数
             switch (riskLevel) {
-                case "HIGH": highRiskCount++; break;
-                case "MEDIUM": mediumRiskCount++; break;
-                case "LOW": lowRiskCount++; break;
+                case "HIGH": riskCounts[0]++; break;
+                case "MEDIUM": riskCounts[1]++; break;
+                case "LOW": riskCounts[2]++; break;
             }
 
-            totalRiskScore += riskProbability * 100;
+            totalRiskScore[0] += riskProbability * 100;
 
             // 添加学生预测
             RiskPrediction studentPrediction = new RiskPrediction();
@@ -144,24 +277,34 @@ public class RiskPredictor {
             studentPrediction.setRiskLevel(riskLevel);
             studentPrediction.setRiskScore(riskProbability * 100);
             studentPredictions.add(studentPrediction);
+        });
+
+        if (total == 0) {
+            return createEmptyClassPrediction(courseId, "课程无学生数据");
         }
 
+        int highRiskCount = riskCounts[0];
+        int mediumRiskCount = riskCounts[1];
+        int lowRiskCount = riskCounts[2];
+
         // 设置班级预测结果
+        classPrediction.setTotalStudents(total);
+        classPrediction.setPredictionTime(LocalDateTime.now().toString());
         classPrediction.setHighRiskCount(highRiskCount);
         classPrediction.setMediumRiskCount(mediumRiskCount);
         classPrediction.setLowRiskCount(lowRiskCount);
-        classPrediction.setAvgRiskScore(featuresList.size() > 0 ? totalRiskScore / featuresList.size() : 0);
+        classPrediction.setAvgRiskScore(totalRiskScore[0] / total);
         classPrediction.setStudentPredictions(studentPredictions);
 
         // 计算风险分布百分比
         Map<String, Double> riskDistribution = new HashMap<>();
-        riskDistribution.put("HIGH", featuresList.size() > 0 ? (double) highRiskCount / featuresList.size() * 100 : 0);
-        riskDistribution.put("MEDIUM", featuresList.size() > 0 ? (double) mediumRiskCount / featuresList.size() * 100 : 0);
-        riskDistribution.put("LOW", featuresList.size() > 0 ? (double) lowRiskCount / featuresList.size() * 100 : 0);
+        riskDistribution.put("HIGH", (double) highRiskCount / total * 100);
+        riskDistribution.put("MEDIUM", (double) mediumRiskCount / total * 100);
+        riskDistribution.put("LOW", (double) lowRiskCount / total * 100);
         classPrediction.setRiskDistribution(riskDistribution);
 
         // 生成班级建议
-        String classSuggestion = generateClassSuggestion(highRiskCount, mediumRiskCount, featuresList.size());
+        String classSuggestion = generateClassSuggestion(highRiskCount, mediumRiskCount, total);
         classPrediction.setSuggestion(classSuggestion);
 
         return classPrediction;
@@ -175,21 +318,38 @@ public class RiskPredictor {
             throw new IllegalArgumentException("训练数据和标签数量不匹配");
         }
 
-        // 提取特征向量
-        List<double[]> featureVectors = featureExtractor.batchExtractFeatures(trainingData);
+        // 提取特征，直接填进训练集
+        TrainingDataset dataset = featureExtractor.batchExtractFeatures(trainingData, labels);
+
+        return trainOnDataset(dataset);
+    }
 
+    private ModelTrainingResult trainOnDataset(TrainingDataset dataset) {
         // 训练模型
         long startTime = System.currentTimeMillis();
-        logisticRegression.train(featureVectors, labels);
+        if (parallelTraining) {
+            logisticRegression.setBatchSize(trainingBatchSize);
+            logisticRegression.setParallelism(trainingParallelism > 0
+                    ? trainingParallelism : Runtime.getRuntime().availableProcessors());
+            logisticRegression.setSeed(trainingSeed);
+            logisticRegression.setConvergenceTolerance(convergenceTolerance);
+            logisticRegression.setLossCheckInterval(lossCheckInterval);
+            logisticRegression.trainParallel(dataset);
+        } else {
+            logisticRegression.train(dataset);
+        }
         long endTime = System.currentTimeMillis();
 
+        // 新模型立即用于打分（保存并激活后由库里的同一份模型接替）
+        modelRegistry.publishTrained(logisticRegression.getModelParameters());
+
         // 评估模型
-        ModelMetrics metrics = logisticRegression.evaluate(featureVectors, labels, mediumThreshold);
+        ModelMetrics metrics = logisticRegression.evaluate(dataset, modelRegistry.current().getMediumThreshold());
 
         // 创建训练结果
         ModelTrainingResult result = new ModelTrainingResult();
-        result.setTrainingSamples(trainingData.size());
-        result.setFeatureCount(featureVectors.get(0).length);
+        result.setTrainingSamples(dataset.size());
+        result.setFeatureCount(dataset.featureSize());
         result.setTrainingTime(endTime - startTime);
         result.setMetrics(metrics);
         result.setSuccess(true);
@@ -200,114 +360,168 @@ public class RiskPredictor {
 
     /**
      * 使用历史数据训练模型
+     * limit 为空时流式读取全部数据；否则按 TrainingSampleService 抽样（默认按风险标签分层）
+     * 每行只把 8 维特征和标签写进训练集，不保留整条实体
      */
     public ModelTrainingResult trainWithHistoricalData(Integer limit) {
-        // 获取历史数据
-        List<LearningFeatures> historicalData = learningFeaturesService.getTrainingData(limit);
+        return trainWithHistoricalData(limit, null, null);
+    }
 
-        if (historicalData.isEmpty()) {
-            throw new IllegalArgumentException("没有足够的历史数据");
+    /**
+     * 使用历史数据训练模型
+     * @param seed     抽样种子，null 用 app.training.seed
+     * @param stratify 是否按风险标签分层抽样，null 用配置
+     */
+    public ModelTrainingResult trainWithHistoricalData(Integer limit, Long seed, Boolean stratify) {
+        TrainingDataset dataset;
+        if (limit != null && limit > 0) {
+            List<LearningFeatures> sample = trainingSampleService.sample(limit, seed, stratify);
+            dataset = new TrainingDataset(FeatureExtractor.FEATURE_SIZE, sample.size());
+            for (LearningFeatures features : sample) {
+                featureExtractor.extractInto(features, TrainingSampleService.riskLabel(features), dataset);
+            }
+        } else {
+            TrainingDataset all = new TrainingDataset(FeatureExtractor.FEATURE_SIZE);
+            learningFeaturesService.forEachTrainingSample(features ->
+                    featureExtractor.extractInto(features, TrainingSampleService.riskLabel(features), all));
+            dataset = all;
         }
 
-        // 提取标签（假设riskProbability>0.6为高风险）
-        List<Integer> labels = new ArrayList<>();
-        for (LearningFeatures features : historicalData) {
-            int label = (features.getRiskProbability() != null && features.getRiskProbability() > 0.6) ? 1 : 0;
-            labels.add(label);
+        if (dataset.isEmpty()) {
+            throw new IllegalArgumentException("没有足够的历史数据");
         }
 
-        return trainModel(historicalData, labels);
+        return trainOnDataset(dataset);
     }
 
     /**
      * 刷新最近 N 天 learning_features 的风险字段（写回数据库）
      * 先保证系统跑通：如果模型不可用，则使用兜底规则计算风险
+     *
+     * 按 id 分块流式处理：每块先抽成列存 double[] 矩阵，由 BatchRiskScorer 一次打分，
+     * 再用一条 UPDATE ... CASE 写回整块，最后把吞吐量(rows/s)记到 system_metrics
      */
     public int refreshRecentLearningFeaturesRisk(Integer days) {
+        if (days == null || days <= 0) days = 7;
 
-        System.out.println("🔥🔥🔥 refreshRecentLearningFeaturesRisk 被调用了，days=" + days);
+        long startTime = System.currentTimeMillis();
 
-        if (days == null || days <= 0) days = 7;
+        // 整轮刷新使用同一份模型快照，避免中途换模型导致前后不一致
+        ModelSnapshot model = modelRegistry.current();
 
-        // 取最近N天特征
-        List<LearningFeatures> list = learningFeaturesService.selectRecentFeatures(days);
-        if (list == null || list.isEmpty()) return 0;
+        int chunkSize = REFRESH_CHUNK_SIZE;
+        double[] matrix = new double[FeatureExtractor.FEATURE_SIZE * chunkSize];
+        double[] probabilities = new double[chunkSize];
 
         int updated = 0;
-        for (LearningFeatures f : list) {
+        int scanned = 0;
+        Integer lastId = 0;
+        while (true) {
+            List<LearningFeatures> chunk = learningFeaturesService.selectRecentFeaturesChunk(days, lastId, chunkSize);
+            if (chunk == null || chunk.isEmpty()) break;
+
+            int rows = chunk.size();
+            scanned += rows;
+            lastId = chunk.get(rows - 1).getId();
+
             try {
-                // 计算风险概率（模型优先，否则兜底）
-                double p = safePredictProbability(f);
-
-                // 风险等级
-                String level = determineRiskLevel(p);
-
-                // 写回数据库
-                Double riskScore = p * 100.0;
-                learningFeaturesService.updateRiskInfo(
-                        f.getId().intValue(),  // 你表 id 是 bigint，这里 service 用 Integer，我先强转保证跑通
-                        riskScore,
-                        level,
-                        p
-                );
-                updated++;
+                scoreChunk(chunk, model, matrix, probabilities, chunkSize);
+                learningFeaturesService.batchUpdateRiskInfo(chunk);
+                updated += rows;
             } catch (Exception e) {
-                System.err.println("刷新风险失败 id=" + f.getId() + " : " + e.getMessage());
+                System.err.println("刷新风险失败 id<=" + lastId + " : " + e.getMessage());
             }
+
+            if (rows < chunkSize) break;
         }
+
+        recordRefreshThroughput(scanned, updated, System.currentTimeMillis() - startTime);
         return updated;
     }
 
     /**
-     * 预测概率：模型可用就用模型，不可用就用兜底规则
+     * 给一批已落库的特征行重新打分并写回风险字段（实时特征刷新后调用）
+     * rows 至少要带 Scoring_Column_List 里的列，返回写回的行数
      */
-    private double safePredictProbability(LearningFeatures f) {
-        // 1) 模型不可用 => 直接兜底
-        if (!isModelUsable()) {
-            return fallbackHeuristicProbability(f);
-        }
+    public int rescoreFeatures(List<LearningFeatures> rows) {
+        if (rows == null || rows.isEmpty()) return 0;
 
-        try {
-            double[] vec = featureExtractor.extractFeatures(f);
-            double p = logisticRegression.predictProbability(vec);
+        ModelSnapshot model = modelRegistry.current();
+        int chunkSize = Math.min(REFRESH_CHUNK_SIZE, rows.size());
+        double[] matrix = new double[FeatureExtractor.FEATURE_SIZE * chunkSize];
+        double[] probabilities = new double[chunkSize];
 
-            // 2) 输出塌缩在0.5附近 => 用兜底（或混合）
-            if (Double.isNaN(p) || Double.isInfinite(p) || looksLikeConstantHalf(p)) {
-                // 方案A：直接兜底（最简单立刻见效）
-                return fallbackHeuristicProbability(f);
+        int updated = 0;
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<LearningFeatures> chunk = rows.subList(from, Math.min(rows.size(), from + chunkSize));
+            scoreChunk(chunk, model, matrix, probabilities, chunkSize);
+            learningFeaturesService.batchUpdateRiskInfo(chunk);
+            updated += chunk.size();
+        }
+        return updated;
+    }
 
-                // 方案B：混合（想保留一点模型味道再用这行替换上面那行）
-                // double fb = fallbackHeuristicProbability(f);
-                // return clamp01(0.2 * p + 0.8 * fb);
+    /**
+     * 一块特征打分：有模型走列存矩阵批量打分，否则走兜底规则；结果写回每行的风险字段
+     */
+    private void scoreChunk(List<LearningFeatures> chunk, ModelSnapshot model,
+                            double[] matrix, double[] probabilities, int stride) {
+        int rows = chunk.size();
+        ModelParameters params = model.isUsable() ? model.parameters() : null;
+        if (params != null) {
+            for (int i = 0; i < rows; i++) {
+                featureExtractor.extractInto(chunk.get(i), matrix, i, stride);
             }
+            batchRiskScorer.score(matrix, stride, rows, params, probabilities);
+        }
 
-            return clamp01(p);
-        } catch (Exception ex) {
-            return fallbackHeuristicProbability(f);
+        for (int i = 0; i < rows; i++) {
+            LearningFeatures f = chunk.get(i);
+            double p = params != null ? sanitizeModelProbability(probabilities[i], f) : fallbackHeuristicProbability(f);
+            f.setRiskProbability(p);
+            f.setRiskScore(p * 100.0);
+            f.setRiskLevel(model.riskLevel(p));
         }
     }
 
-    private boolean isModelUsable() {
-        try {
-            ModelParameters params = logisticRegression.getModelParameters();
-            if (params == null || params.getWeights() == null || params.getWeights().length == 0) {
-                return false;
-            }
-
-            double l2 = 0.0;
-            for (double w : params.getWeights()) {
-                l2 += w * w;
-            }
-            l2 = Math.sqrt(l2);
+    /**
+     * 记录批量打分吞吐量，指标写失败不影响刷新结果
+     */
+    private void recordRefreshThroughput(int scanned, int updated, long costMs) {
+        if (scanned == 0) return;
+        double rowsPerSecond = updated * 1000.0 / Math.max(1L, costMs);
+        metricsSink.record(
+                "risk_batch_scoring",
+                "RISK_BATCH_" + System.currentTimeMillis(),
+                costMs,
+                updated == scanned ? "SUCCESS" : "FAILED",
+                rowsPerSecond
+        );
+    }
 
-            double bias = params.getBias();
+    /**
+     * 模型输出异常（NaN/塌缩在0.5附近）时退回兜底规则
+     */
+    private double sanitizeModelProbability(double p, LearningFeatures f) {
+        if (Double.isNaN(p) || Double.isInfinite(p) || looksLikeConstantHalf(p)) {
+            // 方案A：直接兜底（最简单立刻见效）
+            return fallbackHeuristicProbability(f);
 
-            // ✅ 权重几乎为0 或 bias几乎为0 => 模型基本没学到东西
-            return !(l2 < 1e-6 && Math.abs(bias) < 1e-6);
-        } catch (Exception e) {
-            return false;
+            // 方案B：混合（想保留一点模型味道再用这行替换上面那行）
+            // double fb = fallbackHeuristicProbability(f);
+            // return clamp01(0.2 * p + 0.8 * fb);
         }
+        return clamp01(p);
     }
+
+    /**
+     * 单条打分：模型不可用或输出异常时走兜底规则
+     */
+    private double predictProbability(ModelSnapshot model, double[] featureVector, LearningFeatures f) {
+        if (!model.isUsable()) return fallbackHeuristicProbability(f);
+        return sanitizeModelProbability(model.predictProbability(featureVector), f);
+    }
+
     private boolean looksLikeConstantHalf(double p) {
         // 你现在 p 基本都在 0.5009~0.5011，这里就认为模型输出无区分度
         return Math.abs(p - 0.5) < 0.02; // 0.48~0.52 都算可疑
@@ -378,7 +592,7 @@ public class RiskPredictor {
             ModelParameters params = logisticRegression.getModelParameters();
 
             // 转换为JSON格式存储
-            String weightsJson = Arrays.toString(params.getWeights());
+            String weightsJson = ModelSnapshot.formatWeights(params.getWeights());
 
             // 更新模型参数
             newModel.setWeights(weightsJson);
@@ -408,46 +622,18 @@ public class RiskPredictor {
         try {
             ModelVersion modelVersion = modelVersionService.selectById(modelId);
 
-            // 解析权重
-            String weightsStr = modelVersion.getWeights();
-            weightsStr = weightsStr.replace("[", "").replace("]", "");
-            String[] weightStrs = weightsStr.split(",");
-            double[] weights = new double[weightStrs.length];
-            for (int i = 0; i < weightStrs.length; i++) {
-                weights[i] = Double.parseDouble(weightStrs[i].trim());
-            }
-
-            // 设置模型参数
+            // 解析权重并切换打分模型；训练器同步一份，之后 saveCurrentModel 保存的就是它
+            ModelSnapshot snapshot = modelRegistry.load(modelVersion);
             ModelParameters params = new ModelParameters();
-            params.setWeights(weights);
-            params.setBias(modelVersion.getBias());
-            params.setFeatureSize(weights.length);
-
+            params.setWeights(snapshot.getWeights());
+            params.setBias(snapshot.getBias());
+            params.setFeatureSize(FeatureExtractor.FEATURE_SIZE);
             logisticRegression.loadModelParameters(params);
-
-            // 更新阈值
-            if (modelVersion.getLowThreshold() != null) lowThreshold = modelVersion.getLowThreshold();
-            if (modelVersion.getMediumThreshold() != null) mediumThreshold = modelVersion.getMediumThreshold();
-            if (modelVersion.getHighThreshold() != null) highThreshold = modelVersion.getHighThreshold();
-
         } catch (Exception e) {
             throw new RuntimeException("加载模型失败: " + e.getMessage(), e);
         }
     }
 
-    /**
-     * 确定风险等级
-     */
-    private String determineRiskLevel(double probability) {
-        if (probability < lowThreshold) {
-            return "LOW";
-        } else if (probability < mediumThreshold) {
-            return "MEDIUM";
-        } else {
-            return "HIGH";
-        }
-    }
-
     /**
      * 分析风险因素
      */
@@ -568,15 +754,19 @@ public class RiskPredictor {
         return prediction;
     }
 
-    // Getters and Setters
-    public double getLowThreshold() { return lowThreshold; }
-    public void setLowThreshold(double lowThreshold) { this.lowThreshold = lowThreshold; }
+    // 阈值跟随当前打分模型
+    public double getLowThreshold() { return modelRegistry.current().getLowThreshold(); }
 
-    public double getMediumThreshold() { return mediumThreshold; }
-    public void setMediumThreshold(double mediumThreshold) { this.mediumThreshold = mediumThreshold; }
+    public double getMediumThreshold() { return modelRegistry.current().getMediumThreshold(); }
 
-    public double getHighThreshold() { return highThreshold; }
-    public void setHighThreshold(double highThreshold) { this.highThreshold = highThreshold; }
+    public double getHighThreshold() { return modelRegistry.current().getHighThreshold(); }
+
+    /**
+     * 三个阈值一起替换，打分线程不会看到新旧混合的阈值
+     */
+    public void updateThresholds(double lowThreshold, double mediumThreshold, double highThreshold) {
+        modelRegistry.updateThresholds(lowThreshold, mediumThreshold, highThreshold);
+    }
 }
 
 /**
@@ -685,6 +875,53 @@ class ClassRiskPrediction {
     public void setPredictionTime(String predictionTime) { this.predictionTime = predictionTime; }
 }
 
+/**
+ * 全部课程风险扫描结果类
+ */
+class CourseSweepResult {
+    private int totalCourses;
+    private int failedCourses;
+    private int totalStudents;
+    private int highRiskCount;
+    private int mediumRiskCount;
+    private int lowRiskCount;
+    private List<ClassRiskPrediction> courses;
+    private List<RiskPrediction> topRiskStudents;
+    private long elapsedMs;
+    private String predictionTime;
+
+    // Getters and Setters
+    public int getTotalCourses() { return totalCourses; }
+    public void setTotalCourses(int totalCourses) { this.totalCourses = totalCourses; }
+
+    public int getFailedCourses() { return failedCourses; }
+    public void setFailedCourses(int failedCourses) { this.failedCourses = failedCourses; }
+
+    public int getTotalStudents() { return totalStudents; }
+    public void setTotalStudents(int totalStudents) { this.totalStudents = totalStudents; }
+
+    public int getHighRiskCount() { return highRiskCount; }
+    public void setHighRiskCount(int highRiskCount) { this.highRiskCount = highRiskCount; }
+
+    public int getMediumRiskCount() { return mediumRiskCount; }
+    public void setMediumRiskCount(int mediumRiskCount) { this.mediumRiskCount = mediumRiskCount; }
+
+    public int getLowRiskCount() { return lowRiskCount; }
+    public void setLowRiskCount(int lowRiskCount) { this.lowRiskCount = lowRiskCount; }
+
+    public List<ClassRiskPrediction> getCourses() { return courses; }
+    public void setCourses(List<ClassRiskPrediction> courses) { this.courses = courses; }
+
+    public List<RiskPrediction> getTopRiskStudents() { return topRiskStudents; }
+    public void setTopRiskStudents(List<RiskPrediction> topRiskStudents) { this.topRiskStudents = topRiskStudents; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public String getPredictionTime() { return predictionTime; }
+    public void setPredictionTime(String predictionTime) { this.predictionTime = predictionTime; }
+}
+
 /**
  * 模型训练结果类
  */
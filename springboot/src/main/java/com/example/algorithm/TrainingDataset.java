@@ -0,0 +1,124 @@
+package com.example.algorithm;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 训练数据集（行存的连续 double[] + byte[] 标签）
+ *
+ * 第 i 个样本的第 j 维特征在 features[i * featureSize + j]，标签在 labels[i]（0 低风险 / 1 高风险）。
+ * 代替 List<double[]> + List<Integer>：没有每行一个 double[8] 对象和装箱的 Integer，
+ * 训练、评估、算损失时顺序扫一块连续内存。
+ * 容量不够时按 1.5 倍扩容，流式读取时不需要事先知道行数。
+ */
+public final class TrainingDataset {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final int featureSize;
+    private double[] features;
+    private byte[] labels;
+    private int size;
+
+    public TrainingDataset(int featureSize) {
+        this(featureSize, DEFAULT_CAPACITY);
+    }
+
+    public TrainingDataset(int featureSize, int initialCapacity) {
+        if (featureSize <= 0) {
+            throw new IllegalArgumentException("特征维度必须大于 0");
+        }
+        int capacity = Math.max(1, initialCapacity);
+        this.featureSize = featureSize;
+        this.features = new double[capacity * featureSize];
+        this.labels = new byte[capacity];
+    }
+
+    /**
+     * 从旧的 List 形式转换（会复制一份数据）
+     */
+    public static TrainingDataset of(List<double[]> featureVectors, List<Integer> labelList) {
+        if (featureVectors == null || labelList == null || featureVectors.size() != labelList.size()) {
+            throw new IllegalArgumentException("特征和标签数量不匹配");
+        }
+        if (featureVectors.isEmpty()) {
+            return new TrainingDataset(FeatureExtractor.FEATURE_SIZE, 1);
+        }
+        TrainingDataset dataset = new TrainingDataset(featureVectors.get(0).length, featureVectors.size());
+        for (int i = 0; i < featureVectors.size(); i++) {
+            dataset.add(featureVectors.get(i), labelList.get(i));
+        }
+        return dataset;
+    }
+
+    /**
+     * 追加一行（复制 row 的内容）
+     */
+    public void add(double[] row, int label) {
+        if (row.length != featureSize) {
+            throw new IllegalArgumentException("特征维度不匹配，期望: " + featureSize + ", 实际: " + row.length);
+        }
+        int index = appendRow(label);
+        System.arraycopy(row, 0, features, index * featureSize, featureSize);
+    }
+
+    /**
+     * 追加一行并返回行号，由调用方直接往 features 数组的 [行号 * featureSize, +featureSize) 写特征
+     * （FeatureExtractor 用它避免中间的 double[]）
+     */
+    int appendRow(int label) {
+        if (label != 0 && label != 1) {
+            throw new IllegalArgumentException("标签只能是 0 或 1，实际: " + label);
+        }
+        if (size == labels.length) {
+            grow();
+        }
+        labels[size] = (byte) label;
+        return size++;
+    }
+
+    private void grow() {
+        int capacity = labels.length + (labels.length >> 1) + 1;
+        features = Arrays.copyOf(features, capacity * featureSize);
+        labels = Arrays.copyOf(labels, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int featureSize() {
+        return featureSize;
+    }
+
+    /**
+     * 底层特征数组（长度可能大于 size * featureSize，只有前面这部分有效）
+     */
+    double[] featureArray() {
+        return features;
+    }
+
+    byte[] labelArray() {
+        return labels;
+    }
+
+    public int label(int row) {
+        return labels[row];
+    }
+
+    public double feature(int row, int column) {
+        return features[row * featureSize + column];
+    }
+
+    /**
+     * 取出一行的副本
+     */
+    public double[] row(int row) {
+        int from = row * featureSize;
+        return Arrays.copyOfRange(features, from, from + featureSize);
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+/**
+ * 训练样本抽样（代替 ORDER BY RAND()，不再每次把整表排序一遍）
+ *
+ * 两种方式，都支持按标签分层、让各类样本数量尽量均衡，同样的数据 + 同样的种子抽出同样的样本：
+ *   按 id 分段抽样 —— 把 [minId, maxId] 切成小段，按随机顺序访问，每段按主键范围读一次、
+ *                     从中随机取几行；各层够数就停，读取行数随样本量增长，和表大小无关；
+ *   蓄水池抽样     —— 顺序流式读一遍，每层保留一个固定容量的蓄水池，内存只和样本量有关。
+ */
+public final class TrainingSampler {
+
+    // 每层的配额至少分散到这么多段里取，避免样本扎堆在相邻 id（同一批插入的数据）
+    private static final int MIN_SEGMENTS = 32;
+
+    // 每段的 id 跨度至少是每段取样行数的这么多倍
+    private static final int SEGMENT_SPAN_FACTOR = 4;
+
+    private TrainingSampler() {
+    }
+
+    /**
+     * 按主键范围读一段数据（[fromId, toId)，按 id 升序）
+     */
+    @FunctionalInterface
+    public interface RangeReader<T> {
+        List<T> read(long fromId, long toId);
+    }
+
+    /**
+     * 按 id 分段抽样
+     * @param strata       层数（stratumOf 返回 0 ~ strata-1，不分层传 1）
+     * @param maxScanRows  最多读取的行数，某一层数据太少时到这里就停，用已有的样本
+     */
+    public static <T> List<T> sampleByIdRange(long minId, long maxId, int limit, int strata,
+                                              ToIntFunction<T> stratumOf, RangeReader<T> reader,
+                                              long seed, long maxScanRows) {
+        checkArgs(limit, strata);
+        List<List<T>> picked = newStrata(strata);
+        if (maxId < minId) {
+            return allocate(picked, limit, seed);
+        }
+
+        int quota = ceilDiv(limit, strata);
+        int perSegment = Math.max(1, ceilDiv(quota, MIN_SEGMENTS));
+        long span = (long) perSegment * SEGMENT_SPAN_FACTOR;
+        long segments = (maxId - minId) / span + 1;
+
+        Random random = new Random(seed);
+        // 惰性的 Fisher-Yates：只记录被换过的位置，访问多少段就占多少内存
+        Map<Long, Long> swapped = new HashMap<>();
+        long scanned = 0;
+
+        for (long i = 0; i < segments && scanned < maxScanRows && !allReached(picked, quota); i++) {
+            long j = i + nextLong(random, segments - i);
+            long segment = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+            swapped.remove(i);
+
+            long from = minId + segment * span;
+            List<T> rows = reader.read(from, from + span);
+            scanned += rows.size();
+
+            List<List<T>> byStratum = newStrata(strata);
+            for (T row : rows) {
+                byStratum.get(stratumIndex(stratumOf, row, strata)).add(row);
+            }
+            for (int s = 0; s < strata; s++) {
+                // 每层最多收 limit 行：其他层不够时由这一层补齐
+                int room = Math.min(perSegment, limit - picked.get(s).size());
+                pickRandom(byStratum.get(s), room, random, picked.get(s));
+            }
+        }
+        return allocate(picked, limit, seed);
+    }
+
+    /**
+     * 分层蓄水池：逐行 offer，最后 result 取样本
+     */
+    public static final class Reservoir<T> {
+
+        private final int limit;
+        private final int strata;
+        private final ToIntFunction<T> stratumOf;
+        private final long seed;
+        private final Random random;
+        private final List<List<T>> pools;
+        private final long[] seen;
+
+        public Reservoir(int limit, int strata, ToIntFunction<T> stratumOf, long seed) {
+            checkArgs(limit, strata);
+            this.limit = limit;
+            this.strata = strata;
+            this.stratumOf = stratumOf;
+            this.seed = seed;
+            this.random = new Random(seed);
+            this.pools = newStrata(strata);
+            this.seen = new long[strata];
+        }
+
+        public void offer(T row) {
+            int s = stratumIndex(stratumOf, row, strata);
+            List<T> pool = pools.get(s);
+            long n = ++seen[s];
+            // 每层容量 limit：其他层不够时由这一层补齐
+            if (pool.size() < limit) {
+                pool.add(row);
+            } else {
+                long r = nextLong(random, n);
+                if (r < limit) {
+                    pool.set((int) r, row);
+                }
+            }
+        }
+
+        public List<T> result() {
+            return allocate(pools, limit, seed);
+        }
+    }
+
+    /**
+     * 分配各层名额：先每层最多 limit/strata，剩下的名额给还有余量的层；结果按种子打乱
+     */
+    static <T> List<T> allocate(List<List<T>> strata, int limit, long seed) {
+        int n = strata.size();
+        int[] take = new int[n];
+        int remaining = limit;
+        int quota = limit / n;
+        for (int s = 0; s < n; s++) {
+            take[s] = Math.min(strata.get(s).size(), quota);
+            remaining -= take[s];
+        }
+        for (int s = 0; s < n && remaining > 0; s++) {
+            int extra = Math.min(strata.get(s).size() - take[s], remaining);
+            take[s] += extra;
+            remaining -= extra;
+        }
+
+        List<T> result = new ArrayList<>(limit - remaining);
+        for (int s = 0; s < n; s++) {
+            result.addAll(strata.get(s).subList(0, take[s]));
+        }
+        Collections.shuffle(result, new Random(seed));
+        return result;
+    }
+
+    /**
+     * 从 rows 里随机取 count 行追加到 out（部分 Fisher-Yates，会打乱 rows）
+     */
+    private static <T> void pickRandom(List<T> rows, int count, Random random, List<T> out) {
+        int size = rows.size();
+        int k = Math.min(count, size);
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(size - i);
+            Collections.swap(rows, i, j);
+            out.add(rows.get(i));
+        }
+    }
+
+    private static boolean allReached(List<? extends List<?>> picked, int quota) {
+        for (List<?> stratum : picked) {
+            if (stratum.size() < quota) return false;
+        }
+        return true;
+    }
+
+    private static <T> int stratumIndex(ToIntFunction<T> stratumOf, T row, int strata) {
+        int s = stratumOf.applyAsInt(row);
+        if (s < 0 || s >= strata) {
+            throw new IllegalArgumentException("分层下标越界: " + s);
+        }
+        return s;
+    }
+
+    private static <T> List<List<T>> newStrata(int strata) {
+        List<List<T>> list = new ArrayList<>(strata);
+        for (int s = 0; s < strata; s++) {
+            list.add(new ArrayList<>());
+        }
+        return list;
+    }
+
+    private static long nextLong(Random random, long bound) {
+        return bound <= Integer.MAX_VALUE ? random.nextInt((int) bound) : Math.floorMod(random.nextLong(), bound);
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    private static void checkArgs(int limit, int strata) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("抽样数量必须大于 0");
+        }
+        if (strata <= 0) {
+            throw new IllegalArgumentException("分层数必须大于 0");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.algorithm;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于 Java Vector API 的线性部分计算：z[i] = bias + Σ w[j] * x[j * stride + i]
+ *
+ * 注意：这个类只有在 jdk.incubator.vector 模块已加载时才会被 BatchRiskScorer 引用，
+ * 否则类加载会失败，所以不要在别处直接使用。
+ */
+final class VectorLinearKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorLinearKernel() {
+    }
+
+    /**
+     * 列存矩阵按行批量计算线性部分，每次处理 SPECIES.length() 行
+     * 先乘后加（不用 fma），保证和标量实现的结果逐位一致
+     */
+    static void linear(double[] matrix, int stride, int rows, double[] weights, double bias, double[] z) {
+        int bound = SPECIES.loopBound(rows);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector acc = DoubleVector.broadcast(SPECIES, bias);
+            for (int j = 0; j < weights.length; j++) {
+                DoubleVector x = DoubleVector.fromArray(SPECIES, matrix, j * stride + i);
+                acc = acc.add(x.mul(weights[j]));
+            }
+            acc.intoArray(z, i);
+        }
+        // 尾部不足一个向量宽度的行走标量
+        for (; i < rows; i++) {
+            double v = bias;
+            for (int j = 0; j < weights.length; j++) {
+                v += weights[j] * matrix[j * stride + i];
+            }
+            z[i] = v;
+        }
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+}
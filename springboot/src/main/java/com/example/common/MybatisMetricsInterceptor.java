@@ -0,0 +1,65 @@
+package com.example.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Resource;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis 语句耗时（Micrometer 计时器 mybatis.statement）
+ *
+ * 标签：statement = Mapper 方法全名，type = SELECT / INSERT / UPDATE / DELETE，outcome = SUCCESS / ERROR。
+ * 流式查询（Cursor）只统计到打开游标为止，遍历时间算在调用方。
+ * 声明成 Bean 后由 mybatis-spring-boot-starter 自动注册到 SqlSessionFactory。
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class MybatisMetricsInterceptor implements Interceptor {
+
+    static final String METRIC = "mybatis.statement";
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        String outcome = "SUCCESS";
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            outcome = "ERROR";
+            throw e;
+        } finally {
+            Timer.builder(METRIC)
+                    .description("MyBatis 语句执行耗时")
+                    .tag("statement", ms.getId())
+                    .tag("type", ms.getSqlCommandType().name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.controller;
 import com.example.algorithm.RiskPredictor;
 import com.example.common.Result;
 import com.example.entity.LearningFeatures;
+import com.example.service.alert.RiskAlertEngine;
 import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,6 +20,9 @@ public class AlgorithmController {
     @Resource
     private RiskPredictor riskPredictor;
 
+    @Resource
+    private RiskAlertEngine riskAlertEngine;
+
     /**
      * 预测单个学生风险
      */
@@ -60,13 +64,28 @@ public class AlgorithmController {
         }
     }
 
+    /**
+     * 全部课程风险扫描（各课程并发预测，只返回统计和风险最高的 topN 个学生）
+     */
+    @GetMapping("/predictAllCourses")
+    public Result predictAllCourses(@RequestParam(defaultValue = "50") Integer topN) {
+        try {
+            var result = riskPredictor.predictAllCourses(topN);
+            return Result.success(result);
+        } catch (Exception e) {
+            return Result.error("全部课程风险扫描失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 训练模型
      */
     @PostMapping("/trainModel")
-    public Result trainModel(@RequestParam(defaultValue = "1000") Integer sampleLimit) {
+    public Result trainModel(@RequestParam(defaultValue = "1000") Integer sampleLimit,
+                             @RequestParam(required = false) Long seed,
+                             @RequestParam(required = false) Boolean stratify) {
         try {
-            var result = riskPredictor.trainWithHistoricalData(sampleLimit);
+            var result = riskPredictor.trainWithHistoricalData(sampleLimit, seed, stratify);
             return Result.success(result);
         } catch (Exception e) {
             return Result.error("模型训练失败: " + e.getMessage());
@@ -147,9 +166,7 @@ public class AlgorithmController {
                 return Result.error("阈值设置无效：必须满足 低阈值 < 中阈值 < 高阈值");
             }
 
-            riskPredictor.setLowThreshold(lowThreshold);
-            riskPredictor.setMediumThreshold(mediumThreshold);
-            riskPredictor.setHighThreshold(highThreshold);
+            riskPredictor.updateThresholds(lowThreshold, mediumThreshold, highThreshold);
 
             Map<String, Object> result = Map.of(
                     "lowThreshold", lowThreshold,
@@ -170,14 +187,8 @@ public class AlgorithmController {
     public Result generateRiskAlerts(@RequestParam(required = false) Integer courseId,
                                      @RequestParam(defaultValue = "0.7") Double threshold) {
         try {
-            // 模拟生成预警
-            Map<String, Object> result = Map.of(
-                    "courseId", courseId != null ? courseId : "全部课程",
-                    "threshold", threshold,
-                    "generatedAlerts", 5,
-                    "highRiskStudents", 3,
-                    "message", "预警生成完成"
-            );
+            Map<String, Object> result = new java.util.HashMap<>(riskAlertEngine.generate(courseId, threshold));
+            result.put("message", "预警生成完成");
             return Result.success(result);
         } catch (Exception e) {
             return Result.error("生成预警失败: " + e.getMessage());
@@ -2,6 +2,8 @@ package com.example.controller;
 
 import com.example.common.Result;
 import com.example.service.ExamService;
+import com.example.service.cache.ExamAnswerKeyCache;
+import com.example.service.exam.ExamSubmissionQueue;
 import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,6 +14,12 @@ public class ExamController {
     @Resource
     private ExamService examService;
 
+    @Resource
+    private ExamAnswerKeyCache examAnswerKeyCache;
+
+    @Resource
+    private ExamSubmissionQueue examSubmissionQueue;
+
     @GetMapping("/available")
     public Result available(@RequestParam Integer courseId) {
         return Result.success(examService.listAvailable(courseId));
@@ -26,4 +34,29 @@ public class ExamController {
     public Result submit(@RequestBody ExamService.SubmitDTO dto) {
         return Result.success(examService.submit(dto));
     }
+
+    /**
+     * 异步交卷：答卷落库即返回回执号，判分在后台批量进行
+     */
+    @PostMapping("/submitAsync")
+    public Result submitAsync(@RequestBody ExamService.SubmitDTO dto) {
+        return Result.success(examSubmissionQueue.accept(dto));
+    }
+
+    /**
+     * 按回执号查询异步交卷的判分结果
+     */
+    @GetMapping("/submission/{receiptId}")
+    public Result submission(@PathVariable Long receiptId) {
+        return Result.success(examSubmissionQueue.status(receiptId));
+    }
+
+    /**
+     * 改卷后让交卷判分的答案缓存失效，不传 examId 清空全部
+     */
+    @PostMapping("/answerKey/invalidate")
+    public Result invalidateAnswerKey(@RequestParam(required = false) Integer examId) {
+        examAnswerKeyCache.invalidate(examId);
+        return Result.success();
+    }
 }
@@ -1,8 +1,10 @@
 package com.example.controller;
 
-import cn.hutool.core.io.FileUtil;
 import com.example.common.Result;
-import jakarta.servlet.ServletOutputStream;
+import com.example.service.file.FileDownloadService;
+import com.example.service.file.FileStorageService;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
@@ -19,35 +21,31 @@ import java.nio.charset.StandardCharsets;
 @RequestMapping("/files")
 public class FileController {
 
-    // 表示本地磁盘文件的存储路径
-    private static final String filePath = System.getProperty("user.dir") + "/files/";
-
     @Value("${fileBaseUrl}")
     private String fileBaseUrl;
 
     @Value("${server.port}")
     private String port;
 
+    @Resource
+    private FileStorageService fileStorageService;
+
+    @Resource
+    private FileDownloadService fileDownloadService;
+
     /**
      * 文件上传
      */
     @PostMapping("/upload")
     public Result upload(MultipartFile file) {
-        // 定义文件的唯一标识
-        String fileName = System.currentTimeMillis() + "-" + file.getOriginalFilename();
-        // 拼接完整的文件存储路径
-        String realFilePath = filePath + fileName;
-        try {
-            if (!FileUtil.isDirectory(filePath)) {
-                FileUtil.mkdir(filePath);
-            }
-            FileUtil.writeBytes(file.getBytes(), realFilePath);
-        } catch (IOException e) {
-            System.out.println("文件上传错误");
-        }
+        // 边读边算 SHA-256 写到磁盘，相同内容只存一份
+        FileStorageService.StoredFile stored = fileStorageService.store(file);
 
-        // 返回文件下载的地址
-        String url = fileBaseUrl + ":" + port + "/files/download/" + fileName;
+        // 返回文件下载的地址（由内容哈希决定，同一文件多次上传地址相同；name 是另存为的文件名）
+        String url = fileBaseUrl + ":" + port + "/files/download/" + stored.name();
+        if (file.getOriginalFilename() != null && !file.getOriginalFilename().isBlank()) {
+            url += "?name=" + URLEncoder.encode(file.getOriginalFilename(), StandardCharsets.UTF_8);
+        }
         return Result.success(url);
     }
 
@@ -55,19 +53,11 @@ public class FileController {
      * 文件下载
      */
     @GetMapping("/download/{fileName}")
-    public void download(@PathVariable String fileName, HttpServletResponse response) {
-        // 设置下载文件http响应头
-        response.setHeader("Content-Disposition", "attachment;filename=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
-        // 拼接完整的文件存储路径
-        String realFilePath = filePath + fileName;
+    public void download(@PathVariable String fileName, @RequestParam(required = false) String name,
+                         HttpServletRequest request, HttpServletResponse response) {
+        // 流式输出，支持 Range 断点续传和 ETag / Last-Modified 条件请求
         try {
-            // 通过文件的存储路径拿到文件字节数组
-            byte[] bytes = FileUtil.readBytes(realFilePath);
-            ServletOutputStream os = response.getOutputStream();
-            // 将文件字节数组写出到文件流
-            os.write(bytes);
-            os.flush();
-            os.close();
+            fileDownloadService.download(fileName, name, request, response);
         } catch (IOException e) {
             System.out.println("文件下载错误");
         }
@@ -4,9 +4,27 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import com.example.algorithm.ModelRegistry;
+import com.example.algorithm.PredictionExecutor;
 import com.example.mapper.SystemMetricMapper;
+import com.example.service.alert.RiskAlertEngine;
+import com.example.service.cache.DashboardCache;
+import com.example.service.cache.ExamAnswerKeyCache;
+import com.example.service.exam.ExamSubmissionQueue;
+import com.example.service.counter.StatCounterService;
+import com.example.service.file.FileDownloadService;
+import com.example.service.file.FileStorageService;
+import com.example.service.ingest.BehaviorEventIngestor;
+import com.example.service.feature.IncrementalFeatureEngine;
+import com.example.service.feature.RealtimeFeatureUpdater;
+import com.example.service.ingest.VideoWatchAccumulator;
+import com.example.service.retention.BehaviorEventRetentionService;
+import com.example.service.retention.HeartbeatCompactionService;
+import com.example.service.metrics.MetricsSink;
+import com.example.service.metrics.PerformanceMetricsService;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.ThreadMXBean;
@@ -24,6 +42,57 @@ public class MonitorController {
     @Autowired
     private SystemMetricMapper systemMetricMapper;
 
+    @Autowired
+    private BehaviorEventIngestor behaviorEventIngestor;
+
+    @Autowired
+    private VideoWatchAccumulator videoWatchAccumulator;
+
+    @Autowired
+    private IncrementalFeatureEngine incrementalFeatureEngine;
+
+    @Autowired
+    private RealtimeFeatureUpdater realtimeFeatureUpdater;
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Autowired
+    private DashboardCache dashboardCache;
+
+    @Autowired
+    private PredictionExecutor predictionExecutor;
+
+    @Autowired
+    private BehaviorEventRetentionService behaviorEventRetentionService;
+
+    @Autowired
+    private HeartbeatCompactionService heartbeatCompactionService;
+
+    @Autowired
+    private PerformanceMetricsService performanceMetricsService;
+
+    @Autowired
+    private MetricsSink metricsSink;
+
+    @Autowired
+    private RiskAlertEngine riskAlertEngine;
+
+    @Autowired
+    private ExamAnswerKeyCache examAnswerKeyCache;
+
+    @Autowired
+    private ExamSubmissionQueue examSubmissionQueue;
+
+    @Autowired
+    private StatCounterService statCounterService;
+
+    @Autowired
+    private FileDownloadService fileDownloadService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
     /**
      * 获取系统性能指标
      */
@@ -33,31 +102,17 @@ public class MonitorController {
         result.put("timestamp", LocalDateTime.now().toString());
 
         try {
-            // 1. JVM内存信息
-            MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
-            Map<String, Object> memory = new HashMap<>();
-            memory.put("heap_used", memoryBean.getHeapMemoryUsage().getUsed() / 1024 / 1024 + "MB");
-            memory.put("heap_max", memoryBean.getHeapMemoryUsage().getMax() / 1024 / 1024 + "MB");
-            memory.put("non_heap_used", memoryBean.getNonHeapMemoryUsage().getUsed() / 1024 / 1024 + "MB");
-            result.put("memory", memory);
+            // 1. 接口延迟（p50/p95/p99，按 p99 排序的前 20 个）
+            result.put("http_latency", performanceMetricsService.httpLatency());
 
-            // 2. 线程信息
-            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
-            Map<String, Object> threads = new HashMap<>();
-            threads.put("total_threads", threadBean.getThreadCount());
-            threads.put("daemon_threads", threadBean.getDaemonThreadCount());
-            threads.put("peak_threads", threadBean.getPeakThreadCount());
-            result.put("threads", threads);
-
-            // 3. 操作系统信息
-            Map<String, Object> os = new HashMap<>();
-            os.put("name", System.getProperty("os.name"));
-            os.put("version", System.getProperty("os.version"));
-            os.put("arch", System.getProperty("os.arch"));
-            os.put("available_processors", Runtime.getRuntime().availableProcessors());
-            result.put("os", os);
-
-            // 4. 定时任务指标
+            // 2. SQL 语句耗时（MyBatis 拦截器采集）
+            result.put("sql_latency", performanceMetricsService.statementLatency());
+
+            // 3. 连接池饱和度
+            result.put("connection_pool", performanceMetricsService.connectionPool());
+
+            // 4. 定时任务指标（耗时分位数 + system_metrics 里的日汇总）
+            result.put("scheduled_tasks", performanceMetricsService.scheduledTasks());
             try {
                 List<Map<String, Object>> metrics = systemMetricMapper.getDailyMetrics();
                 result.put("scheduler_metrics", metrics);
@@ -65,6 +120,52 @@ public class MonitorController {
                 result.put("scheduler_metrics", "暂无数据");
             }
 
+            // 5. 行为事件写入管道
+            result.put("event_ingest", behaviorEventIngestor.getStats());
+            result.put("video_watch_states", videoWatchAccumulator.size());
+
+            // 6. 增量特征计算（高水位、延迟、上轮变更 key 数）
+            result.put("feature_incremental", incrementalFeatureEngine.getStats());
+
+            // 7. 实时特征物化（内存 key 数、待写 key 数、上次刷新）
+            result.put("feature_realtime", realtimeFeatureUpdater.getStats());
+
+            // 8. 模型注册表（当前打分模型、版本戳、切换次数）
+            result.put("model_registry", modelRegistry.getStats());
+
+            // 9. 看板缓存（命中、过期返回、合并等待、加载耗时）
+            result.put("dashboard_cache", dashboardCache.getStats());
+
+            // 10. 批量预测执行器（查库名额、排队数、任务数）
+            result.put("prediction_executor", predictionExecutor.getStats());
+
+            // 11. 行为事件分区维护（最近一次新建 / 归档 / 删除的分区）
+            result.put("behavior_retention", behaviorEventRetentionService.getStats());
+
+            // 12. 视频心跳压缩（合并的心跳数、生成的会话数）
+            result.put("heartbeat_compaction", heartbeatCompactionService.getStats());
+
+            // 13. 指标异步写入（缓冲中、已写入、溢出丢弃的条数）
+            result.put("metrics_sink", metricsSink.getStats());
+
+            // 14. 预警生成（最近一轮扫描、新增、抑制条数和吞吐量）
+            result.put("alert_engine", riskAlertEngine.getStats());
+
+            // 15. 考试答案缓存（命中、指纹校验、重新加载次数）
+            result.put("exam_answer_key_cache", examAnswerKeyCache.getStats());
+
+            // 16. 异步交卷队列（待判分、判分中、每批判分耗时、交卷到出分延迟）
+            result.put("exam_submission_queue", examSubmissionQueue.getStats());
+
+            // 17. 作业、课程统计计数器（待回写增量、回写行数）
+            result.put("stat_counters", statCounterService.getStats());
+
+            // 18. 文件下载（整文件 / Range / 304 / sendfile 次数、已发送字节）
+            result.put("file_download", fileDownloadService.getStats());
+
+            // 19. 文件上传去重（上传次数、命中已有文件次数、实际写入 / 省下的字节）
+            result.put("file_storage", fileStorageService.getStats());
+
             result.put("status", "success");
 
         } catch (Exception e) {
@@ -118,6 +219,26 @@ public class MonitorController {
         return result;
     }
 
+    /**
+     * 行为事件表转为按月分区（一次性迁移，会锁表，请在低峰调用）
+     */
+    @PostMapping("/behavior-retention/convert")
+    public Map<String, Object> convertBehaviorEvents() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", LocalDateTime.now().toString());
+
+        try {
+            result.put("behavior_retention", behaviorEventRetentionService.convertAndMaintain());
+            result.put("status", "success");
+        } catch (Exception e) {
+            log.error("❌ 行为事件分区转换失败: {}", e.getMessage(), e);
+            result.put("status", "error");
+            result.put("message", e.getMessage());
+        }
+
+        return result;
+    }
+
     /**
      * 清理系统指标数据
      */
@@ -126,8 +247,11 @@ public class MonitorController {
         Map<String, Object> result = new HashMap<>();
         result.put("timestamp", LocalDateTime.now().toString());
 
+        long start = System.currentTimeMillis();
         try {
             int deletedCount = systemMetricMapper.cleanupOldMetrics();
+            metricsSink.record("metrics_cleanup", "METRICS_CLEANUP_" + start,
+                    System.currentTimeMillis() - start, "SUCCESS", (double) deletedCount);
             result.put("deleted_records", deletedCount);
             result.put("message", "清理成功");
             result.put("status", "success");
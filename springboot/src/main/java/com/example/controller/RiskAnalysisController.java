@@ -26,6 +26,9 @@ public class RiskAnalysisController {
     @Resource
     private com.example.service.ModelVersionService modelVersionService;
 
+    @Resource
+    private com.example.service.alert.RiskAlertEngine riskAlertEngine;
+
     /**
      * 单个学生风险分析
      */
@@ -50,19 +53,22 @@ public class RiskAnalysisController {
      */
     @GetMapping("/analyzeClass/{courseId}")
     public Result analyzeClassRisk(@PathVariable Integer courseId) {
-        // 获取课程所有学生的特征
-        var features = learningFeaturesService.selectByCourseId(courseId);
-
-        // 统计风险分布
-        long highRisk = features.stream().filter(f -> "HIGH".equals(f.getRiskLevel())).count();
-        long mediumRisk = features.stream().filter(f -> "MEDIUM".equals(f.getRiskLevel())).count();
-        long lowRisk = features.stream().filter(f -> "LOW".equals(f.getRiskLevel())).count();
+        // 流式统计课程所有学生的风险分布
+        long[] levelCounts = new long[3]; // HIGH / MEDIUM / LOW
+        int total = learningFeaturesService.forEachByCourseId(courseId, f -> {
+            if ("HIGH".equals(f.getRiskLevel())) levelCounts[0]++;
+            else if ("MEDIUM".equals(f.getRiskLevel())) levelCounts[1]++;
+            else if ("LOW".equals(f.getRiskLevel())) levelCounts[2]++;
+        });
+        long highRisk = levelCounts[0];
+        long mediumRisk = levelCounts[1];
+        long lowRisk = levelCounts[2];
 
         Map<String, Object> distribution = new HashMap<>();
-        if (features.size() > 0) {
-            distribution.put("high", (double) highRisk / features.size() * 100);
-            distribution.put("medium", (double) mediumRisk / features.size() * 100);
-            distribution.put("low", (double) lowRisk / features.size() * 100);
+        if (total > 0) {
+            distribution.put("high", (double) highRisk / total * 100);
+            distribution.put("medium", (double) mediumRisk / total * 100);
+            distribution.put("low", (double) lowRisk / total * 100);
         } else {
             distribution.put("high", 0.0);
             distribution.put("medium", 0.0);
@@ -71,7 +77,7 @@ public class RiskAnalysisController {
 
         Map<String, Object> result = new HashMap<>();
         result.put("courseId", courseId);
-        result.put("totalStudents", features.size());
+        result.put("totalStudents", total);
         result.put("highRiskCount", highRisk);
         result.put("mediumRiskCount", mediumRisk);
         result.put("lowRiskCount", lowRisk);
@@ -85,9 +91,7 @@ public class RiskAnalysisController {
      */
     @PostMapping("/triggerAlertGeneration")
     public Result triggerAlertGeneration(@RequestParam(required = false) Integer courseId) {
-        // 这里调用算法模块生成预警（待实现）
-        // 暂时返回成功
-        return Result.success("预警生成任务已触发");
+        return Result.success(riskAlertEngine.generate(courseId, null));
     }
 
     /**
@@ -69,7 +69,11 @@ public class TeacherBehaviorInsightController {
         int loginCount = byType.getOrDefault("LOGIN", Collections.emptyList()).size();
 
         List<StudentBehavior> videoEvents = byType.getOrDefault("VIDEO_WATCH", Collections.emptyList());
-        int videoProgressCount = byType.getOrDefault("VIDEO_PROGRESS", Collections.emptyList()).size();
+        // 已压缩的心跳合并成 VIDEO_SESSION，attemptNo 是合并掉的心跳数
+        int videoProgressCount = byType.getOrDefault("VIDEO_PROGRESS", Collections.emptyList()).size()
+                + byType.getOrDefault("VIDEO_SESSION", Collections.emptyList()).stream()
+                .mapToInt(e -> e.getAttemptNo() == null ? 1 : e.getAttemptNo())
+                .sum();
         int videoCompleteCount = byType.getOrDefault("VIDEO_COMPLETE", Collections.emptyList()).size();
         int videoCount = videoEvents.size() + videoProgressCount + videoCompleteCount;
         // 约定：你当前 VIDEO_WATCH 的 watchTime/completionRate 怎么存？
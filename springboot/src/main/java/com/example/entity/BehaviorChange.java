@@ -0,0 +1,30 @@
+package com.example.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * student_behavior 里新增/更新过的一行（只取增量计算需要的键和位点）
+ */
+public class BehaviorChange {
+
+    private Long id;
+    private Integer studentId;
+    private Integer courseId;
+    private String behaviorDate;        // yyyy-MM-dd
+    private LocalDateTime updateTime;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getStudentId() { return studentId; }
+    public void setStudentId(Integer studentId) { this.studentId = studentId; }
+
+    public Integer getCourseId() { return courseId; }
+    public void setCourseId(Integer courseId) { this.courseId = courseId; }
+
+    public String getBehaviorDate() { return behaviorDate; }
+    public void setBehaviorDate(String behaviorDate) { this.behaviorDate = behaviorDate; }
+
+    public LocalDateTime getUpdateTime() { return updateTime; }
+    public void setUpdateTime(LocalDateTime updateTime) { this.updateTime = updateTime; }
+}
@@ -0,0 +1,34 @@
+package com.example.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 考试作答记录（对应 exam_attempt 表）
+ */
+public class ExamAttempt {
+
+    private Integer id;
+    private Integer examId;
+    private Integer courseId;
+    private Integer studentId;
+    private LocalDateTime startTime;
+    private String status;
+
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public Integer getExamId() { return examId; }
+    public void setExamId(Integer examId) { this.examId = examId; }
+
+    public Integer getCourseId() { return courseId; }
+    public void setCourseId(Integer courseId) { this.courseId = courseId; }
+
+    public Integer getStudentId() { return studentId; }
+    public void setStudentId(Integer studentId) { this.studentId = studentId; }
+
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
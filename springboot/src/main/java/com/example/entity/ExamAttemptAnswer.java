@@ -0,0 +1,34 @@
+package com.example.entity;
+
+/**
+ * 考试每题作答（对应 exam_attempt_answer 表）
+ */
+public class ExamAttemptAnswer {
+
+    private Integer questionId;
+    private String chosenOption;
+    private Integer isCorrect;
+    private Double score;
+
+    public ExamAttemptAnswer() {
+    }
+
+    public ExamAttemptAnswer(Integer questionId, String chosenOption, Integer isCorrect, Double score) {
+        this.questionId = questionId;
+        this.chosenOption = chosenOption;
+        this.isCorrect = isCorrect;
+        this.score = score;
+    }
+
+    public Integer getQuestionId() { return questionId; }
+    public void setQuestionId(Integer questionId) { this.questionId = questionId; }
+
+    public String getChosenOption() { return chosenOption; }
+    public void setChosenOption(String chosenOption) { this.chosenOption = chosenOption; }
+
+    public Integer getIsCorrect() { return isCorrect; }
+    public void setIsCorrect(Integer isCorrect) { this.isCorrect = isCorrect; }
+
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+}
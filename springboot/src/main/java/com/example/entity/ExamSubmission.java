@@ -0,0 +1,72 @@
+package com.example.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 异步交卷回执（对应 exam_submission 表）
+ * 状态：PENDING 待判分 / PROCESSING 判分中 / GRADED 已出分 / FAILED 判分失败
+ */
+public class ExamSubmission {
+
+    private Long id;
+    private Integer examId;
+    private Integer courseId;
+    private Integer studentId;
+    // 原始答卷 JSON：{"题号": "选项"}
+    private String answers;
+    private String status;
+    private String claimToken;
+    private Integer retryCount;
+    private Integer attemptId;
+    private Integer attemptNo;
+    private Double score;
+    private String errorMsg;
+    private LocalDateTime submitTime;
+    private LocalDateTime claimedTime;
+    private LocalDateTime gradedTime;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getExamId() { return examId; }
+    public void setExamId(Integer examId) { this.examId = examId; }
+
+    public Integer getCourseId() { return courseId; }
+    public void setCourseId(Integer courseId) { this.courseId = courseId; }
+
+    public Integer getStudentId() { return studentId; }
+    public void setStudentId(Integer studentId) { this.studentId = studentId; }
+
+    public String getAnswers() { return answers; }
+    public void setAnswers(String answers) { this.answers = answers; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getClaimToken() { return claimToken; }
+    public void setClaimToken(String claimToken) { this.claimToken = claimToken; }
+
+    public Integer getRetryCount() { return retryCount; }
+    public void setRetryCount(Integer retryCount) { this.retryCount = retryCount; }
+
+    public Integer getAttemptId() { return attemptId; }
+    public void setAttemptId(Integer attemptId) { this.attemptId = attemptId; }
+
+    public Integer getAttemptNo() { return attemptNo; }
+    public void setAttemptNo(Integer attemptNo) { this.attemptNo = attemptNo; }
+
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+
+    public String getErrorMsg() { return errorMsg; }
+    public void setErrorMsg(String errorMsg) { this.errorMsg = errorMsg; }
+
+    public LocalDateTime getSubmitTime() { return submitTime; }
+    public void setSubmitTime(LocalDateTime submitTime) { this.submitTime = submitTime; }
+
+    public LocalDateTime getClaimedTime() { return claimedTime; }
+    public void setClaimedTime(LocalDateTime claimedTime) { this.claimedTime = claimedTime; }
+
+    public LocalDateTime getGradedTime() { return gradedTime; }
+    public void setGradedTime(LocalDateTime gradedTime) { this.gradedTime = gradedTime; }
+}
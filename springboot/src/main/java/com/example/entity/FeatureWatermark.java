@@ -0,0 +1,27 @@
+package com.example.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 增量特征计算的高水位（对应 feature_watermark 表）
+ * 每个源表一行：已处理到的 (更新时间, 主键)
+ */
+public class FeatureWatermark {
+
+    private String sourceTable;
+    private LocalDateTime lastTime;
+    private Long lastId;
+    private LocalDateTime updatedTime;
+
+    public String getSourceTable() { return sourceTable; }
+    public void setSourceTable(String sourceTable) { this.sourceTable = sourceTable; }
+
+    public LocalDateTime getLastTime() { return lastTime; }
+    public void setLastTime(LocalDateTime lastTime) { this.lastTime = lastTime; }
+
+    public Long getLastId() { return lastId; }
+    public void setLastId(Long lastId) { this.lastId = lastId; }
+
+    public LocalDateTime getUpdatedTime() { return updatedTime; }
+    public void setUpdatedTime(LocalDateTime updatedTime) { this.updatedTime = updatedTime; }
+}
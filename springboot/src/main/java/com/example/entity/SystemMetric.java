@@ -0,0 +1,47 @@
+package com.example.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 系统指标（对应 system_metrics 表）
+ */
+public class SystemMetric {
+
+    private String metricName;
+    private String taskId;
+    private long executionTime;
+    private String status;
+    private Double metricValue;
+    private LocalDateTime createdTime;
+
+    public SystemMetric() {
+    }
+
+    public SystemMetric(String metricName, String taskId, long executionTime, String status,
+                        Double metricValue, LocalDateTime createdTime) {
+        this.metricName = metricName;
+        this.taskId = taskId;
+        this.executionTime = executionTime;
+        this.status = status;
+        this.metricValue = metricValue;
+        this.createdTime = createdTime;
+    }
+
+    public String getMetricName() { return metricName; }
+    public void setMetricName(String metricName) { this.metricName = metricName; }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public long getExecutionTime() { return executionTime; }
+    public void setExecutionTime(long executionTime) { this.executionTime = executionTime; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Double getMetricValue() { return metricValue; }
+    public void setMetricValue(Double metricValue) { this.metricValue = metricValue; }
+
+    public LocalDateTime getCreatedTime() { return createdTime; }
+    public void setCreatedTime(LocalDateTime createdTime) { this.createdTime = createdTime; }
+}
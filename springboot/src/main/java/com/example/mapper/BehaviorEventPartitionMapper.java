@@ -0,0 +1,53 @@
+package com.example.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * student_behavior_event 分区维护（按 behavior_time 每月一个 RANGE 分区）
+ * 分区名由 BehaviorEventRetentionService 生成并校验，才能拼进 SQL
+ */
+@Mapper
+public interface BehaviorEventPartitionMapper {
+
+    /**
+     * 当前分区（表未分区时返回空列表）
+     * PARTITION_DESCRIPTION 是上界，如 '2026-03-01 00:00:00' 或 MAXVALUE
+     */
+    @Select("SELECT PARTITION_NAME AS name, PARTITION_DESCRIPTION AS description, TABLE_ROWS AS tableRows " +
+            "FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'student_behavior_event' " +
+            "AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION")
+    List<Map<String, Object>> selectPartitions();
+
+    @Select("SELECT MIN(behavior_time) FROM student_behavior_event")
+    LocalDateTime selectMinBehaviorTime();
+
+    @Select("SELECT COUNT(*) FROM student_behavior_event PARTITION (${partition})")
+    long countPartition(@Param("partition") String partition);
+
+    /**
+     * 流式读取一个分区（归档用，必须在事务内遍历）
+     */
+    @Select("SELECT id, student_id, course_id, behavior_type, related_id, score, is_late, attempt_no, " +
+            "behavior_value, CAST(behavior_extra AS CHAR) AS behavior_extra, behavior_time, create_time " +
+            "FROM student_behavior_event PARTITION (${partition}) ORDER BY id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Map<String, Object>> streamPartition(@Param("partition") String partition);
+
+    /**
+     * 执行分区 DDL（ALTER TABLE ... PARTITION）
+     */
+    @Update("${ddl}")
+    void executeDdl(@Param("ddl") String ddl);
+}
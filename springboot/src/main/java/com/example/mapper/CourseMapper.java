@@ -69,6 +69,13 @@ public interface CourseMapper {
     int updateHomeworkCount(@Param("id") Integer id,
                             @Param("homeworkCount") Integer homeworkCount);
 
+    /**
+     * 累加课程学生人数、作业数量增量
+     */
+    int addCounts(@Param("id") Integer id,
+                  @Param("studentDelta") long studentDelta,
+                  @Param("homeworkDelta") long homeworkDelta);
+
     /**
      * 根据状态查询课程
      */
@@ -1,21 +1,28 @@
 package com.example.mapper;
 
+import com.example.entity.ExamAttemptAnswer;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 @Mapper
 public interface ExamAttemptAnswerMapper {
 
+    /**
+     * 一次作答的全部答案，一条多行 INSERT
+     */
     @Insert("""
+        <script>
         INSERT INTO exam_attempt_answer
         (attempt_id, question_id, chosen_option, is_correct, score)
         VALUES
-        (#{attemptId}, #{questionId}, #{chosenOption}, #{isCorrect}, #{score})
+        <foreach collection="list" item="a" separator=",">
+        (#{attemptId}, #{a.questionId}, #{a.chosenOption}, #{a.isCorrect}, #{a.score})
+        </foreach>
+        </script>
     """)
-    void insert(@Param("attemptId") Integer attemptId,
-                @Param("questionId") Integer questionId,
-                @Param("chosenOption") String chosenOption,
-                @Param("isCorrect") Integer isCorrect,
-                @Param("score") Double score);
+    int insertBatch(@Param("attemptId") Integer attemptId,
+                    @Param("list") List<ExamAttemptAnswer> list);
 }
@@ -1,5 +1,6 @@
 package com.example.mapper;
 
+import com.example.entity.ExamAttempt;
 import org.apache.ibatis.annotations.*;
 
 import java.time.LocalDateTime;
@@ -16,28 +17,26 @@ public interface ExamAttemptMapper {
     Integer countByStudent(@Param("examId") Integer examId,
                            @Param("studentId") Integer studentId);
 
+    /**
+     * 新增作答记录，自增 id 回填到 attempt.id（不用再单独查 LAST_INSERT_ID）
+     */
     @Insert("""
         INSERT INTO exam_attempt
         (exam_id, course_id, student_id, start_time, status)
         VALUES
         (#{examId}, #{courseId}, #{studentId}, #{startTime}, #{status})
     """)
-    void insertAttempt(@Param("examId") Integer examId,
-                       @Param("courseId") Integer courseId,
-                       @Param("studentId") Integer studentId,
-                       @Param("startTime") LocalDateTime startTime,
-                       @Param("status") String status);
-
-    @Select("SELECT LAST_INSERT_ID()")
-    Integer lastId();
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    void insertAttempt(ExamAttempt attempt);
 
     @Update("""
         UPDATE exam_attempt
-        SET submit_time = NOW(),
+        SET submit_time = #{submitTime},
             score = #{score},
             status = 'SUBMITTED'
         WHERE id = #{attemptId}
     """)
     void finish(@Param("attemptId") Integer attemptId,
-                @Param("score") Double score);
+                @Param("score") Double score,
+                @Param("submitTime") LocalDateTime submitTime);
 }
@@ -26,4 +26,32 @@ public interface ExamQuestionMapper {
         ORDER BY eq.sort_no
     """)
     List<Map<String, Object>> selectPaper(Integer examId);
+
+    /**
+     * 判卷用的答案：只取题号、分值、正确选项（不带题干）
+     */
+    @Select("""
+        SELECT
+            eq.question_id,
+            eq.score,
+            q.correct_option
+        FROM exam_question eq
+        JOIN question q ON eq.question_id = q.id
+        WHERE eq.exam_id = #{examId}
+        ORDER BY eq.sort_no
+    """)
+    List<Map<String, Object>> selectAnswerKey(Integer examId);
+
+    /**
+     * 试卷指纹：题数 + 每题 (题号, 分值, 顺序, 正确选项) 的 CRC32 之和
+     * 换题、改分值、改答案都会变，答案缓存靠它判断是否要重新加载
+     */
+    @Select("""
+        SELECT CONCAT(COUNT(1), ':',
+               COALESCE(SUM(CRC32(CONCAT_WS(',', eq.question_id, eq.score, eq.sort_no, q.correct_option))), 0))
+        FROM exam_question eq
+        JOIN question q ON eq.question_id = q.id
+        WHERE eq.exam_id = #{examId}
+    """)
+    String selectPaperFingerprint(Integer examId);
 }
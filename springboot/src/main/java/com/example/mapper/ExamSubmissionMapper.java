@@ -0,0 +1,96 @@
+package com.example.mapper;
+
+import com.example.entity.ExamSubmission;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+@Mapper
+public interface ExamSubmissionMapper {
+
+    /**
+     * 初始化异步交卷表（如果不存在则创建）
+     */
+    @Update("CREATE TABLE IF NOT EXISTS exam_submission (" +
+            "    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT '回执号'," +
+            "    exam_id INT NOT NULL," +
+            "    course_id INT NOT NULL," +
+            "    student_id INT NOT NULL," +
+            "    answers TEXT NOT NULL COMMENT '原始答卷 JSON'," +
+            "    status VARCHAR(16) NOT NULL DEFAULT 'PENDING' COMMENT 'PENDING/PROCESSING/GRADED/FAILED'," +
+            "    claim_token VARCHAR(40) NULL COMMENT '领取这一批的判分任务标识'," +
+            "    retry_count INT NOT NULL DEFAULT 0 COMMENT '超时被重新放回队列的次数'," +
+            "    attempt_id INT NULL," +
+            "    attempt_no INT NULL," +
+            "    score DOUBLE NULL," +
+            "    error_msg VARCHAR(255) NULL," +
+            "    submit_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '交卷时间'," +
+            "    claimed_time DATETIME NULL," +
+            "    graded_time DATETIME NULL," +
+            "    INDEX idx_status_id (status, id)," +
+            "    INDEX idx_claim_token (claim_token)," +
+            "    INDEX idx_student_exam (student_id, exam_id)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='异步交卷队列'")
+    void createTableIfNotExists();
+
+    /**
+     * 收卷：一条 INSERT，自增 id 即回执号
+     */
+    @Insert("INSERT INTO exam_submission (exam_id, course_id, student_id, answers, status, submit_time) " +
+            "VALUES (#{examId}, #{courseId}, #{studentId}, #{answers}, 'PENDING', #{submitTime})")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insert(ExamSubmission submission);
+
+    /**
+     * 按交卷顺序领取一批待判分的答卷（单条 UPDATE 抢占，多实例不会重复领取）
+     */
+    @Update("UPDATE exam_submission SET status = 'PROCESSING', claim_token = #{token}, claimed_time = NOW() " +
+            "WHERE status = 'PENDING' ORDER BY id LIMIT #{limit}")
+    int claim(@Param("token") String token, @Param("limit") int limit);
+
+    @Select("SELECT * FROM exam_submission WHERE claim_token = #{token} AND status = 'PROCESSING' ORDER BY id")
+    List<ExamSubmission> selectClaimed(@Param("token") String token);
+
+    @Update("UPDATE exam_submission SET status = 'GRADED', attempt_id = #{attemptId}, attempt_no = #{attemptNo}, " +
+            "score = #{score}, error_msg = NULL, graded_time = NOW() " +
+            "WHERE id = #{id} AND status = 'PROCESSING' AND claim_token = #{token}")
+    int markGraded(@Param("id") Long id,
+                   @Param("token") String token,
+                   @Param("attemptId") Integer attemptId,
+                   @Param("attemptNo") Integer attemptNo,
+                   @Param("score") Double score);
+
+    @Update("UPDATE exam_submission SET status = 'FAILED', error_msg = LEFT(#{errorMsg}, 255), graded_time = NOW() " +
+            "WHERE id = #{id} AND status = 'PROCESSING' AND claim_token = #{token}")
+    int markFailed(@Param("id") Long id, @Param("token") String token, @Param("errorMsg") String errorMsg);
+
+    /**
+     * 判分中超时（进程挂了、被强杀）的答卷放回队列
+     */
+    @Update("UPDATE exam_submission SET status = 'PENDING', claim_token = NULL, retry_count = retry_count + 1 " +
+            "WHERE status = 'PROCESSING' AND claimed_time < DATE_SUB(NOW(), INTERVAL #{seconds} SECOND) " +
+            "AND retry_count < #{maxRetries}")
+    int requeueStale(@Param("seconds") int seconds, @Param("maxRetries") int maxRetries);
+
+    @Update("UPDATE exam_submission SET status = 'FAILED', error_msg = '判分多次超时', graded_time = NOW() " +
+            "WHERE status = 'PROCESSING' AND claimed_time < DATE_SUB(NOW(), INTERVAL #{seconds} SECOND) " +
+            "AND retry_count >= #{maxRetries}")
+    int failStale(@Param("seconds") int seconds, @Param("maxRetries") int maxRetries);
+
+    @Select("SELECT * FROM exam_submission WHERE id = #{id}")
+    ExamSubmission selectById(@Param("id") Long id);
+
+    @Select("SELECT COUNT(1) FROM exam_submission WHERE status = 'PENDING'")
+    long countPending();
+
+    /**
+     * 排在这份答卷前面还没判分的份数
+     */
+    @Select("SELECT COUNT(1) FROM exam_submission WHERE status = 'PENDING' AND id < #{id}")
+    long countPendingBefore(@Param("id") Long id);
+}
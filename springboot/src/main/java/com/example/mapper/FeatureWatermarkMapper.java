@@ -0,0 +1,42 @@
+package com.example.mapper;
+
+import com.example.entity.FeatureWatermark;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+
+@Mapper
+public interface FeatureWatermarkMapper {
+
+    /**
+     * 初始化高水位表（如果不存在则创建）
+     */
+    @Update("CREATE TABLE IF NOT EXISTS feature_watermark (" +
+            "    source_table VARCHAR(64) NOT NULL PRIMARY KEY COMMENT '源表名'," +
+            "    last_time DATETIME NOT NULL COMMENT '已处理到的更新时间'," +
+            "    last_id BIGINT NOT NULL DEFAULT 0 COMMENT '同一更新时间内已处理到的主键'," +
+            "    updated_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '最后推进时间'" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='增量特征计算高水位表'")
+    void createTableIfNotExists();
+
+    /**
+     * 增量扫描 student_behavior 要按 (update_time, id) 走索引，老库没有这个索引时启动补上
+     * （已存在会报错，调用方忽略即可）
+     */
+    @Update("ALTER TABLE student_behavior ADD INDEX idx_update_time (update_time, id)")
+    void addBehaviorUpdateTimeIndex();
+
+    @Select("SELECT source_table, last_time, last_id, updated_time FROM feature_watermark WHERE source_table = #{sourceTable}")
+    FeatureWatermark selectBySource(@Param("sourceTable") String sourceTable);
+
+    @Insert("INSERT INTO feature_watermark (source_table, last_time, last_id, updated_time) " +
+            "VALUES (#{sourceTable}, #{lastTime}, #{lastId}, NOW()) " +
+            "ON DUPLICATE KEY UPDATE last_time = VALUES(last_time), last_id = VALUES(last_id), updated_time = NOW()")
+    int upsert(@Param("sourceTable") String sourceTable,
+               @Param("lastTime") LocalDateTime lastTime,
+               @Param("lastId") Long lastId);
+}
@@ -61,6 +61,14 @@ public interface HomeworkMapper {
                          @Param("averageScore") Double averageScore,
                          @Param("status") String status);
 
+    /**
+     * 累加作业统计增量（提交人数、批改人数、本批成绩之和）
+     */
+    int addStatistics(@Param("id") Integer id,
+                      @Param("submitDelta") long submitDelta,
+                      @Param("gradedDelta") long gradedDelta,
+                      @Param("scoreSumDelta") double scoreSumDelta);
+
     /**
      * 根据截止时间查询即将截止的作业
      */
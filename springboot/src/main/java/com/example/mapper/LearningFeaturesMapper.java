@@ -1,9 +1,14 @@
 package com.example.mapper;
 
+import com.example.entity.BehaviorChange;
 import com.example.entity.LearningFeatures;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 学习行为特征数据访问接口
@@ -40,6 +45,22 @@ public interface LearningFeaturesMapper {
 
 
     List<LearningFeatures> selectRecentFeatures(@Param("days") Integer days);
+
+    /**
+     * 按主键分块读取最近N天特征（keyset 分页，只取打分需要的列）
+     */
+    List<LearningFeatures> selectRecentFeaturesChunk(@Param("days") Integer days,
+                                                     @Param("lastId") Integer lastId,
+                                                     @Param("limit") Integer limit);
+
+    /**
+     * 按主键分块读取最近N天风险概率 >= threshold 的特征（预警生成用，keyset 分页）
+     */
+    List<LearningFeatures> selectAlertCandidatesChunk(@Param("days") Integer days,
+                                                      @Param("threshold") Double threshold,
+                                                      @Param("courseId") Integer courseId,
+                                                      @Param("lastId") Integer lastId,
+                                                      @Param("limit") Integer limit);
     /**
      * 根据ID查询特征记录
      */
@@ -60,6 +81,16 @@ public interface LearningFeaturesMapper {
      */
     List<LearningFeatures> selectByCourseId(Integer courseId);
 
+    /**
+     * 根据课程ID流式读取特征记录（逐行读取，不整表装进内存；必须在事务内遍历）
+     */
+    Cursor<LearningFeatures> streamByCourseId(@Param("courseId") Integer courseId);
+
+    /**
+     * 有特征数据的课程 id
+     */
+    List<Integer> selectCourseIds();
+
     /**
      * 根据学生和课程查询特征记录
      */
@@ -88,6 +119,14 @@ public interface LearningFeaturesMapper {
                                             @Param("startDate") String startDate,
                                             @Param("endDate") String endDate);
 
+    /**
+     * 批量获取学生汇总（student_id IN (...)，按学生 + 课程分组），调用方负责分块
+     */
+    List<LearningFeatures> selectSummariesByStudents(@Param("courseId") Integer courseId,
+                                                     @Param("studentIds") Collection<Integer> studentIds,
+                                                     @Param("startDate") String startDate,
+                                                     @Param("endDate") String endDate);
+
     /**
      * 统计特征记录数量
      */
@@ -115,9 +154,29 @@ public interface LearningFeaturesMapper {
                        @Param("riskProbability") Double riskProbability);
 
     /**
-     * 获取模型训练数据
+     * 批量更新风险信息（一条 UPDATE ... CASE 更新整块）
      */
-    List<LearningFeatures> selectTrainingData(@Param("limit") Integer limit);
+    int batchUpdateRiskInfo(@Param("list") List<LearningFeatures> list);
+
+    /**
+     * 获取全部模型训练数据（按 id 升序；抽样走 TrainingSampleService）
+     */
+    List<LearningFeatures> selectTrainingData();
+
+    /**
+     * 按 id 顺序流式读取全部模型训练数据（必须在事务内遍历）
+     */
+    Cursor<LearningFeatures> streamTrainingData();
+
+    /**
+     * 主键范围：minId / maxId（空表时都为 null）
+     */
+    Map<String, Object> selectIdRange();
+
+    /**
+     * 读取 [fromId, toId) 范围内的训练数据（按 id 升序）
+     */
+    List<LearningFeatures> selectTrainingRange(@Param("fromId") long fromId, @Param("toId") long toId);
 
     /**
      * 删除指定日期之前的特征记录
@@ -131,6 +190,30 @@ public interface LearningFeaturesMapper {
      */
     List<LearningFeatures> calculateFeaturesFromBehavior(@Param("days") Integer days);
 
+    /**
+     * 只重算指定 (学生, 课程, 日期) 的特征（增量计算用）
+     */
+    List<LearningFeatures> calculateFeaturesForKeys(@Param("keys") List<BehaviorChange> keys);
+
+    /**
+     * 实时特征 upsert：没有行时插入整行；已有行的当天累计量和 student_behavior 的结果取较大值，
+     * 作业均分/质量分、迟交次数、距上次登录天数、互动水平按事件汇总更新
+     */
+    int upsertRealtimeFeatures(@Param("list") List<LearningFeatures> list);
+
+    /**
+     * 按 (学生, 课程, 日期) 取打分所需的列
+     */
+    List<LearningFeatures> selectScoringByKeys(@Param("keys") List<LearningFeatures> keys);
+
+    /**
+     * 高水位 (lastTime, lastId) 之后、upperTime 之前变更过的 student_behavior 行
+     */
+    List<BehaviorChange> selectChangedBehavior(@Param("lastTime") LocalDateTime lastTime,
+                                               @Param("lastId") Long lastId,
+                                               @Param("upperTime") LocalDateTime upperTime,
+                                               @Param("limit") Integer limit);
+
     /**
      * 删除指定学生、课程、日期的重复特征记录
      */
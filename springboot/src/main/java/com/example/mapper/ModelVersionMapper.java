@@ -45,6 +45,11 @@ public interface ModelVersionMapper {
      */
     ModelVersion selectActiveModel();
 
+    /**
+     * 只取激活模型的 id 和 updated_time（模型注册表比对版本戳用）
+     */
+    ModelVersion selectActiveStamp();
+
     /**
      * 获取最新的模型版本
      */
@@ -62,6 +67,12 @@ public interface ModelVersionMapper {
     int updateActiveStatus(@Param("id") Integer id,
                            @Param("isActive") Boolean isActive);
 
+    /**
+     * 激活模型并标记为已部署（is_active=1、status=DEPLOYED、部署时间、updated_time）
+     */
+    int markDeployed(@Param("id") Integer id,
+                     @Param("deployedTime") String deployedTime);
+
     /**
      * 取消所有模型的激活状态
      */
@@ -0,0 +1,87 @@
+package com.example.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预警日汇总表 risk_alert_daily：按 (日期, 等级, 类型, 状态) 计数
+ * 维度为 NULL 的预警记成空串，主键才能唯一
+ */
+@Mapper
+public interface RiskAlertDailyMapper {
+
+    @Update("CREATE TABLE IF NOT EXISTS risk_alert_daily (" +
+            "    stat_date DATE NOT NULL COMMENT '预警日期（alert_time 的日期部分）'," +
+            "    alert_level VARCHAR(20) NOT NULL DEFAULT '' COMMENT '预警等级'," +
+            "    alert_type VARCHAR(30) NOT NULL DEFAULT '' COMMENT '预警类型'," +
+            "    status VARCHAR(20) NOT NULL DEFAULT '' COMMENT '处理状态'," +
+            "    alert_count INT NOT NULL DEFAULT 0 COMMENT '预警数量'," +
+            "    updated_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'," +
+            "    PRIMARY KEY (stat_date, alert_level, alert_type, status)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='预警日汇总表'")
+    void createTableIfNotExists();
+
+    /**
+     * 重建汇总按 alert_time 范围扫描，老库没有这个索引时启动补上
+     * （已存在会报错，调用方忽略即可）
+     */
+    @Update("ALTER TABLE risk_alerts ADD INDEX idx_alert_time (alert_time)")
+    void addAlertTimeIndex();
+
+    /**
+     * 增量：某个格子加减 delta（不会减到负数）
+     */
+    @Insert("INSERT INTO risk_alert_daily (stat_date, alert_level, alert_type, status, alert_count) " +
+            "VALUES (#{statDate}, #{alertLevel}, #{alertType}, #{status}, GREATEST(#{delta}, 0)) " +
+            "ON DUPLICATE KEY UPDATE alert_count = GREATEST(alert_count + #{delta}, 0)")
+    int applyDelta(@Param("statDate") LocalDate statDate,
+                   @Param("alertLevel") String alertLevel,
+                   @Param("alertType") String alertType,
+                   @Param("status") String status,
+                   @Param("delta") int delta);
+
+    @Delete("DELETE FROM risk_alert_daily WHERE stat_date >= #{fromDate}")
+    int deleteFrom(@Param("fromDate") LocalDate fromDate);
+
+    /**
+     * 从 risk_alerts 重新汇总 fromDate 及之后的数据
+     * alert_time 是字符串（yyyy-MM-dd HH:mm:ss 或 ISO 格式），按字典序比较即可走 idx_alert_time
+     * 格子已存在（删除后并发的增量先插进来）时直接用重新汇总的数覆盖
+     */
+    @Insert("INSERT INTO risk_alert_daily (stat_date, alert_level, alert_type, status, alert_count) " +
+            "SELECT DATE(alert_time), IFNULL(alert_level, ''), IFNULL(alert_type, ''), IFNULL(status, ''), COUNT(*) " +
+            "FROM risk_alerts " +
+            "WHERE alert_time >= #{fromDate} AND DATE(alert_time) IS NOT NULL " +
+            "GROUP BY DATE(alert_time), IFNULL(alert_level, ''), IFNULL(alert_type, ''), IFNULL(status, '') " +
+            "ON DUPLICATE KEY UPDATE alert_count = VALUES(alert_count)")
+    int rebuildFrom(@Param("fromDate") String fromDate);
+
+    @Select("SELECT COUNT(*) FROM risk_alert_daily")
+    int countRows();
+
+    /**
+     * 每日预警总数（只返回有数据的日期）
+     */
+    @Select("SELECT stat_date AS date, SUM(alert_count) AS count FROM risk_alert_daily " +
+            "WHERE stat_date >= #{fromDate} GROUP BY stat_date ORDER BY stat_date")
+    List<Map<String, Object>> sumByDate(@Param("fromDate") LocalDate fromDate);
+
+    @Select("SELECT alert_level, SUM(alert_count) AS count FROM risk_alert_daily " +
+            "WHERE stat_date >= #{fromDate} GROUP BY alert_level")
+    List<Map<String, Object>> sumByLevel(@Param("fromDate") LocalDate fromDate);
+
+    @Select("SELECT alert_type, SUM(alert_count) AS count FROM risk_alert_daily " +
+            "WHERE stat_date >= #{fromDate} GROUP BY alert_type")
+    List<Map<String, Object>> sumByType(@Param("fromDate") LocalDate fromDate);
+
+    @Select("SELECT IFNULL(SUM(alert_count), 0) FROM risk_alert_daily WHERE stat_date = #{statDate}")
+    int sumForDate(@Param("statDate") LocalDate statDate);
+}
@@ -17,6 +17,16 @@ public interface RiskAlertMapper {
      */
     int insert(RiskAlert alert);
 
+    /**
+     * 批量新增预警记录（一条多行 INSERT）
+     */
+    int batchInsert(@Param("list") List<RiskAlert> list);
+
+    /**
+     * 每个 (学生, 课程, 类型) 未结束的预警数和最近一条的预警时间，预警生成去重用
+     */
+    List<Map<String, Object>> selectAlertKeyStates(@Param("courseId") Integer courseId);
+
     /**
      * 删除预警记录
      */
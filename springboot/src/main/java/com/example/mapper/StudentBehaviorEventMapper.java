@@ -1,9 +1,12 @@
 package com.example.mapper;
 
+import com.example.entity.StudentBehaviorEvent;
 import org.apache.ibatis.annotations.*;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface StudentBehaviorEventMapper {
@@ -29,6 +32,25 @@ public interface StudentBehaviorEventMapper {
                     @Param("behaviorExtra") String behaviorExtra,
                     @Param("behaviorTime") LocalDateTime behaviorTime);
 
+    /**
+     * 多行插入（异步写入管道攒批后一次提交）
+     */
+    @Insert("""
+    <script>
+    INSERT INTO student_behavior_event
+    (student_id, course_id, behavior_type, related_id, score, is_late, attempt_no, behavior_value, behavior_extra, behavior_time)
+    VALUES
+    <foreach collection="list" item="e" separator=",">
+    (#{e.studentId}, #{e.courseId}, #{e.behaviorType}, #{e.relatedId}, #{e.score}, #{e.isLate}, #{e.attemptNo}, #{e.behaviorValue},
+     CASE
+       WHEN #{e.behaviorExtra} IS NULL OR #{e.behaviorExtra} = '' THEN NULL
+       ELSE CAST(#{e.behaviorExtra} AS JSON)
+     END, #{e.behaviorTime})
+    </foreach>
+    </script>
+    """)
+    int insertEventBatch(@Param("list") List<StudentBehaviorEvent> list);
+
     @Select("""
     SELECT COUNT(1)
     FROM student_behavior_event
@@ -43,13 +65,14 @@ public interface StudentBehaviorEventMapper {
 
     /**
      * 你原来就有：从某个时间开始累计观看秒数（保留，后续也可能用）
+     * 压缩后的 VIDEO_SESSION 行 behavior_value 是整段会话的秒数，一起累加
      */
     @Select("""
         SELECT COALESCE(SUM(behavior_value), 0)
         FROM student_behavior_event
         WHERE student_id = #{studentId}
           AND course_id = #{courseId}
-          AND behavior_type = 'VIDEO_PROGRESS'
+          AND behavior_type IN ('VIDEO_PROGRESS', 'VIDEO_SESSION')
           AND behavior_time >= #{fromTime}
         """)
     Double sumWatchSecondsFrom(@Param("studentId") Integer studentId,
@@ -59,14 +82,17 @@ public interface StudentBehaviorEventMapper {
     /**
      * ✅ 新增：当天累计观看秒数（用于完成判定）
      * 注意：这里返回 Integer，和 Service 里的 int watchedSec 对齐
+     * 时间条件写成 [date, date + 1 天) 区间：走 idx_student_course_time，并且只扫当月分区
+     * VIDEO_SESSION 会话在天边界处切开，按天求和和压缩前一致
      */
     @Select("""
         SELECT COALESCE(SUM(behavior_value), 0)
         FROM student_behavior_event
         WHERE student_id = #{studentId}
           AND course_id = #{courseId}
-          AND behavior_type = 'VIDEO_PROGRESS'
-          AND DATE(behavior_time) = #{date}
+          AND behavior_type IN ('VIDEO_PROGRESS', 'VIDEO_SESSION')
+          AND behavior_time >= #{date}
+          AND behavior_time < DATE_ADD(#{date}, INTERVAL 1 DAY)
         """)
     Integer sumVideoSeconds(@Param("studentId") Integer studentId,
                             @Param("courseId") Integer courseId,
@@ -74,16 +100,101 @@ public interface StudentBehaviorEventMapper {
 
     /**
      * ✅ 新增：当天是否已经写入 VIDEO_COMPLETE（幂等）
+     * 同上，用区间条件，找到一行就返回
      */
     @Select("""
-        SELECT (COUNT(1) > 0)
-        FROM student_behavior_event
-        WHERE student_id = #{studentId}
-          AND course_id = #{courseId}
-          AND behavior_type = 'VIDEO_COMPLETE'
-          AND DATE(behavior_time) = #{date}
+        SELECT EXISTS (
+          SELECT 1
+          FROM student_behavior_event
+          WHERE student_id = #{studentId}
+            AND course_id = #{courseId}
+            AND behavior_type = 'VIDEO_COMPLETE'
+            AND behavior_time >= #{date}
+            AND behavior_time < DATE_ADD(#{date}, INTERVAL 1 DAY)
+        )
         """)
     Boolean existsCompleteEvent(@Param("studentId") Integer studentId,
                                 @Param("courseId") Integer courseId,
                                 @Param("date") LocalDate date);
+
+    /**
+     * 某学生某课程某一天的事件汇总（实时特征累加器首次加载用）
+     * 时间条件写成 [from, to) 区间，走 idx_student_course_time
+     * VIDEO_SESSION 的 attempt_no 是合并掉的心跳数，event_count 按心跳数计，压缩前后一致
+     */
+    @Select("""
+        SELECT
+          SUM(behavior_type = 'LOGIN') AS login_count,
+          SUM(CASE behavior_type
+                WHEN 'VIDEO_PROGRESS' THEN IFNULL(behavior_value, 0)
+                WHEN 'VIDEO_SESSION' THEN IFNULL(behavior_value, 0)
+                WHEN 'VIDEO_WATCH' THEN IFNULL(attempt_no, 0) * 60
+                ELSE 0 END) AS video_seconds,
+          SUM(behavior_type = 'VIDEO_COMPLETE') AS video_complete_count,
+          GROUP_CONCAT(DISTINCT CASE WHEN behavior_type = 'HOMEWORK_SUBMIT' THEN related_id END) AS homework_ids,
+          SUM(CASE WHEN behavior_type = 'HOMEWORK_SUBMIT' THEN IFNULL(score, 0) ELSE 0 END) AS homework_score_sum,
+          SUM(behavior_type = 'HOMEWORK_SUBMIT' AND score IS NOT NULL) AS homework_score_count,
+          SUM(behavior_type = 'HOMEWORK_SUBMIT' AND is_late = 1) AS homework_late_count,
+          SUM(CASE WHEN behavior_type = 'VIDEO_SESSION' THEN IFNULL(attempt_no, 1) ELSE 1 END) AS event_count
+        FROM student_behavior_event
+        WHERE student_id = #{studentId}
+          AND course_id = #{courseId}
+          AND behavior_time >= #{from}
+          AND behavior_time < #{to}
+        """)
+    Map<String, Object> summarizeDay(@Param("studentId") Integer studentId,
+                                     @Param("courseId") Integer courseId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    /**
+     * 心跳压缩：早于 before 还有 VIDEO_PROGRESS 的 (学生, 课程)，走 idx_type_time
+     */
+    @Select("""
+        SELECT student_id AS studentId, course_id AS courseId
+        FROM student_behavior_event
+        WHERE behavior_type = 'VIDEO_PROGRESS'
+          AND behavior_time < #{before}
+        GROUP BY student_id, course_id
+        LIMIT #{limit}
+        """)
+    List<Map<String, Object>> selectHeartbeatPairs(@Param("before") LocalDateTime before,
+                                                   @Param("limit") int limit);
+
+    /**
+     * 心跳压缩：某学生某课程早于 before 的心跳，按时间升序
+     */
+    @Select("""
+        SELECT id, student_id AS studentId, course_id AS courseId, behavior_type AS behaviorType,
+               attempt_no AS attemptNo, behavior_value AS behaviorValue,
+               CAST(behavior_extra AS CHAR) AS behaviorExtra, behavior_time AS behaviorTime
+        FROM student_behavior_event
+        WHERE student_id = #{studentId}
+          AND course_id = #{courseId}
+          AND behavior_type = 'VIDEO_PROGRESS'
+          AND behavior_time < #{before}
+        ORDER BY behavior_time, id
+        LIMIT #{limit}
+        """)
+    List<StudentBehaviorEvent> selectHeartbeats(@Param("studentId") Integer studentId,
+                                                @Param("courseId") Integer courseId,
+                                                @Param("before") LocalDateTime before,
+                                                @Param("limit") int limit);
+
+    /**
+     * 心跳压缩：删除已合并的心跳（带上时间范围，只扫涉及的分区）
+     */
+    @Delete("""
+        <script>
+        DELETE FROM student_behavior_event
+        WHERE behavior_type = 'VIDEO_PROGRESS'
+          AND behavior_time &gt;= #{from}
+          AND behavior_time &lt;= #{to}
+          AND id IN
+          <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+        </script>
+        """)
+    int deleteHeartbeats(@Param("ids") List<Integer> ids,
+                         @Param("from") LocalDateTime from,
+                         @Param("to") LocalDateTime to);
 }
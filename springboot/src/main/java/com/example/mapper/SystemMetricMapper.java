@@ -1,7 +1,9 @@
 package com.example.mapper;
 
+import com.example.entity.SystemMetric;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 import java.time.LocalDateTime;
@@ -20,6 +22,7 @@ public interface SystemMetricMapper {
             "    task_id VARCHAR(100) NOT NULL COMMENT '任务ID'," +
             "    execution_time BIGINT NOT NULL COMMENT '执行耗时(ms)'," +
             "    status VARCHAR(20) NOT NULL COMMENT '执行状态: SUCCESS/FAILED/NO_DATA'," +
+            "    metric_value DOUBLE NULL COMMENT '指标数值（如吞吐量 rows/s）'," +
             "    created_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间'," +
             "    INDEX idx_metric_name (metric_name)," +
             "    INDEX idx_created_time (created_time)," +
@@ -36,6 +39,33 @@ public interface SystemMetricMapper {
     void insertMetric(String metricName, String taskId, long executionTime,
                       String status, LocalDateTime createdTime);
 
+    /**
+     * 老库的 system_metrics 没有 metric_value 列，启动时补上（已存在会报错，调用方忽略即可）
+     */
+    @Update("ALTER TABLE system_metrics ADD COLUMN metric_value DOUBLE NULL COMMENT '指标数值（如吞吐量 rows/s）' AFTER status")
+    void addMetricValueColumn();
+
+    /**
+     * 插入带数值的指标（如批量打分吞吐量）
+     */
+    @Insert("INSERT INTO system_metrics " +
+            "(metric_name, task_id, execution_time, status, metric_value, created_time) " +
+            "VALUES (#{metricName}, #{taskId}, #{executionTime}, #{status}, #{metricValue}, #{createdTime})")
+    void insertMetricValue(String metricName, String taskId, long executionTime,
+                           String status, Double metricValue, LocalDateTime createdTime);
+
+    /**
+     * 多行插入（MetricsSink 攒批后一次提交）
+     */
+    @Insert("<script>" +
+            "INSERT INTO system_metrics " +
+            "(metric_name, task_id, execution_time, status, metric_value, created_time) VALUES " +
+            "<foreach collection='list' item='m' separator=','>" +
+            "(#{m.metricName}, #{m.taskId}, #{m.executionTime}, #{m.status}, #{m.metricValue}, #{m.createdTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertMetricBatch(@Param("list") List<SystemMetric> list);
+
     /**
      * 查询最近24小时的任务执行情况
      */
@@ -2,7 +2,9 @@ package com.example.scheduler;
 
 import com.example.algorithm.RiskPredictor;
 import com.example.mapper.SystemMetricMapper;
-import com.example.service.LearningFeaturesService;
+import com.example.service.alert.RiskAlertEngine;
+import com.example.service.feature.IncrementalFeatureEngine;
+import com.example.service.metrics.MetricsSink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +14,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -23,15 +26,21 @@ public class RiskScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(RiskScheduler.class);
 
-    @Autowired
-    private LearningFeaturesService learningFeaturesService;
-
     @Autowired
     private RiskPredictor riskPredictor;
 
     @Autowired(required = false)
     private SystemMetricMapper systemMetricMapper;
 
+    @Autowired
+    private IncrementalFeatureEngine incrementalFeatureEngine;
+
+    @Autowired
+    private MetricsSink metricsSink;
+
+    @Autowired
+    private RiskAlertEngine riskAlertEngine;
+
     private final AtomicInteger concurrentTasks = new AtomicInteger(0);
 
     /**
@@ -54,10 +63,9 @@ public class RiskScheduler {
 
     /**
      * 🚨 风险预警扫描任务 - 每30分钟执行
-     * （目前只是扫描高风险特征数量，后续再加：自动生成 risk_alerts）
+     * 先刷新风险字段，再由 RiskAlertEngine 生成 risk_alerts（引擎按批提交，这里不包大事务）
      */
     @Scheduled(cron = "0 0/30 * * * ?")
-    @Transactional(rollbackFor = Exception.class)
     public void scanAndGenerateRiskAlerts() {
         if (concurrentTasks.get() >= 3) {
             log.warn("⚠️ 并发任务过多，跳过本次风险扫描");
@@ -75,44 +83,42 @@ public class RiskScheduler {
             int refreshed = riskPredictor.refreshRecentLearningFeaturesRisk(7);
             log.info("🔧 [定时任务-{}] 已刷新最近7天风险字段 {} 条", taskId, refreshed);
 
-            // 再扫描高风险特征（risk_probability >= 0.7）
-            var highRiskFeatures = learningFeaturesService.getHighRiskFeatures(0.7, 50);
+            // 再按阈值生成预警（已有未结束预警的自动跳过）
+            Map<String, Object> generated = riskAlertEngine.generate(null, null);
 
-            int highRiskCount = highRiskFeatures != null ? highRiskFeatures.size() : 0;
+            int generatedCount = ((Number) generated.get("generated")).intValue();
             long costTime = System.currentTimeMillis() - startTime;
 
-            log.info("✅ [定时任务-{}] 风险扫描完成，高风险特征 {} 条，耗时 {}ms",
-                    taskId, highRiskCount, costTime);
+            log.info("✅ [定时任务-{}] 风险扫描完成，新增预警 {} 条，抑制 {} 条，耗时 {}ms",
+                    taskId, generatedCount, generated.get("suppressed"), costTime);
 
-            if (systemMetricMapper != null) {
-                systemMetricMapper.insertMetric(
-                        "risk_scan",
-                        taskId,
-                        costTime,
-                        highRiskCount > 0 ? "SUCCESS" : "NO_DATA",
-                        LocalDateTime.now()
-                );
-            }
+            metricsSink.record("risk_scan", taskId, costTime, generatedCount > 0 ? "SUCCESS" : "NO_DATA");
 
         } catch (Exception e) {
             log.error("❌ [定时任务-{}] 风险扫描失败: {}", taskId, e.getMessage(), e);
 
-            if (systemMetricMapper != null) {
-                systemMetricMapper.insertMetric(
-                        "risk_scan",
-                        taskId,
-                        System.currentTimeMillis() - startTime,
-                        "FAILED",
-                        LocalDateTime.now()
-                );
-            }
+            metricsSink.record("risk_scan", taskId, System.currentTimeMillis() - startTime, "FAILED");
         } finally {
             concurrentTasks.decrementAndGet();
         }
     }
 
+    /**
+     * ⚡ 增量特征计算 - 默认每5分钟执行
+     * 只重算上次之后 student_behavior 有变更的 (学生, 课程, 日期)
+     */
+    @Scheduled(cron = "${app.features.incremental-cron:0 0/5 * * * ?}")
+    public void calculateIncrementalFeatures() {
+        try {
+            incrementalFeatureEngine.runIncremental();
+        } catch (Exception e) {
+            log.error("❌ 增量特征计算失败: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * 📊 学习特征计算任务 - 每天凌晨2点执行
+     * 特征本身由增量任务维护，这里先补一轮增量，再统一刷新风险字段
      */
     @Scheduled(cron = "0 0 2 * * ?")
     @Transactional(rollbackFor = Exception.class)
@@ -123,8 +129,8 @@ public class RiskScheduler {
         log.info("🔄 [定时任务-{}] 开始计算学习特征 - {}", taskId, LocalDateTime.now());
 
         try {
-            // ① 从 student_behavior 生成/更新 learning_features
-            int generated = learningFeaturesService.batchCalculateFeatures(7);
+            // ① 从 student_behavior 增量生成/更新 learning_features（全量重算仍可通过接口手动触发）
+            int generated = incrementalFeatureEngine.runIncremental();
             log.info("✅ [定时任务-{}] 特征生成完成，本次生成/更新 {} 条", taskId, generated);
 
             // ② 刷新风险字段
@@ -133,15 +139,8 @@ public class RiskScheduler {
 
             long costTime = System.currentTimeMillis() - startTime;
 
-            if (systemMetricMapper != null) {
-                systemMetricMapper.insertMetric(
-                        "feature_calculation",
-                        taskId,
-                        costTime,
-                        (generated > 0 || refreshed > 0) ? "SUCCESS" : "NO_DATA",
-                        LocalDateTime.now()
-                );
-            }
+            metricsSink.record("feature_calculation", taskId, costTime,
+                    (generated > 0 || refreshed > 0) ? "SUCCESS" : "NO_DATA");
 
         } catch (Exception e) {
             log.error("❌ [定时任务-{}] 学习特征计算失败: {}", taskId, e.getMessage(), e);
@@ -162,13 +161,7 @@ public class RiskScheduler {
                 int cleanedMetrics = systemMetricMapper.cleanupOldMetrics();
                 log.info("🧹 清理 system_metrics: {} 条", cleanedMetrics);
 
-                systemMetricMapper.insertMetric(
-                        "data_cleanup",
-                        taskId,
-                        0L,
-                        "SUCCESS",
-                        LocalDateTime.now()
-                );
+                metricsSink.record("data_cleanup", taskId, 0L, "SUCCESS");
             } else {
                 log.warn("⚠️ systemMetricMapper 未注入，跳过指标清理/记录");
             }
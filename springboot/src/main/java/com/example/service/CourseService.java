@@ -4,6 +4,7 @@ import cn.hutool.core.util.ObjectUtil;
 import com.example.entity.Course;
 import com.example.exception.CustomException;
 import com.example.mapper.CourseMapper;
+import com.example.service.counter.StatCounterService;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import jakarta.annotation.Resource;
@@ -18,6 +19,9 @@ public class CourseService {
     @Resource
     private CourseMapper courseMapper;
 
+    @Resource
+    private StatCounterService statCounterService;
+
     /**
      * 新增课程
      */
@@ -170,24 +174,21 @@ public class CourseService {
      * 增加课程学生人数
      */
     public void incrementStudentCount(Integer id) {
-        Course course = courseMapper.selectById(id);
-        if (ObjectUtil.isNull(course)) {
-            throw new CustomException("课程不存在");
+        if (id == null) {
+            throw new CustomException("课程ID不能为空");
         }
-        int newCount = course.getStudentCount() + 1;
-        courseMapper.updateStudentCount(id, newCount);
+        // 内存累加，定时 student_count = student_count + ? 回写
+        statCounterService.courseStudentAdded(id);
     }
 
     /**
      * 增加课程作业数量
      */
     public void incrementHomeworkCount(Integer id) {
-        Course course = courseMapper.selectById(id);
-        if (ObjectUtil.isNull(course)) {
-            throw new CustomException("课程不存在");
+        if (id == null) {
+            throw new CustomException("课程ID不能为空");
         }
-        int newCount = course.getHomeworkCount() + 1;
-        courseMapper.updateHomeworkCount(id, newCount);
+        statCounterService.courseHomeworkAdded(id);
     }
 
     /**
@@ -1,7 +1,8 @@
 package com.example.service;
 
+import com.example.service.cache.DashboardCache;
+import com.example.service.rollup.RiskAlertRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -12,35 +13,44 @@ import java.util.*;
 public class DashboardService {
 
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private RiskAlertRollupService riskAlertRollupService;
+
+    @Autowired
+    private DashboardCache dashboardCache;
 
     /**
-     * 获取预警趋势数据
+     * 获取预警趋势数据（走看板缓存，key 带天数和当天日期）
      */
     public Map<String, Object> getWarningTrendData(int days) {
+        return dashboardCache.get("warning-trend", "warning-trend:" + days + ":" + LocalDate.now(),
+                () -> loadWarningTrendData(days));
+    }
+
+    /**
+     * 获取Dashboard总览数据（走看板缓存，key 带当天日期）
+     */
+    public Map<String, Object> getDashboardOverview() {
+        return dashboardCache.get("overview", "overview:" + LocalDate.now(), this::loadDashboardOverview);
+    }
+
+    /**
+     * 查询预警趋势数据（读 risk_alert_daily，每天一行）
+     */
+    private Map<String, Object> loadWarningTrendData(int days) {
         Map<String, Object> result = new HashMap<>();
 
         try {
-            // 1. 查询数据库获取趋势数据
-            String sql = """
-                SELECT 
-                    DATE(alert_time) as date,
-                    COUNT(*) as count
-                FROM risk_alerts 
-                WHERE alert_time >= DATE_SUB(NOW(), INTERVAL ? DAY)
-                GROUP BY DATE(alert_time)
-                ORDER BY date
-                """;
-
-            List<Map<String, Object>> dbData = jdbcTemplate.queryForList(sql, days);
+            LocalDate endDate = LocalDate.now();
+            LocalDate startDate = endDate.minusDays(days - 1);
+
+            // 1. 查询汇总表获取趋势数据
+            List<Map<String, Object>> dbData = riskAlertRollupService.sumByDate(startDate);
 
             // 2. 处理数据 - 确保连续日期
             List<String> dates = new ArrayList<>();
             List<Integer> counts = new ArrayList<>();
             int total = 0;
 
-            LocalDate endDate = LocalDate.now();
-            LocalDate startDate = endDate.minusDays(days - 1);
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd");
 
             // 创建日期映射
@@ -92,51 +102,29 @@ public class DashboardService {
     }
 
     /**
-     * 获取Dashboard总览数据
+     * 查询Dashboard总览数据（读 risk_alert_daily）
      */
-    public Map<String, Object> getDashboardOverview() {
+    private Map<String, Object> loadDashboardOverview() {
         Map<String, Object> result = new HashMap<>();
 
         try {
-            // 1. 风险级别统计
-            String riskSql = """
-                SELECT 
-                    alert_level,
-                    COUNT(*) as count
-                FROM risk_alerts
-                WHERE alert_time >= DATE_SUB(NOW(), INTERVAL 7 DAY)
-                GROUP BY alert_level
-                """;
-
-            List<Map<String, Object>> riskData = jdbcTemplate.queryForList(riskSql);
+            LocalDate today = LocalDate.now();
+
+            // 1. 风险级别统计（近7天）
+            List<Map<String, Object>> riskData = riskAlertRollupService.sumByLevel(today.minusDays(7));
 
             Map<String, Integer> riskStats = new HashMap<>();
             for (Map<String, Object> row : riskData) {
                 String level = (String) row.get("alert_level");
                 Integer count = ((Number) row.get("count")).intValue();
-                riskStats.put(level.toLowerCase() + "Risk", count);
+                riskStats.put(level.toLowerCase(), count);
             }
 
             // 2. 今日预警数量
-            String todaySql = """
-                SELECT COUNT(*) as count
-                FROM risk_alerts
-                WHERE DATE(alert_time) = CURDATE()
-                """;
-
-            Integer todayCount = jdbcTemplate.queryForObject(todaySql, Integer.class);
-
-            // 3. 预警类型分布
-            String typeSql = """
-                SELECT 
-                    alert_type,
-                    COUNT(*) as count
-                FROM risk_alerts
-                WHERE alert_time >= DATE_SUB(NOW(), INTERVAL 30 DAY)
-                GROUP BY alert_type
-                """;
-
-            List<Map<String, Object>> typeData = jdbcTemplate.queryForList(typeSql);
+            Integer todayCount = riskAlertRollupService.sumForDate(today);
+
+            // 3. 预警类型分布（近30天）
+            List<Map<String, Object>> typeData = riskAlertRollupService.sumByType(today.minusDays(30));
             List<Map<String, Object>> typeStats = new ArrayList<>();
             for (Map<String, Object> row : typeData) {
                 typeStats.add(Map.of(
@@ -1,7 +1,11 @@
 package com.example.service;
 
+import com.example.entity.ExamAttempt;
+import com.example.entity.ExamAttemptAnswer;
 import com.example.exception.CustomException;
 import com.example.mapper.*;
+import com.example.service.cache.ExamAnswerKeyCache;
+import com.example.service.feature.RealtimeFeatureUpdater;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +21,8 @@ public class ExamService {
     @Resource private ExamAttemptMapper examAttemptMapper;
     @Resource private ExamAttemptAnswerMapper examAttemptAnswerMapper;
     @Resource private StudentBehaviorEventMapper studentBehaviorEventMapper;
+    @Resource private RealtimeFeatureUpdater realtimeFeatureUpdater;
+    @Resource private ExamAnswerKeyCache examAnswerKeyCache;
 
     // ===== DTO =====
     public static class SubmitDTO {
@@ -42,37 +48,56 @@ public class ExamService {
     // ===== 提交 =====
     @Transactional(rollbackFor = Exception.class)
     public Map<String,Object> submit(SubmitDTO dto){
+        validate(dto);
+        return grade(dto, LocalDateTime.now());
+    }
+
+    public void validate(SubmitDTO dto){
         if(dto==null || dto.studentId==null || dto.courseId==null || dto.examId==null)
             throw new CustomException("参数不完整");
+    }
 
+    /**
+     * 判分并写入作答记录、每题答案和交卷事件
+     * 不单独开事务，跟随调用方：同步交卷一份一个事务，异步判分一批答卷共用一个事务
+     * @param submitTime 学生交卷的时间（异步判分时是收卷时间，不是判分时间）
+     */
+    public Map<String,Object> grade(SubmitDTO dto, LocalDateTime submitTime){
         // 第几次考试
         Integer attemptNo = examAttemptMapper.countByStudent(dto.examId, dto.studentId) + 1;
 
-        // 拉定卷
-        List<Map<String,Object>> paper = examQuestionMapper.selectPaper(dto.examId);
+        // 答案走缓存，判分在内存里完成
+        ExamAnswerKeyCache.AnswerKey key = examAnswerKeyCache.get(dto.examId);
+        Map<String, String> answers = dto.answers == null ? Collections.emptyMap() : dto.answers;
+        List<ExamAttemptAnswer> rows = new ArrayList<>(key.questionCount());
         double total = 0d;
-
-        // 新 attempt
-        examAttemptMapper.insertAttempt(dto.examId, dto.courseId, dto.studentId,
-                LocalDateTime.now(), "SUBMITTED");
-
-        Integer attemptId = examAttemptMapper.lastId();
-
-        for(Map<String,Object> q : paper){
-            Integer qid = (Integer) q.get("question_id");
-            Double score = ((Number) q.get("score")).doubleValue();
-            String correct = (String) q.get("correct_option");
-            String chosen = dto.answers.get(String.valueOf(qid));
-            boolean ok = Objects.equals(correct, chosen);
-            double got = ok ? score : 0d;
+        for (int i = 0; i < key.questionCount(); i++) {
+            String chosen = answers.get(key.answerKey(i));
+            boolean ok = key.isCorrect(i, chosen);
+            double got = ok ? key.score(i) : 0d;
             total += got;
+            rows.add(new ExamAttemptAnswer(key.questionId(i), chosen, ok ? 1 : 0, got));
+        }
 
-            examAttemptAnswerMapper.insert(attemptId, qid, chosen, ok?1:0, got);
+        // 新 attempt，自增 id 直接回填
+        ExamAttempt attempt = new ExamAttempt();
+        attempt.setExamId(dto.examId);
+        attempt.setCourseId(dto.courseId);
+        attempt.setStudentId(dto.studentId);
+        attempt.setStartTime(submitTime);
+        attempt.setStatus("SUBMITTED");
+        examAttemptMapper.insertAttempt(attempt);
+        Integer attemptId = attempt.getId();
+
+        // 整张卷子的答案一条多行 INSERT
+        if (!rows.isEmpty()) {
+            examAttemptAnswerMapper.insertBatch(attemptId, rows);
         }
 
-        examAttemptMapper.finish(attemptId, total);
+        examAttemptMapper.finish(attemptId, total, submitTime);
 
         // 写事件（事实源）
+        realtimeFeatureUpdater.prepare(dto.studentId, dto.courseId, submitTime);
         studentBehaviorEventMapper.insertEvent(
                 dto.studentId,
                 dto.courseId,
@@ -83,10 +108,13 @@ public class ExamService {
                 attemptNo,
                 null,
                 null,
-                LocalDateTime.now()
+                submitTime
         );
+        realtimeFeatureUpdater.afterWrite(dto.studentId, dto.courseId, "EXAM_SUBMIT", String.valueOf(dto.examId),
+                total, false, null, submitTime);
 
         Map<String,Object> r = new HashMap<>();
+        r.put("attemptId", attemptId);
         r.put("attemptNo", attemptNo);
         r.put("score", total);
         return r;
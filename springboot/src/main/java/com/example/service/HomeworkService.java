@@ -5,6 +5,7 @@ import com.example.controller.dto.HomeworkSubmitDTO;
 import com.example.entity.Homework;
 import com.example.exception.CustomException;
 import com.example.mapper.HomeworkMapper;
+import com.example.service.counter.StatCounterService;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import jakarta.annotation.Resource;
@@ -24,6 +25,9 @@ public class HomeworkService {
     @Resource
     private StudentBehaviorService studentBehaviorService;
 
+    @Resource
+    private StatCounterService statCounterService;
+
     @Resource
     private LearningFeaturesService learningFeaturesService;
 
@@ -152,39 +156,22 @@ public class HomeworkService {
      * 增加提交人数
      */
     public void incrementSubmitCount(Integer id) {
-        Homework homework = homeworkMapper.selectById(id);
-        if (ObjectUtil.isNull(homework)) {
-            throw new CustomException("作业不存在");
+        if (id == null) {
+            throw new CustomException("作业ID不能为空");
         }
-
-        int newSubmitCount = homework.getSubmitCount() + 1;
-        homeworkMapper.updateStatistics(id, newSubmitCount, homework.getGradedCount(),
-                homework.getAverageScore(), homework.getStatus());
+        // 内存累加，定时 submit_count = submit_count + ? 回写
+        statCounterService.homeworkSubmitted(id);
     }
 
     /**
      * 增加批改人数
      */
     public void incrementGradedCount(Integer id, Double score) {
-        Homework homework = homeworkMapper.selectById(id);
-        if (ObjectUtil.isNull(homework)) {
-            throw new CustomException("作业不存在");
+        if (id == null || score == null) {
+            throw new CustomException("作业ID和成绩不能为空");
         }
-
-        int newGradedCount = homework.getGradedCount() + 1;
-
-        // 计算新的平均分
-        double totalScore = homework.getAverageScore() * homework.getGradedCount() + score;
-        double newAverageScore = totalScore / newGradedCount;
-
-        // 如果所有提交的作业都已批改，更新状态为已批改
-        String newStatus = homework.getStatus();
-        if (newGradedCount >= homework.getSubmitCount()) {
-            newStatus = "已批改";
-        }
-
-        homeworkMapper.updateStatistics(id, homework.getSubmitCount(), newGradedCount,
-                newAverageScore, newStatus);
+        // 平均分、"已批改"状态在回写时由 SQL 按累加后的人数计算
+        statCounterService.homeworkGraded(id, score);
     }
 
     /**
@@ -316,9 +303,7 @@ public class HomeworkService {
             incrementGradedCount(dto.getHomeworkId(), dto.getScore());
         }
 
-        // 7️⃣ 触发特征更新（当天）
-        // 如果你还没实现 refreshTodayFeatures，会编译报错：可以先按我下面建议加一个空实现兜底
-        //learningFeaturesService.refreshTodayFeatures(dto.getStudentId(), dto.getCourseId());
+        // 7️⃣ 当天特征更新：recordHomeworkSubmit 提交后由 RealtimeFeatureUpdater 累加，几秒内写到 learning_features
     }
 
     /**
@@ -8,17 +8,24 @@ import com.example.exception.CustomException;
 import com.example.mapper.HomeworkMapper;
 import com.example.mapper.LearningFeaturesMapper;
 import com.example.mapper.StudentBehaviorMapper;
+import com.example.service.sampling.TrainingSampleService;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class LearningFeaturesService {
@@ -34,11 +41,23 @@ public class LearningFeaturesService {
     @Resource
     private HomeworkMapper homeworkMapper;
 
+    @Resource
+    private TrainingSampleService trainingSampleService;
+
     public List<LearningFeatures> selectRecentFeatures(Integer days) {
         if (days == null || days <= 0) days = 7;
         return learningFeaturesMapper.selectRecentFeatures(days);
     }
 
+    /**
+     * 分块读取最近N天特征：返回 id > lastId 的下一块（按 id 升序）
+     */
+    public List<LearningFeatures> selectRecentFeaturesChunk(Integer days, Integer lastId, Integer limit) {
+        if (days == null || days <= 0) days = 7;
+        if (lastId == null) lastId = 0;
+        return learningFeaturesMapper.selectRecentFeaturesChunk(days, lastId, limit);
+    }
+
     /**
      * ✅ 核心：刷新“当天”learning_features（由事件触发）
      * 目前先只做：作业提交率、作业均分、迟交次数、质量分（=均分）
@@ -209,6 +228,24 @@ public class LearningFeaturesService {
         return learningFeaturesMapper.selectByCourseId(courseId);
     }
 
+    /**
+     * 流式遍历课程特征：逐行回调，不把整门课的数据装进 List
+     * 游标依赖事务内的连接，所以遍历放在这里（只读事务）完成
+     * @return 遍历的行数
+     */
+    @Transactional(readOnly = true)
+    public int forEachByCourseId(Integer courseId, Consumer<LearningFeatures> action) {
+        try (Cursor<LearningFeatures> cursor = learningFeaturesMapper.streamByCourseId(courseId)) {
+            return drain(cursor, action);
+        } catch (IOException e) {
+            throw new CustomException("读取课程特征失败: " + e.getMessage());
+        }
+    }
+
+    public List<Integer> selectCourseIds() {
+        return learningFeaturesMapper.selectCourseIds();
+    }
+
     public List<LearningFeatures> selectByStudentAndCourse(Integer studentId, Integer courseId) {
         return learningFeaturesMapper.selectByStudentAndCourse(studentId, courseId);
     }
@@ -217,6 +254,23 @@ public class LearningFeaturesService {
         return learningFeaturesMapper.selectSummaryByStudent(studentId, courseId, startDate, endDate);
     }
 
+    /**
+     * 批量获取学生汇总：一条 IN (...) 分组查询，分块由调用方负责（RiskPredictor 按 summary-chunk-size 分块并发）
+     * courseId 为空时同一学生可能有多门课的汇总，取最近有特征数据的那门课（同一天按 course_id 最小）
+     * @return studentId -> 汇总（没有数据的学生不在结果里）
+     */
+    public Map<Integer, LearningFeatures> getStudentSummaries(Integer courseId, Collection<Integer> studentIds,
+                                                             String startDate, String endDate) {
+        Map<Integer, LearningFeatures> summaries = new HashMap<>();
+        if (ObjectUtil.isEmpty(studentIds)) return summaries;
+
+        // 结果按学生、最近特征日期倒序、课程排好，每个学生第一条即所需的那门课
+        for (LearningFeatures summary : learningFeaturesMapper.selectSummariesByStudents(courseId, studentIds, startDate, endDate)) {
+            summaries.putIfAbsent(summary.getStudentId(), summary);
+        }
+        return summaries;
+    }
+
     public void updateRiskInfo(Integer id, Double riskScore, String riskLevel, Double riskProbability) {
         LearningFeatures features = learningFeaturesMapper.selectById(id);
         if (ObjectUtil.isNull(features)) {
@@ -225,6 +279,14 @@ public class LearningFeaturesService {
         learningFeaturesMapper.updateRiskInfo(id, riskScore, riskLevel, riskProbability);
     }
 
+    /**
+     * 批量写回风险信息（每个元素只需要 id/riskScore/riskLevel/riskProbability）
+     */
+    public int batchUpdateRiskInfo(List<LearningFeatures> list) {
+        if (ObjectUtil.isEmpty(list)) return 0;
+        return learningFeaturesMapper.batchUpdateRiskInfo(list);
+    }
+
     public List<LearningFeatures> getHighRiskFeatures(Double threshold, Integer limit) {
         if (ObjectUtil.isEmpty(threshold)) threshold = 0.7;
         if (ObjectUtil.isEmpty(limit)) limit = 50;
@@ -252,8 +314,36 @@ public class LearningFeaturesService {
         learningFeaturesMapper.batchInsert(featuresList);
     }
 
+    /**
+     * 获取训练数据：指定 limit 时抽样，否则返回全部
+     */
     public List<LearningFeatures> getTrainingData(Integer limit) {
-        return learningFeaturesMapper.selectTrainingData(limit);
+        if (limit != null && limit > 0) {
+            return trainingSampleService.sample(limit, null, false);
+        }
+        return learningFeaturesMapper.selectTrainingData();
+    }
+
+    /**
+     * 流式遍历全部训练数据（不抽样）
+     * @return 遍历的行数
+     */
+    @Transactional(readOnly = true)
+    public int forEachTrainingSample(Consumer<LearningFeatures> action) {
+        try (Cursor<LearningFeatures> cursor = learningFeaturesMapper.streamTrainingData()) {
+            return drain(cursor, action);
+        } catch (IOException e) {
+            throw new CustomException("读取训练数据失败: " + e.getMessage());
+        }
+    }
+
+    private int drain(Cursor<LearningFeatures> cursor, Consumer<LearningFeatures> action) {
+        int count = 0;
+        for (LearningFeatures features : cursor) {
+            action.accept(features);
+            count++;
+        }
+        return count;
     }
 
     public double[] calculateFeatureVector(LearningFeatures features) {
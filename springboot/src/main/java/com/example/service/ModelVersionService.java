@@ -2,6 +2,8 @@ package com.example.service;
 
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjectUtil;
+import com.example.algorithm.ModelRegistry;
+import com.example.algorithm.ModelSnapshot;
 import com.example.entity.ModelVersion;
 import com.example.exception.CustomException;
 import com.example.mapper.ModelVersionMapper;
@@ -9,6 +11,9 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,6 +24,9 @@ public class ModelVersionService {
     @Resource
     private ModelVersionMapper modelVersionMapper;
 
+    @Resource
+    private ModelRegistry modelRegistry;
+
     /**
      * 新增模型版本
      */
@@ -143,10 +151,10 @@ public class ModelVersionService {
     }
 
     /**
-     * 获取当前激活的模型
+     * 获取当前激活的模型（读模型注册表的缓存，按版本戳定时和库里对齐）
      */
     public ModelVersion getActiveModel() {
-        ModelVersion modelVersion = modelVersionMapper.selectActiveModel();
+        ModelVersion modelVersion = modelRegistry.getActiveModel();
         if (ObjectUtil.isNull(modelVersion)) {
             throw new CustomException("没有激活的模型");
         }
@@ -155,23 +163,40 @@ public class ModelVersionService {
 
     /**
      * 激活指定模型
+     * 先校验权重能解析，事务提交后再整体切换模型注册表里的打分模型
      */
+    @Transactional(rollbackFor = Exception.class)
     public void activateModel(Integer id) {
         ModelVersion modelVersion = modelVersionMapper.selectById(id);
         if (ObjectUtil.isNull(modelVersion)) {
             throw new CustomException("模型版本不存在");
         }
 
+        ModelSnapshot snapshot;
+        try {
+            snapshot = modelRegistry.prepare(modelVersion);
+        } catch (IllegalArgumentException e) {
+            throw new CustomException("模型无法激活：" + e.getMessage());
+        }
+
         // 取消所有模型的激活状态
         modelVersionMapper.deactivateAllModels();
 
-        // 激活指定模型
-        modelVersionMapper.updateActiveStatus(id, true);
-
-        // 更新部署时间
-        modelVersion.setDeployedTime(LocalDateTime.now().toString());
-        modelVersion.setStatus("DEPLOYED");
-        modelVersionMapper.updateById(modelVersion);
+        // 激活指定模型并更新部署时间（只改这几列，不能用 updateById 把先前查出的 is_active=0 写回去）
+        modelVersionMapper.markDeployed(id, LocalDateTime.now().toString());
+
+        // 重新查一次拿到库里的 updated_time，作为注册表的版本戳
+        ModelVersion activated = modelVersionMapper.selectById(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    modelRegistry.activate(activated, snapshot);
+                }
+            });
+        } else {
+            modelRegistry.activate(activated, snapshot);
+        }
     }
 
     /**
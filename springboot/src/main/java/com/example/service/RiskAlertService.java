@@ -6,10 +6,12 @@ import cn.hutool.core.util.ObjectUtil;
 import com.example.entity.RiskAlert;
 import com.example.exception.CustomException;
 import com.example.mapper.RiskAlertMapper;
+import com.example.service.rollup.RiskAlertRollupService;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,9 +23,13 @@ public class RiskAlertService {
     @Resource
     private RiskAlertMapper riskAlertMapper;
 
+    @Resource
+    private RiskAlertRollupService riskAlertRollupService;
+
     /**
-     * 新增预警记录
+     * 新增预警记录（同一事务里更新预警日汇总）
      */
+    @Transactional(rollbackFor = Exception.class)
     public void add(RiskAlert alert) {
         // 生成预警编号
         if (ObjectUtil.isEmpty(alert.getAlertNo())) {
@@ -42,30 +48,56 @@ public class RiskAlertService {
         }
 
         riskAlertMapper.insert(alert);
+        riskAlertRollupService.onAdded(alert);
+    }
+
+    /**
+     * 批量新增预警（一条多行 INSERT，日汇总按格子合并后更新，同一事务）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int addBatch(List<RiskAlert> alerts) {
+        if (ObjectUtil.isEmpty(alerts)) return 0;
+        String now = LocalDateTime.now().toString();
+        for (RiskAlert alert : alerts) {
+            if (ObjectUtil.isEmpty(alert.getAlertNo())) alert.setAlertNo(generateAlertNo());
+            if (ObjectUtil.isEmpty(alert.getStatus())) alert.setStatus("UNREAD");
+            if (ObjectUtil.isEmpty(alert.getDetectedTime())) alert.setDetectedTime(now);
+            if (ObjectUtil.isEmpty(alert.getAlertTime())) alert.setAlertTime(now);
+            if (ObjectUtil.isEmpty(alert.getSuggestion())) {
+                alert.setSuggestion(generateSuggestion(alert.getAlertLevel(), alert.getAlertType()));
+            }
+        }
+        int rows = riskAlertMapper.batchInsert(alerts);
+        riskAlertRollupService.onAddedBatch(alerts);
+        return rows;
     }
 
     /**
      * 生成预警编号
+     * 批量生成一天可能上万条，随机部分取 10 位，避免撞上 alert_no 唯一索引
      */
     private String generateAlertNo() {
         return "ALERT_" + DateUtil.format(LocalDateTime.now(), "yyyyMMdd") +
-                "_" + IdUtil.fastSimpleUUID().substring(0, 6).toUpperCase();
+                "_" + IdUtil.fastSimpleUUID().substring(0, 10).toUpperCase();
     }
 
     /**
      * 删除预警记录
      */
+    @Transactional(rollbackFor = Exception.class)
     public void deleteById(Integer id) {
         RiskAlert alert = riskAlertMapper.selectById(id);
         if (ObjectUtil.isNull(alert)) {
             throw new CustomException("预警记录不存在");
         }
         riskAlertMapper.deleteById(id);
+        riskAlertRollupService.onDeleted(alert);
     }
 
     /**
      * 修改预警记录
      */
+    @Transactional(rollbackFor = Exception.class)
     public void updateById(RiskAlert alert) {
         RiskAlert dbAlert = riskAlertMapper.selectById(alert.getId());
         if (ObjectUtil.isNull(dbAlert)) {
@@ -73,6 +105,7 @@ public class RiskAlertService {
         }
 
         riskAlertMapper.updateById(alert);
+        riskAlertRollupService.onChanged(dbAlert, alert.getAlertTime(), alert.getAlertLevel(), alert.getAlertType(), alert.getStatus());
     }
 
     /**
@@ -158,6 +191,7 @@ public class RiskAlertService {
     /**
      * 更新预警状态
      */
+    @Transactional(rollbackFor = Exception.class)
     public void updateStatus(Integer id, String status, Integer handlerId, String handlerName, String handlerRole) {
         RiskAlert alert = riskAlertMapper.selectById(id);
         if (ObjectUtil.isNull(alert)) {
@@ -165,6 +199,7 @@ public class RiskAlertService {
         }
 
         riskAlertMapper.updateStatus(id, status, handlerId, handlerName, handlerRole);
+        riskAlertRollupService.onChanged(alert, null, null, null, status);
     }
 
     /**
@@ -184,10 +219,13 @@ public class RiskAlertService {
     /**
      * 解决预警
      */
+    @Transactional(rollbackFor = Exception.class)
     public void resolveAlert(Integer id, Integer handlerId, String handlerName, String handlerRole, String processResult) {
         RiskAlert alert = selectById(id);
         alert.setProcessResult(processResult);
         updateStatus(id, "RESOLVED", handlerId, handlerName, handlerRole);
+        // alert 是改状态前查出来的，整行写回时别把状态改回去（日汇总已按 RESOLVED 记账）
+        alert.setStatus("RESOLVED");
         riskAlertMapper.updateById(alert);
     }
 
@@ -201,6 +239,7 @@ public class RiskAlertService {
     /**
      * 批量更新预警状态
      */
+    @Transactional(rollbackFor = Exception.class)
     public void batchUpdateStatus(List<Integer> ids, String status) {
         if (ObjectUtil.isEmpty(ids)) {
             throw new CustomException("请选择要更新的预警记录");
@@ -210,6 +249,7 @@ public class RiskAlertService {
             RiskAlert alert = riskAlertMapper.selectById(id);
             if (ObjectUtil.isNotNull(alert)) {
                 riskAlertMapper.updateStatus(id, status, null, null, null);
+                riskAlertRollupService.onChanged(alert, null, null, null, status);
             }
         }
     }
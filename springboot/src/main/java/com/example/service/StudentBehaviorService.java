@@ -3,11 +3,17 @@ package com.example.service;
 import cn.hutool.core.util.ObjectUtil;
 import com.example.controller.dto.VideoProgressDTO;
 import com.example.entity.StudentBehavior;
+import com.example.entity.StudentBehaviorEvent;
 import com.example.exception.CustomException;
 import com.example.mapper.StudentBehaviorMapper;
+import com.example.service.feature.RealtimeFeatureUpdater;
+import com.example.service.ingest.BehaviorEventIngestor;
+import com.example.service.ingest.VideoWatchAccumulator;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,12 +27,23 @@ import java.util.Map;
 @Service
 public class StudentBehaviorService {
 
+    private static final Logger log = LoggerFactory.getLogger(StudentBehaviorService.class);
+
     @Resource
     private StudentBehaviorMapper studentBehaviorMapper;
 
     @Resource
     private com.example.mapper.StudentBehaviorEventMapper studentBehaviorEventMapper;
 
+    @Resource
+    private BehaviorEventIngestor behaviorEventIngestor;
+
+    @Resource
+    private VideoWatchAccumulator videoWatchAccumulator;
+
+    @Resource
+    private RealtimeFeatureUpdater realtimeFeatureUpdater;
+
     // ✅ 用于把 extra 写成 JSON
     private final com.fasterxml.jackson.databind.ObjectMapper objectMapper = new com.fasterxml.jackson.databind.ObjectMapper();
 
@@ -122,6 +139,7 @@ public class StudentBehaviorService {
 
         if (submitTime == null) submitTime = LocalDateTime.now();
 
+        realtimeFeatureUpdater.prepare(studentId, courseId, submitTime);
         studentBehaviorEventMapper.insertEvent(
                 studentId,
                 courseId,
@@ -134,6 +152,8 @@ public class StudentBehaviorService {
                 null,     // behaviorExtra
                 submitTime
         );
+        realtimeFeatureUpdater.afterWrite(studentId, courseId, "HOMEWORK_SUBMIT", String.valueOf(homeworkId),
+                score, isLate, null, submitTime);
     }
 
     // ==========================================
@@ -163,7 +183,10 @@ public class StudentBehaviorService {
         behavior.setBehaviorTime(dt(watchTime));
         behavior.setCreateTime(dt(null));
 
+        realtimeFeatureUpdater.prepare(studentId, courseId, watchTime);
         studentBehaviorMapper.insert(behavior);
+        realtimeFeatureUpdater.afterWrite(studentId, courseId, "VIDEO_WATCH", behavior.getRelatedId(), completionRate,
+                false, watchMinutes == null ? null : watchMinutes * 60.0, watchTime);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -205,7 +228,9 @@ public class StudentBehaviorService {
         behavior.setBehaviorTime(dt(loginTime));
         behavior.setCreateTime(dt(null));
 
+        realtimeFeatureUpdater.prepare(studentId, courseId, loginTime);
         studentBehaviorMapper.insert(behavior);
+        realtimeFeatureUpdater.afterWrite(studentId, courseId, "LOGIN", null, null, false, null, loginTime);
     }
 
     // ==========================================
@@ -232,69 +257,79 @@ public class StudentBehaviorService {
         behavior.setBehaviorTime(dt(examTime));
         behavior.setCreateTime(dt(null));
 
+        realtimeFeatureUpdater.prepare(studentId, courseId, examTime);
         studentBehaviorMapper.insert(behavior);
+        realtimeFeatureUpdater.afterWrite(studentId, courseId, "EXAM", String.valueOf(examId), score, false, null, examTime);
     }
 
     // ==========================================
     // ✅ 关键：视频心跳 + 完成判定（事件表闭环）
+    // 心跳只入队就返回，由 BehaviorEventIngestor 攒批写库；
+    // 当天累计秒数和是否已完成由 VideoWatchAccumulator 在内存里维护，不再每次心跳查库
     // ==========================================
-    @Transactional(rollbackFor = Exception.class)
     public void recordVideoProgress(VideoProgressDTO dto) {
         if (dto == null) throw new CustomException("dto 不能为空");
         if (dto.getStudentId() == null || dto.getCourseId() == null) throw new CustomException("studentId/courseId 不能为空");
         if (dto.getDeltaSeconds() == null || dto.getDeltaSeconds() <= 0) throw new CustomException("deltaSeconds 必须 > 0");
 
-        try {
-            // 1) 写入 VIDEO_PROGRESS 事件（心跳）
-            Map<String, Object> extra = new HashMap<>();
-            extra.put("currentTime", dto.getCurrentTime());
-            extra.put("duration", dto.getDuration());
-            extra.put("playbackRate", dto.getPlaybackRate());
-            String extraJson = objectMapper.writeValueAsString(extra);
-
-            studentBehaviorEventMapper.insertEvent(
-                    dto.getStudentId(),
-                    dto.getCourseId(),
-                    "VIDEO_PROGRESS",
-                    null,              // relatedId
-                    null,              // score
-                    0,                 // isLate
-                    1,                 // attemptNo（视频心跳固定 1）
-                    dto.getDeltaSeconds().doubleValue(),
-                    extraJson,
-                    LocalDateTime.now()
-            );
-
-            // 2) 完成判定：当天累计观看秒数 >= duration * 0.9
-            //    说明：你目前 course 表没有视频时长字段，只能先用前端传的 duration（后续建议改为 course.video_duration_sec）
-            double duration = dto.getDuration() == null ? 0 : dto.getDuration();
-            if (duration <= 0) return; // 没有时长就无法判定完成
-
-            LocalDate today = LocalDate.now();
-            int watchedSec = studentBehaviorEventMapper.sumVideoSeconds(dto.getStudentId(), dto.getCourseId(), today);
-
-            boolean completed = watchedSec >= (int) Math.floor(duration * 0.9);
-            if (!completed) return;
-
-            // 3) 幂等：同一天只写一次 VIDEO_COMPLETE
-            boolean already = studentBehaviorEventMapper.existsCompleteEvent(dto.getStudentId(), dto.getCourseId(), today);
-            if (already) return;
-
-            studentBehaviorEventMapper.insertEvent(
-                    dto.getStudentId(),
-                    dto.getCourseId(),
-                    "VIDEO_COMPLETE",
-                    String.valueOf(dto.getCourseId()), // relatedId = courseId
-                    null,
-                    0,
-                    1,
-                    null,
-                    null,
-                    LocalDateTime.now()
-            );
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
 
+        // 1) 组装 VIDEO_PROGRESS 事件（心跳）
+        Map<String, Object> extra = new HashMap<>();
+        extra.put("currentTime", dto.getCurrentTime());
+        extra.put("duration", dto.getDuration());
+        extra.put("playbackRate", dto.getPlaybackRate());
+        String extraJson;
+        try {
+            extraJson = objectMapper.writeValueAsString(extra);
         } catch (Exception e) {
-            throw new CustomException("写入 VIDEO_PROGRESS/VIDEO_COMPLETE 失败：" + e.getMessage());
+            throw new CustomException("behavior_extra 序列化失败：" + e.getMessage());
+        }
+
+        StudentBehaviorEvent event = new StudentBehaviorEvent();
+        event.setStudentId(dto.getStudentId());
+        event.setCourseId(dto.getCourseId());
+        event.setBehaviorType("VIDEO_PROGRESS");
+        event.setIsLate(false);
+        event.setAttemptNo(1);      // 视频心跳固定 1
+        event.setBehaviorValue(dto.getDeltaSeconds().doubleValue());
+        event.setBehaviorExtra(extraJson);
+        event.setBehaviorTime(now);
+
+        // 2) 先拿到当天观看状态（首次会从库里补齐），再入队，避免补齐时把本次心跳算两遍
+        VideoWatchAccumulator.WatchState state =
+                videoWatchAccumulator.stateOf(dto.getStudentId(), dto.getCourseId(), today);
+        // 实时特征同理：先补齐，批量写入成功后由管道回调累加
+        realtimeFeatureUpdater.prepare(dto.getStudentId(), dto.getCourseId(), now);
+
+        // 入队（队列满会抛异常，前端下次心跳重试）
+        behaviorEventIngestor.submit(event);
+
+        // 3) 完成判定：当天累计观看秒数 >= duration * 0.9
+        //    说明：你目前 course 表没有视频时长字段，只能先用前端传的 duration（后续建议改为 course.video_duration_sec）
+        //    没有时长就无法判定完成：阈值传 -1，只累加不判定
+        double duration = dto.getDuration() == null ? 0 : dto.getDuration();
+        double threshold = duration > 0 ? Math.floor(duration * 0.9) : -1;
+        if (!state.addAndCheckComplete(dto.getDeltaSeconds(), threshold)) return;
+
+        // 4) 幂等：同一天只写一次 VIDEO_COMPLETE（完成标记在内存里）
+        StudentBehaviorEvent complete = new StudentBehaviorEvent();
+        complete.setStudentId(dto.getStudentId());
+        complete.setCourseId(dto.getCourseId());
+        complete.setBehaviorType("VIDEO_COMPLETE");
+        complete.setRelatedId(String.valueOf(dto.getCourseId())); // relatedId = courseId
+        complete.setIsLate(false);
+        complete.setAttemptNo(1);
+        complete.setBehaviorTime(now);
+        try {
+            behaviorEventIngestor.submit(complete);
+        } catch (CustomException e) {
+            // 心跳已经入队，这里不能再报错：前端重试会把观看时长算两遍。
+            // 回退标记，累计时长已过阈值，下一次心跳会再写完成事件
+            state.resetCompleted();
+            log.warn("⚠️ VIDEO_COMPLETE 入队失败，下次心跳重试: studentId={}, courseId={}, {}",
+                    dto.getStudentId(), dto.getCourseId(), e.getMessage());
         }
     }
 }
@@ -0,0 +1,310 @@
+package com.example.service.alert;
+
+import com.example.entity.LearningFeatures;
+import com.example.entity.RiskAlert;
+import com.example.mapper.LearningFeaturesMapper;
+import com.example.mapper.RiskAlertMapper;
+import com.example.service.RiskAlertService;
+import com.example.service.metrics.MetricsSink;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 风险预警生成引擎
+ *
+ * 1. 把预警按 (学生, 课程, 类型) 汇总成内存索引：未结束的条数、最近一条的预警时间（不分状态）；
+ * 2. 按主键 keyset 分页扫描最近几天打过分、风险概率达到阈值的 learning_features，
+ *    同一 (学生, 课程) 出现多天的只保留最近一天，一个学生一门课一轮最多一条预警；
+ * 3. 按这一行最薄弱的维度定预警类型，以下情况跳过（suppressed）：
+ *    - 同类型还有未结束的预警；
+ *    - 同类型的预警是在这行特征生成之后才发的（哪怕已经处理掉了）：老师关掉预警后，
+ *      同一行旧特征不会每半小时又生成一遍，要等之后新生成的特征行仍然高风险才再预警；
+ * 4. 新预警按 insert-batch-size 一批，用一条多行 INSERT 写入，日汇总同一事务里按格子更新。
+ * 同一时刻只跑一轮，避免两轮互相看不到对方刚写的预警而重复生成。
+ */
+@Service
+public class RiskAlertEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskAlertEngine.class);
+
+    @Resource
+    private LearningFeaturesMapper learningFeaturesMapper;
+
+    @Resource
+    private RiskAlertMapper riskAlertMapper;
+
+    @Resource
+    private RiskAlertService riskAlertService;
+
+    @Resource
+    private MetricsSink metricsSink;
+
+    @Value("${app.alerts.threshold:0.7}")
+    private double defaultThreshold;
+
+    @Value("${app.alerts.lookback-days:7}")
+    private int lookbackDays;
+
+    @Value("${app.alerts.page-size:1000}")
+    private int pageSize;
+
+    @Value("${app.alerts.insert-batch-size:200}")
+    private int insertBatchSize;
+
+    // 某个维度低于它才算该维度的问题，否则记为综合预警
+    @Value("${app.alerts.weak-dimension-threshold:0.6}")
+    private double weakThreshold;
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    /**
+     * 生成一轮预警
+     * @param courseId  只处理某门课，null 表示全部
+     * @param threshold 风险概率阈值，null 用配置值
+     */
+    public synchronized Map<String, Object> generate(Integer courseId, Double threshold) {
+        long start = System.currentTimeMillis();
+        double minProbability = threshold != null ? threshold : defaultThreshold;
+
+        Map<AlertKey, AlertState> states = loadAlertStates(courseId);
+
+        Map<StudentCourse, LearningFeatures> latest = new LinkedHashMap<>();
+        int scanned = 0;
+        int suppressedDuplicate = 0;
+        Integer lastId = 0;
+        while (true) {
+            List<LearningFeatures> page = learningFeaturesMapper.selectAlertCandidatesChunk(
+                    lookbackDays, minProbability, courseId, lastId, pageSize);
+            if (page == null || page.isEmpty()) break;
+            scanned += page.size();
+            lastId = page.get(page.size() - 1).getId();
+
+            for (LearningFeatures f : page) {
+                StudentCourse sc = new StudentCourse(f.getStudentId(), f.getCourseId());
+                LearningFeatures previous = latest.putIfAbsent(sc, f);
+                if (previous != null) {
+                    suppressedDuplicate++;
+                    if (newer(f, previous)) latest.put(sc, f);
+                }
+            }
+            if (page.size() < pageSize) break;
+        }
+
+        Map<AlertKey, LearningFeatures> pending = new LinkedHashMap<>();
+        int suppressedOpen = 0;
+        int suppressedHandled = 0;
+        for (LearningFeatures f : latest.values()) {
+            AlertKey key = new AlertKey(f.getStudentId(), f.getCourseId(), classify(f));
+            AlertState state = states.get(key);
+            if (state != null && state.openCount() > 0) {
+                suppressedOpen++;
+            } else if (state != null && alertedSince(state.lastAlertTime(), f.getCreatedTime())) {
+                suppressedHandled++;
+            } else {
+                pending.put(key, f);
+            }
+        }
+        int suppressed = suppressedOpen + suppressedHandled + suppressedDuplicate;
+
+        String now = LocalDateTime.now().toString();
+        List<RiskAlert> batch = new ArrayList<>(insertBatchSize);
+        int generated = 0;
+        int failed = 0;
+        for (Map.Entry<AlertKey, LearningFeatures> e : pending.entrySet()) {
+            batch.add(toAlert(e.getKey(), e.getValue(), now));
+            if (batch.size() >= insertBatchSize) {
+                int n = insertBatch(batch);
+                generated += n;
+                failed += batch.size() - n;
+                batch = new ArrayList<>(insertBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            int n = insertBatch(batch);
+            generated += n;
+            failed += batch.size() - n;
+        }
+
+        long costMs = System.currentTimeMillis() - start;
+        double rowsPerSecond = scanned * 1000.0 / Math.max(1L, costMs);
+        metricsSink.record("risk_alert_generation", "ALERT_GEN_" + start, costMs,
+                failed > 0 ? "FAILED" : generated > 0 ? "SUCCESS" : "NO_DATA", rowsPerSecond);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("courseId", courseId != null ? courseId : "全部课程");
+        result.put("threshold", minProbability);
+        result.put("lookbackDays", lookbackDays);
+        result.put("alertKeys", states.size());
+        result.put("scanned", scanned);
+        result.put("generated", generated);
+        result.put("suppressed", suppressed);
+        result.put("suppressedOpen", suppressedOpen);
+        result.put("suppressedHandled", suppressedHandled);
+        result.put("suppressedDuplicate", suppressedDuplicate);
+        result.put("failed", failed);
+        result.put("elapsedMs", costMs);
+        result.put("rowsPerSecond", Math.round(rowsPerSecond * 10) / 10.0);
+        result.put("lastRunTime", now);
+        lastRun = result;
+
+        log.info("🚨 预警生成完成: 扫描 {} 行, 新增 {} 条, 抑制 {} 条(未结束 {} / 已处理 {} / 重复 {}), 失败 {} 条, 耗时 {}ms",
+                scanned, generated, suppressed, suppressedOpen, suppressedHandled, suppressedDuplicate,
+                failed, costMs);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        return lastRun;
+    }
+
+    private Map<AlertKey, AlertState> loadAlertStates(Integer courseId) {
+        Map<AlertKey, AlertState> states = new HashMap<>();
+        for (Map<String, Object> row : riskAlertMapper.selectAlertKeyStates(courseId)) {
+            AlertKey key = new AlertKey(intOrNull(row.get("studentId")), intOrNull(row.get("courseId")),
+                    row.get("alertType") == null ? null : String.valueOf(row.get("alertType")));
+            Object open = row.get("openCount");
+            Object last = row.get("lastAlertTime");
+            states.put(key, new AlertState(open instanceof Number n ? n.intValue() : 0,
+                    last == null ? null : last.toString()));
+        }
+        return states;
+    }
+
+    /**
+     * 最近一条预警是否在这行特征生成之后（两边都是 yyyy-MM-dd HH:mm:ss，按字符串比较即可）
+     */
+    private static boolean alertedSince(String lastAlertTime, String featureCreatedTime) {
+        if (lastAlertTime == null || featureCreatedTime == null) return false;
+        return lastAlertTime.compareTo(normalizeTime(featureCreatedTime)) >= 0;
+    }
+
+    private static String normalizeTime(String time) {
+        String t = time.replace('T', ' ');
+        return t.length() > 19 ? t.substring(0, 19) : t;
+    }
+
+    private int insertBatch(List<RiskAlert> batch) {
+        try {
+            return riskAlertService.addBatch(batch);
+        } catch (Exception e) {
+            log.warn("⚠️ 预警批量写入失败 {} 条: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 预警类型：视频 / 作业 / 登录里得分最低且低于 weakThreshold 的维度，都不低就是综合预警
+     */
+    String classify(LearningFeatures f) {
+        Double video = rate01(f.getVideoCompletionRate());
+        Double homework = average(rate01(f.getHomeworkSubmitRate()),
+                f.getHomeworkAvgScore() == null ? null : clamp01(f.getHomeworkAvgScore() / 100.0));
+        Double login = f.getLastLoginDays() == null ? null : clamp01(1.0 - f.getLastLoginDays() / 7.0);
+
+        String type = "COMPREHENSIVE";
+        double weakest = weakThreshold;
+        if (video != null && video < weakest) { weakest = video; type = "VIDEO"; }
+        if (homework != null && homework < weakest) { weakest = homework; type = "HOMEWORK"; }
+        if (login != null && login < weakest) { type = "LOGIN"; }
+        return type;
+    }
+
+    private static String level(double p) {
+        if (p >= 0.9) return "CRITICAL";
+        if (p >= 0.8) return "HIGH";
+        return "MEDIUM";
+    }
+
+    private static RiskAlert toAlert(AlertKey key, LearningFeatures f, String now) {
+        double p = f.getRiskProbability() == null ? 0 : f.getRiskProbability();
+        String courseName = f.getCourseName() == null ? "" : "《" + f.getCourseName() + "》";
+
+        RiskAlert alert = new RiskAlert();
+        alert.setStudentId(f.getStudentId());
+        alert.setStudentName(f.getStudentName());
+        alert.setStudentNo(f.getStudentNo());
+        alert.setCourseId(f.getCourseId());
+        alert.setCourseName(f.getCourseName());
+        alert.setAlertType(key.alertType());
+        alert.setAlertLevel(level(p));
+        alert.setAlertTitle(f.getStudentName() + courseName + typeTitle(key.alertType()));
+        alert.setAlertContent(String.format("%s 的风险概率 %.1f%%（风险分 %.1f）：视频完成率 %s，作业提交率 %s，作业均分 %s，距上次登录 %s 天",
+                f.getFeatureDate(), p * 100, f.getRiskScore() == null ? p * 100 : f.getRiskScore(),
+                text(f.getVideoCompletionRate()), text(f.getHomeworkSubmitRate()),
+                text(f.getHomeworkAvgScore()), f.getLastLoginDays() == null ? "-" : f.getLastLoginDays()));
+        alert.setRiskScore(f.getRiskScore());
+        alert.setRiskProbability(f.getRiskProbability());
+        alert.setFeatureData(String.format("{\"featureId\": %d, \"featureDate\": \"%s\"}", f.getId(), f.getFeatureDate()));
+        alert.setStatus("UNREAD");
+        alert.setDetectedTime(now);
+        alert.setAlertTime(now);
+        return alert;
+    }
+
+    private static String typeTitle(String type) {
+        return switch (type) {
+            case "VIDEO" -> "视频学习不足预警";
+            case "HOMEWORK" -> "作业完成情况预警";
+            case "LOGIN" -> "长期未登录预警";
+            default -> "学业风险预警";
+        };
+    }
+
+    /**
+     * 特征日期更近的优先，同一天取风险更高的
+     */
+    private static boolean newer(LearningFeatures a, LearningFeatures b) {
+        String da = a.getFeatureDate() == null ? "" : a.getFeatureDate();
+        String db = b.getFeatureDate() == null ? "" : b.getFeatureDate();
+        int c = da.compareTo(db);
+        if (c != 0) return c > 0;
+        double pa = a.getRiskProbability() == null ? 0 : a.getRiskProbability();
+        double pb = b.getRiskProbability() == null ? 0 : b.getRiskProbability();
+        return pa > pb;
+    }
+
+    /**
+     * 比率字段可能是 0~1 也可能是 0~100
+     */
+    private static Double rate01(Double v) {
+        if (v == null) return null;
+        return clamp01(v > 1.0 ? v / 100.0 : v);
+    }
+
+    private static Double average(Double a, Double b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return (a + b) / 2;
+    }
+
+    private static double clamp01(double v) {
+        return Math.max(0, Math.min(1, v));
+    }
+
+    private static String text(Double v) {
+        return v == null ? "-" : String.format("%.2f", v);
+    }
+
+    private static Integer intOrNull(Object v) {
+        return v instanceof Number n ? n.intValue() : null;
+    }
+
+    private record AlertKey(Integer studentId, Integer courseId, String alertType) {
+    }
+
+    private record StudentCourse(Integer studentId, Integer courseId) {
+    }
+
+    private record AlertState(int openCount, String lastAlertTime) {
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 看板接口结果缓存（进程内）
+ *
+ * key 由接口名 + 参数 + 当天日期组成，跨天自然换 key，不会把昨天的趋势当今天的返回。
+ *   - 加载后 ttl 内直接返回；
+ *   - 过了 ttl、还在 stale 窗口内：先返回旧值，后台刷新一次（stale-while-revalidate）；
+ *   - 没有或太旧：同一个 key 同时只有一个请求去查库，其余请求等它的结果（single-flight）。
+ * 预警写入提交后调 invalidateAfterCommit，旧结果全部作废。
+ * 只缓存 code=200 的结果，查询失败不会被缓存住。
+ * 命中/未命中/加载耗时走 Micrometer（/actuator/metrics/dashboard.cache.*）。
+ */
+@Component
+public class DashboardCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardCache.class);
+
+    private static final String REQUESTS = "dashboard.cache.requests";
+    private static final String LOAD = "dashboard.cache.load";
+
+    // 同一事务里多次写预警只登记一次失效回调
+    private static final Object TX_INVALIDATION_KEY = new Object();
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.dashboard.cache-enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.dashboard.cache-ttl-ms:10000}")
+    private long ttlMs;
+
+    @Value("${app.dashboard.cache-stale-ms:60000}")
+    private long staleMs;
+
+    @Value("${app.dashboard.cache-max-entries:512}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Map<String, Object>>> inflight = new ConcurrentHashMap<>();
+
+    // 每次失效加 1；加载开始时记下代数，结果只在代数没变时才算有效
+    private final AtomicLong generation = new AtomicLong();
+
+    private ExecutorService refresher;
+    private Counter invalidations;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger seq = new AtomicInteger();
+        // 后台刷新只有看板几个 key，两个线程足够；队列满了就丢，下个请求会再触发
+        refresher = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(64), r -> {
+            Thread t = new Thread(r, "dashboard-cache-refresh-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        invalidations = meterRegistry.counter("dashboard.cache.invalidations");
+        meterRegistry.gauge("dashboard.cache.size", entries, Map::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * 取缓存结果，没有或过期时用 loader 加载
+     * @param endpoint 接口名（监控标签用，取值要少，不要带参数）
+     * @param key      完整缓存 key（接口名 + 参数 + 日期）
+     */
+    public Map<String, Object> get(String endpoint, String key, Supplier<Map<String, Object>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Entry e = entries.get(key);
+        if (e != null && e.generation == generation.get()) {
+            long age = System.currentTimeMillis() - e.loadedAt;
+            if (age < ttlMs) {
+                count(endpoint, "hit");
+                return e.value;
+            }
+            if (age < ttlMs + staleMs) {
+                count(endpoint, "stale");
+                refreshAsync(endpoint, key, loader);
+                return e.value;
+            }
+        }
+
+        CompletableFuture<Map<String, Object>> running = inflight.get(key);
+        if (running != null) {
+            count(endpoint, "coalesced");
+            return await(running);
+        }
+        count(endpoint, "miss");
+        return await(load(endpoint, key, loader));
+    }
+
+    /**
+     * 当前事务提交后清空缓存；不在事务里就立即清空
+     */
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateAll();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(TX_INVALIDATION_KEY)) return;
+
+        TransactionSynchronizationManager.bindResource(TX_INVALIDATION_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidateAll();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TX_INVALIDATION_KEY);
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        invalidations.increment();
+    }
+
+    /**
+     * 同一个 key 只有第一个调用者真正执行 loader，其余拿到同一个 future
+     */
+    private CompletableFuture<Map<String, Object>> load(String endpoint, String key, Supplier<Map<String, Object>> loader) {
+        CompletableFuture<Map<String, Object>> mine = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = inflight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return existing;
+        }
+
+        long gen = generation.get();
+        long start = System.nanoTime();
+        try {
+            Map<String, Object> value = loader.get();
+            boolean cacheable = value != null && Integer.valueOf(200).equals(value.get("code"));
+            Timer.builder(LOAD).tag("endpoint", endpoint).tag("cached", String.valueOf(cacheable))
+                    .register(meterRegistry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (cacheable) {
+                value = Collections.unmodifiableMap(value);
+                put(key, new Entry(value, System.currentTimeMillis(), gen));
+            }
+            mine.complete(value);
+        } catch (RuntimeException ex) {
+            Timer.builder(LOAD).tag("endpoint", endpoint).tag("cached", "false")
+                    .register(meterRegistry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            mine.completeExceptionally(ex);
+        } finally {
+            inflight.remove(key, mine);
+        }
+        return mine;
+    }
+
+    private void refreshAsync(String endpoint, String key, Supplier<Map<String, Object>> loader) {
+        if (inflight.containsKey(key)) return;
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(endpoint, key, loader);
+                } catch (Exception ex) {
+                    log.warn("⚠️ 看板缓存后台刷新失败 key={}: {}", key, ex.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // 刷新排队已满，继续返回旧值
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        // 失效之后才完成的旧加载不写回，避免把作废的数据又放进去
+        if (entry.generation != generation.get()) return;
+        entries.put(key, entry);
+        if (entries.size() > maxEntries) {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(e -> now - e.loadedAt >= ttlMs + staleMs);
+            if (entries.size() > maxEntries) {
+                entries.clear();
+            }
+        }
+    }
+
+    private static Map<String, Object> await(CompletableFuture<Map<String, Object>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private void count(String endpoint, String result) {
+        meterRegistry.counter(REQUESTS, "endpoint", endpoint, "result", result).increment();
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", entries.size());
+        stats.put("inflight", inflight.size());
+        stats.put("generation", generation.get());
+        for (String result : new String[]{"hit", "stale", "miss", "coalesced"}) {
+            double total = meterRegistry.find(REQUESTS).tag("result", result).counters()
+                    .stream().mapToDouble(Counter::count).sum();
+            stats.put(result, (long) total);
+        }
+        long loads = 0;
+        double loadMs = 0;
+        for (Timer t : meterRegistry.find(LOAD).timers()) {
+            loads += t.count();
+            loadMs += t.totalTime(TimeUnit.MILLISECONDS);
+        }
+        stats.put("loads", loads);
+        stats.put("avg_load_ms", loads == 0 ? 0 : Math.round(loadMs / loads * 10) / 10.0);
+        return stats;
+    }
+
+    private record Entry(Map<String, Object> value, long loadedAt, long generation) {
+    }
+}
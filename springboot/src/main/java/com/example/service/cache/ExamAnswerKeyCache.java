@@ -0,0 +1,190 @@
+package com.example.service.cache;
+
+import com.example.mapper.ExamQuestionMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 考试答案缓存（进程内，按 examId）
+ *
+ * 交卷判分只需要题号、分值、正确选项，按 sort_no 顺序放进几个并列的基本类型数组，
+ * 不再每次交卷都把整张卷子（含题干、选项）查一遍再拆 Map。
+ *   - 每隔 revalidate-ms 用一条聚合 SQL 算一次试卷指纹（题数 + 每题题号/分值/顺序/答案的 CRC32 之和），
+ *     指纹变了才重新加载答案；同一场考试同一时刻只有一个线程去校验，其余线程继续用旧答案；
+ *   - 改卷的地方可以直接调 invalidate，下次交卷立即重新加载；
+ *   - 条目数超过 max-entries 时整体清空，考试数量有限，不做 LRU。
+ */
+@Component
+public class ExamAnswerKeyCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ExamAnswerKeyCache.class);
+
+    @Resource
+    private ExamQuestionMapper examQuestionMapper;
+
+    @Value("${app.exam.answer-key-cache-enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.exam.answer-key-revalidate-ms:60000}")
+    private long revalidateMs;
+
+    @Value("${app.exam.answer-key-max-entries:1000}")
+    private int maxEntries;
+
+    private final Map<Integer, Entry> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 取某场考试的答案，没有题目时返回 questionCount() == 0 的空答案
+     */
+    public AnswerKey get(Integer examId) {
+        if (!enabled) {
+            return load(examId, null);
+        }
+        Entry entry = cache.get(examId);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return loadAndPut(examId).key;
+        }
+        long now = System.currentTimeMillis();
+        if (now - entry.checkedAt >= revalidateMs && entry.revalidating.compareAndSet(false, true)) {
+            try {
+                revalidations.incrementAndGet();
+                String fingerprint = examQuestionMapper.selectPaperFingerprint(examId);
+                if (!entry.key.fingerprint.equals(fingerprint)) {
+                    log.info("🔄 试卷 {} 已变更，重新加载答案", examId);
+                    return loadAndPut(examId).key;
+                }
+                entry.checkedAt = now;
+            } finally {
+                entry.revalidating.set(false);
+            }
+        }
+        hits.incrementAndGet();
+        return entry.key;
+    }
+
+    /**
+     * 试卷改动后调用，下次交卷重新加载
+     */
+    public void invalidate(Integer examId) {
+        if (examId == null) {
+            cache.clear();
+        } else {
+            cache.remove(examId);
+        }
+        invalidations.incrementAndGet();
+    }
+
+    private Entry loadAndPut(Integer examId) {
+        // 先取指纹再取答案：两次之间卷子被改了，下次校验指纹对不上会再加载一次，不会一直用旧答案
+        String fingerprint = examQuestionMapper.selectPaperFingerprint(examId);
+        Entry entry = new Entry(load(examId, fingerprint));
+        if (cache.size() >= maxEntries && !cache.containsKey(examId)) {
+            cache.clear();
+        }
+        cache.put(examId, entry);
+        reloads.incrementAndGet();
+        return entry;
+    }
+
+    private AnswerKey load(Integer examId, String fingerprint) {
+        List<Map<String, Object>> rows = examQuestionMapper.selectAnswerKey(examId);
+        int n = rows.size();
+        int[] questionIds = new int[n];
+        String[] answerKeys = new String[n];
+        String[] correctOptions = new String[n];
+        double[] scores = new double[n];
+        double totalScore = 0d;
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> row = rows.get(i);
+            questionIds[i] = ((Number) row.get("question_id")).intValue();
+            answerKeys[i] = String.valueOf(questionIds[i]);
+            Object correct = row.get("correct_option");
+            correctOptions[i] = correct == null ? null : String.valueOf(correct).intern();
+            scores[i] = row.get("score") == null ? 0d : ((Number) row.get("score")).doubleValue();
+            totalScore += scores[i];
+        }
+        return new AnswerKey(examId, questionIds, answerKeys, correctOptions, scores, totalScore,
+                fingerprint == null ? "" : fingerprint);
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", cache.size());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("revalidations", revalidations.get());
+        stats.put("reloads", reloads.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("revalidate_ms", revalidateMs);
+        return stats;
+    }
+
+    /**
+     * 一场考试的答案，数组下标即 sort_no 顺序，加载后只读
+     */
+    public static final class AnswerKey {
+
+        private final Integer examId;
+        private final int[] questionIds;
+        // questionIds 的字符串形式，对应交卷 answers 的 key
+        private final String[] answerKeys;
+        private final String[] correctOptions;
+        private final double[] scores;
+        private final double totalScore;
+        private final String fingerprint;
+
+        AnswerKey(Integer examId, int[] questionIds, String[] answerKeys, String[] correctOptions,
+                  double[] scores, double totalScore, String fingerprint) {
+            this.examId = examId;
+            this.questionIds = questionIds;
+            this.answerKeys = answerKeys;
+            this.correctOptions = correctOptions;
+            this.scores = scores;
+            this.totalScore = totalScore;
+            this.fingerprint = fingerprint;
+        }
+
+        public Integer examId() { return examId; }
+        public int questionCount() { return questionIds.length; }
+        public int questionId(int i) { return questionIds[i]; }
+        public String answerKey(int i) { return answerKeys[i]; }
+        public double score(int i) { return scores[i]; }
+        public double totalScore() { return totalScore; }
+
+        public boolean isCorrect(int i, String chosen) {
+            String correct = correctOptions[i];
+            return correct == null ? chosen == null : correct.equals(chosen);
+        }
+    }
+
+    private static final class Entry {
+        final AnswerKey key;
+        volatile long checkedAt = System.currentTimeMillis();
+        final AtomicBoolean revalidating = new AtomicBoolean();
+
+        Entry(AnswerKey key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.service.counter;
+
+import com.example.mapper.CourseMapper;
+import com.example.mapper.HomeworkMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 作业、课程统计计数器（写后回写）
+ *
+ * 提交作业、批改、选课这些热点路径只在内存里累加（LongAdder / DoubleAdder，按作业、课程 id 分开，
+ * 多线程累加同一个 id 也不争同一把锁），不再先查出整行、在 Java 里 +1 再整行写回。
+ * 定时任务每隔 flush-ms 把增量用 SET x = x + ? 写回，数据库里的值最多落后一个周期；
+ * 回写时取当前值再减掉，期间新来的累加留到下一轮，不会丢；写库失败把增量加回去下次重试。
+ * 在事务里调用的累加等事务提交后才计入。
+ * 累加接口会收到任意 id：回写时更新了 0 行（作业、课程不存在）的计数器直接删掉，
+ * 不存在的 id 最多在内存里停留一个周期；删除时并发累加到旧对象上的增量本来也写不进库，丢了无妨。
+ * 存在的作业、课程数量有限，计数器建了就不删，避免删除时与并发累加抢同一个对象。
+ */
+@Service
+public class StatCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatCounterService.class);
+
+    @Resource
+    private HomeworkMapper homeworkMapper;
+
+    @Resource
+    private CourseMapper courseMapper;
+
+    @Value("${app.counters.enabled:true}")
+    private boolean enabled;
+
+    private final Map<Integer, HomeworkCounter> homeworkCounters = new ConcurrentHashMap<>();
+    private final Map<Integer, CourseCounter> courseCounters = new ConcurrentHashMap<>();
+
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong missingRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private volatile LocalDateTime lastFlushTime;
+
+    /**
+     * 作业提交人数 +1
+     */
+    public void homeworkSubmitted(Integer homeworkId) {
+        afterCommit(() -> homework(homeworkId).submits.increment());
+    }
+
+    /**
+     * 作业批改人数 +1，成绩计入平均分
+     */
+    public void homeworkGraded(Integer homeworkId, double score) {
+        afterCommit(() -> {
+            HomeworkCounter c = homework(homeworkId);
+            // 先加人数再加分数，回写时反过来先取分数再取人数：取到了某次批改的分数，
+            // 它的人数在取分数之前就加上了，一定也会被取到；最多是人数先写回、分数下一轮再到，
+            // 不会出现有分数没人数把平均分算偏
+            c.graded.increment();
+            c.scoreSum.add(score);
+        });
+    }
+
+    /**
+     * 课程学生人数 +1
+     */
+    public void courseStudentAdded(Integer courseId) {
+        afterCommit(() -> course(courseId).students.increment());
+    }
+
+    /**
+     * 课程作业数量 +1
+     */
+    public void courseHomeworkAdded(Integer courseId) {
+        afterCommit(() -> course(courseId).homeworks.increment());
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.flush-ms:2000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 把所有增量写回数据库
+     * @return 写回的行数
+     */
+    public synchronized int flush() {
+        int rows = 0;
+        for (Map.Entry<Integer, HomeworkCounter> e : homeworkCounters.entrySet()) {
+            HomeworkCounter c = e.getValue();
+            long submits = take(c.submits);
+            // 先取分数再取人数，顺序见 homeworkGraded
+            double scoreSum = take(c.scoreSum);
+            long graded = take(c.graded);
+            if (submits == 0 && graded == 0 && scoreSum == 0) continue;
+            try {
+                int n = homeworkMapper.addStatistics(e.getKey(), submits, graded, scoreSum);
+                if (n == 0) {
+                    missingRows.incrementAndGet();
+                    log.warn("⚠️ 作业 {} 不存在，丢弃统计增量: 提交 {}, 批改 {}", e.getKey(), submits, graded);
+                    homeworkCounters.remove(e.getKey(), c);
+                }
+                rows += n;
+            } catch (Exception ex) {
+                c.submits.add(submits);
+                c.graded.add(graded);
+                c.scoreSum.add(scoreSum);
+                failedRows.incrementAndGet();
+                log.warn("⚠️ 作业 {} 统计回写失败，下次重试: {}", e.getKey(), ex.getMessage());
+            }
+        }
+        for (Map.Entry<Integer, CourseCounter> e : courseCounters.entrySet()) {
+            CourseCounter c = e.getValue();
+            long students = take(c.students);
+            long homeworks = take(c.homeworks);
+            if (students == 0 && homeworks == 0) continue;
+            try {
+                int n = courseMapper.addCounts(e.getKey(), students, homeworks);
+                if (n == 0) {
+                    missingRows.incrementAndGet();
+                    log.warn("⚠️ 课程 {} 不存在，丢弃统计增量: 学生 {}, 作业 {}", e.getKey(), students, homeworks);
+                    courseCounters.remove(e.getKey(), c);
+                }
+                rows += n;
+            } catch (Exception ex) {
+                c.students.add(students);
+                c.homeworks.add(homeworks);
+                failedRows.incrementAndGet();
+                log.warn("⚠️ 课程 {} 统计回写失败，下次重试: {}", e.getKey(), ex.getMessage());
+            }
+        }
+        if (rows > 0) {
+            flushedRows.addAndGet(rows);
+            lastFlushTime = LocalDateTime.now();
+        }
+        return rows;
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        long pendingSubmits = 0;
+        long pendingGraded = 0;
+        for (HomeworkCounter c : homeworkCounters.values()) {
+            pendingSubmits += c.submits.sum();
+            pendingGraded += c.graded.sum();
+        }
+        long pendingStudents = 0;
+        long pendingHomeworks = 0;
+        for (CourseCounter c : courseCounters.values()) {
+            pendingStudents += c.students.sum();
+            pendingHomeworks += c.homeworks.sum();
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("homework_counters", homeworkCounters.size());
+        stats.put("course_counters", courseCounters.size());
+        stats.put("pending_submits", pendingSubmits);
+        stats.put("pending_graded", pendingGraded);
+        stats.put("pending_students", pendingStudents);
+        stats.put("pending_homeworks", pendingHomeworks);
+        stats.put("flushed_rows", flushedRows.get());
+        stats.put("missing_rows", missingRows.get());
+        stats.put("failed_rows", failedRows.get());
+        stats.put("last_flush_time", lastFlushTime == null ? null : lastFlushTime.toString());
+        return stats;
+    }
+
+    private HomeworkCounter homework(Integer homeworkId) {
+        return homeworkCounters.computeIfAbsent(homeworkId, id -> new HomeworkCounter());
+    }
+
+    private CourseCounter course(Integer courseId) {
+        return courseCounters.computeIfAbsent(courseId, id -> new CourseCounter());
+    }
+
+    /**
+     * 在调用方事务里累加的，等事务提交后再计入，回滚的提交不会被统计；
+     * 关闭写后回写时每次累加都立即写库（仍是 x = x + ?，只是不攒批）
+     */
+    private void afterCommit(Runnable increment) {
+        Runnable apply = enabled ? increment : () -> {
+            increment.run();
+            flush();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private static long take(LongAdder adder) {
+        long v = adder.sum();
+        if (v != 0) adder.add(-v);
+        return v;
+    }
+
+    private static double take(DoubleAdder adder) {
+        double v = adder.sum();
+        if (v != 0) adder.add(-v);
+        return v;
+    }
+
+    private static final class HomeworkCounter {
+        final LongAdder submits = new LongAdder();
+        final LongAdder graded = new LongAdder();
+        final DoubleAdder scoreSum = new DoubleAdder();
+    }
+
+    private static final class CourseCounter {
+        final LongAdder students = new LongAdder();
+        final LongAdder homeworks = new LongAdder();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.service.exam;
+
+import com.example.entity.ExamSubmission;
+import com.example.mapper.ExamSubmissionMapper;
+import com.example.service.ExamService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 异步交卷的判分事务
+ *
+ * gradeGroup 把领取到的一批答卷放在同一个事务里判分、写作答记录、回填回执；
+ * 其中任何一份出错整批回滚，由调用方改成逐份 gradeOne 重做，坏答卷只影响它自己。
+ * 回填回执时校验领取令牌：判分太久被放回队列（或已被别的线程重新领取）的答卷，
+ * 这次写的作答记录随事务回滚，不会多出一次作答、错开作答次数。
+ */
+@Component
+public class ExamSubmissionGrader {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> ANSWERS = new TypeReference<>() {};
+
+    @Resource
+    private ExamService examService;
+
+    @Resource
+    private ExamSubmissionMapper examSubmissionMapper;
+
+    @Transactional(rollbackFor = Exception.class)
+    public void gradeGroup(List<ExamSubmission> group) throws Exception {
+        for (ExamSubmission submission : group) {
+            apply(submission);
+        }
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public void gradeOne(ExamSubmission submission) throws Exception {
+        apply(submission);
+    }
+
+    private void apply(ExamSubmission submission) throws Exception {
+        ExamService.SubmitDTO dto = new ExamService.SubmitDTO();
+        dto.examId = submission.getExamId();
+        dto.courseId = submission.getCourseId();
+        dto.studentId = submission.getStudentId();
+        dto.answers = JSON.readValue(submission.getAnswers(), ANSWERS);
+
+        Map<String, Object> result = examService.grade(dto, submission.getSubmitTime());
+        int updated = examSubmissionMapper.markGraded(submission.getId(), submission.getClaimToken(),
+                (Integer) result.get("attemptId"),
+                (Integer) result.get("attemptNo"),
+                (Double) result.get("score"));
+        if (updated != 1) {
+            throw new ClaimLostException(submission.getId());
+        }
+    }
+
+    /**
+     * 答卷已不归本次领取（超时被放回队列），整个判分事务回滚
+     */
+    static class ClaimLostException extends RuntimeException {
+        ClaimLostException(Long id) {
+            super("答卷 " + id + " 已被放回队列，放弃本次判分");
+        }
+    }
+
+    static String toJson(Map<String, String> answers) throws Exception {
+        return JSON.writeValueAsString(answers == null ? Map.of() : answers);
+    }
+}
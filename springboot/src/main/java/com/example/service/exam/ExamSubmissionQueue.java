@@ -0,0 +1,375 @@
+package com.example.service.exam;
+
+import com.example.entity.ExamSubmission;
+import com.example.exception.CustomException;
+import com.example.mapper.ExamSubmissionMapper;
+import com.example.service.ExamService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步交卷队列
+ *
+ * 考试结束时集中交卷，同步判分每份都要占一个事务和一条连接走完判分、写库。异步模式下：
+ *   - 收卷只把答卷 JSON 用一条 INSERT 写进 exam_submission（自动提交，落库即不丢），返回回执号；
+ *   - 后台调度线程按交卷顺序一次领取最多 group-size 份（单条 UPDATE 抢占，多实例不重复），
+ *     交给 workers 个判分线程，每批一个事务；有空闲线程才领取，积压留在表里而不是内存里；
+ *   - 判分中超过 stale-seconds 没结束的答卷放回队列，重试 max-retries 次后记为失败；
+ *   - 学生凭回执号轮询 status 拿分数。
+ * 队列深度、判分中份数、每批判分耗时、交卷到出分的延迟走 Micrometer（/actuator/metrics/exam.submission.*）。
+ */
+@Service
+public class ExamSubmissionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ExamSubmissionQueue.class);
+
+    @Resource
+    private ExamSubmissionMapper examSubmissionMapper;
+
+    @Resource
+    private ExamSubmissionGrader examSubmissionGrader;
+
+    @Resource
+    private ExamService examService;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.exam.async.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.exam.async.workers:4}")
+    private int workers;
+
+    @Value("${app.exam.async.group-size:50}")
+    private int groupSize;
+
+    @Value("${app.exam.async.poll-ms:500}")
+    private long pollMs;
+
+    @Value("${app.exam.async.stale-seconds:300}")
+    private int staleSeconds;
+
+    @Value("${app.exam.async.max-retries:3}")
+    private int maxRetries;
+
+    private ExecutorService pool;
+    private Semaphore idleWorkers;
+    private Thread dispatcher;
+    private volatile boolean running;
+    private final Object signal = new Object();
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong graded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong groupFallbacks = new AtomicLong();
+    private final AtomicLong requeued = new AtomicLong();
+
+    private Timer groupTimer;
+    private Timer latencyTimer;
+
+    @PostConstruct
+    public void registerMeters() {
+        groupTimer = Timer.builder("exam.submission.grading")
+                .description("一批答卷判分并提交事务的耗时")
+                .register(meterRegistry);
+        latencyTimer = Timer.builder("exam.submission.latency")
+                .description("交卷到出分的耗时")
+                .register(meterRegistry);
+        Gauge.builder("exam.submission.queue.depth", backlog, AtomicLong::get)
+                .description("待判分的答卷数")
+                .register(meterRegistry);
+        Gauge.builder("exam.submission.in.flight", inFlight, AtomicInteger::get)
+                .description("判分中的答卷数")
+                .register(meterRegistry);
+        FunctionCounter.builder("exam.submission.graded", graded, AtomicLong::get)
+                .description("已出分的答卷数")
+                .register(meterRegistry);
+        FunctionCounter.builder("exam.submission.failed", failed, AtomicLong::get)
+                .description("判分失败的答卷数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 应用就绪后再启动调度线程：exam_submission 表由 SystemInitService 在启动阶段创建，
+     * ApplicationRunner 都跑完才会发布 ApplicationReadyEvent
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("⏸️ 异步交卷未启用");
+            return;
+        }
+        // 线程数和队列都有界；调度线程先拿到空闲名额才领取，所以任务队列不会堆积
+        pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers), r -> {
+                    Thread t = new Thread(r, "exam-grader");
+                    t.setDaemon(true);
+                    return t;
+                });
+        idleWorkers = new Semaphore(workers);
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "exam-submission-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        log.info("✅ 异步交卷队列启动: workers={}, groupSize={}, pollMs={}", workers, groupSize, pollMs);
+    }
+
+    /**
+     * 收卷：写入一条待判分记录就返回回执
+     */
+    public Map<String, Object> accept(ExamService.SubmitDTO dto) {
+        if (!enabled || !running) {
+            throw new CustomException("异步交卷未启用，请使用同步交卷");
+        }
+        examService.validate(dto);
+
+        ExamSubmission submission = new ExamSubmission();
+        submission.setExamId(dto.examId);
+        submission.setCourseId(dto.courseId);
+        submission.setStudentId(dto.studentId);
+        submission.setSubmitTime(LocalDateTime.now());
+        try {
+            submission.setAnswers(ExamSubmissionGrader.toJson(dto.answers));
+        } catch (Exception e) {
+            throw new CustomException("答卷格式错误");
+        }
+        examSubmissionMapper.insert(submission);
+        accepted.incrementAndGet();
+        backlog.incrementAndGet();
+        wakeUp();
+
+        Map<String, Object> r = new HashMap<>();
+        r.put("receiptId", submission.getId());
+        r.put("status", "PENDING");
+        r.put("submitTime", submission.getSubmitTime().toString());
+        return r;
+    }
+
+    /**
+     * 按回执号查判分结果
+     */
+    public Map<String, Object> status(Long receiptId) {
+        ExamSubmission s = examSubmissionMapper.selectById(receiptId);
+        if (s == null) {
+            throw new CustomException("回执不存在");
+        }
+        Map<String, Object> r = new HashMap<>();
+        r.put("receiptId", s.getId());
+        r.put("examId", s.getExamId());
+        r.put("studentId", s.getStudentId());
+        r.put("status", s.getStatus());
+        r.put("submitTime", s.getSubmitTime() == null ? null : s.getSubmitTime().toString());
+        switch (s.getStatus()) {
+            case "GRADED" -> {
+                r.put("attemptNo", s.getAttemptNo());
+                r.put("score", s.getScore());
+                r.put("gradedTime", s.getGradedTime() == null ? null : s.getGradedTime().toString());
+            }
+            case "FAILED" -> r.put("error", s.getErrorMsg());
+            case "PENDING" -> r.put("ahead", examSubmissionMapper.countPendingBefore(s.getId()));
+            default -> {
+            }
+        }
+        return r;
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queue_depth", backlog.get());
+        stats.put("in_flight", inFlight.get());
+        stats.put("workers", workers);
+        stats.put("group_size", groupSize);
+        stats.put("accepted", accepted.get());
+        stats.put("graded", graded.get());
+        stats.put("failed", failed.get());
+        stats.put("groups", groups.get());
+        stats.put("group_fallbacks", groupFallbacks.get());
+        stats.put("requeued", requeued.get());
+        stats.put("grading_mean_ms", Math.round(groupTimer.mean(TimeUnit.MILLISECONDS) * 100) / 100.0);
+        stats.put("grading_max_ms", Math.round(groupTimer.max(TimeUnit.MILLISECONDS) * 100) / 100.0);
+        stats.put("latency_mean_ms", Math.round(latencyTimer.mean(TimeUnit.MILLISECONDS) * 100) / 100.0);
+        stats.put("latency_max_ms", Math.round(latencyTimer.max(TimeUnit.MILLISECONDS) * 100) / 100.0);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) return;
+        running = false;
+        wakeUp();
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+            pool.shutdown();
+            // 已领取的批次尽量判完；没判完的超过 stale-seconds 后会被放回队列
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("⚠️ 异步交卷判分线程关闭超时，判分中 {} 份", inFlight.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("🛑 异步交卷队列已关闭: {}", getStats());
+    }
+
+    private void wakeUp() {
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    private void dispatchLoop() {
+        long lastSweep = 0;
+        while (running) {
+            try {
+                long now = System.currentTimeMillis();
+                if (now - lastSweep >= TimeUnit.SECONDS.toMillis(Math.max(1, staleSeconds / 5))) {
+                    sweepStale();
+                    lastSweep = now;
+                }
+                backlog.set(examSubmissionMapper.countPending());
+
+                idleWorkers.acquire();
+                if (!running) {
+                    idleWorkers.release();
+                    break;
+                }
+                int claimed = claimAndDispatch();
+                if (claimed == 0) {
+                    idleWorkers.release();
+                    synchronized (signal) {
+                        signal.wait(pollMs);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("⚠️ 异步交卷调度异常: {}", e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * 领取一批交给判分线程（调用前已占用一个空闲名额，领到时由判分线程归还）
+     * @return 领取的份数
+     */
+    private int claimAndDispatch() {
+        String token = UUID.randomUUID().toString();
+        int claimed;
+        try {
+            claimed = examSubmissionMapper.claim(token, groupSize);
+        } catch (Exception e) {
+            idleWorkers.release();
+            throw e;
+        }
+        if (claimed == 0) return 0;
+
+        List<ExamSubmission> group = examSubmissionMapper.selectClaimed(token);
+        backlog.addAndGet(-group.size());
+        inFlight.addAndGet(group.size());
+        pool.execute(() -> {
+            try {
+                process(group);
+            } finally {
+                inFlight.addAndGet(-group.size());
+                idleWorkers.release();
+            }
+        });
+        return claimed;
+    }
+
+    private void process(List<ExamSubmission> group) {
+        long start = System.nanoTime();
+        try {
+            examSubmissionGrader.gradeGroup(group);
+            groupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            groups.incrementAndGet();
+            for (ExamSubmission s : group) {
+                onGraded(s);
+            }
+            return;
+        } catch (Exception e) {
+            groupFallbacks.incrementAndGet();
+            log.warn("⚠️ 一批 {} 份答卷判分失败，改为逐份判分: {}", group.size(), e.getMessage());
+        }
+
+        // 整批已回滚，逐份重做，坏答卷只影响它自己
+        for (ExamSubmission s : group) {
+            try {
+                examSubmissionGrader.gradeOne(s);
+                onGraded(s);
+            } catch (ExamSubmissionGrader.ClaimLostException e) {
+                // 已放回队列的答卷由下一次领取判分，这里不算失败
+                log.warn("⚠️ {}", e.getMessage());
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                String msg = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+                log.warn("⚠️ 答卷 {} 判分失败: {}", s.getId(), msg);
+                try {
+                    examSubmissionMapper.markFailed(s.getId(), s.getClaimToken(), msg);
+                } catch (Exception ex) {
+                    log.warn("⚠️ 答卷 {} 失败状态写入失败，等超时重试: {}", s.getId(), ex.getMessage());
+                }
+            }
+        }
+        groupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void onGraded(ExamSubmission s) {
+        graded.incrementAndGet();
+        if (s.getSubmitTime() != null) {
+            latencyTimer.record(Duration.between(s.getSubmitTime(), LocalDateTime.now()));
+        }
+    }
+
+    private void sweepStale() {
+        int back = examSubmissionMapper.requeueStale(staleSeconds, maxRetries);
+        int dead = examSubmissionMapper.failStale(staleSeconds, maxRetries);
+        if (back > 0 || dead > 0) {
+            requeued.addAndGet(back);
+            failed.addAndGet(dead);
+            log.warn("⚠️ 判分超时答卷: 放回队列 {} 份, 记为失败 {} 份", back, dead);
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(Math.max(pollMs, 1000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
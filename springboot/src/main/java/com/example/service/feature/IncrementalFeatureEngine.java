@@ -0,0 +1,194 @@
+package com.example.service.feature;
+
+import com.example.entity.BehaviorChange;
+import com.example.entity.FeatureWatermark;
+import com.example.entity.LearningFeatures;
+import com.example.exception.CustomException;
+import com.example.mapper.FeatureWatermarkMapper;
+import com.example.mapper.LearningFeaturesMapper;
+import com.example.service.metrics.MetricsSink;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 增量特征计算
+ *
+ * feature_watermark 里记着 student_behavior 已处理到的 (update_time, id)。
+ * 每次只把高水位之后变更过的行对应的 (学生, 课程, 日期) 找出来，
+ * 只对这些 key 重跑聚合并 upsert 到 learning_features，处理完再推进高水位。
+ * 中途失败时高水位不动，下次从旧位点重做（upsert 幂等）。
+ *
+ * 为了不漏掉“时间戳较早但提交较晚”的行，只处理 safetySeconds 秒之前的变更。
+ */
+@Service
+public class IncrementalFeatureEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalFeatureEngine.class);
+
+    static final String SOURCE_STUDENT_BEHAVIOR = "student_behavior";
+
+    // 每条 IN (...) 重算多少个 key
+    private static final int RECOMPUTE_CHUNK_SIZE = 500;
+
+    @Resource
+    private LearningFeaturesMapper learningFeaturesMapper;
+
+    @Resource
+    private FeatureWatermarkMapper featureWatermarkMapper;
+
+    @Resource
+    private MetricsSink metricsSink;
+
+    @Value("${app.features.scan-page-size:1000}")
+    private int scanPageSize;
+
+    @Value("${app.features.max-keys-per-run:20000}")
+    private int maxKeysPerRun;
+
+    @Value("${app.features.safety-seconds:10}")
+    private int safetySeconds;
+
+    @Value("${app.features.initial-days:7}")
+    private int initialDays;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 运行状态（给监控接口用）
+    private volatile LocalDateTime watermarkTime;
+    private volatile Long watermarkId;
+    private volatile LocalDateTime processedUpTo;   // update_time 不晚于它的变更都已反映到 learning_features
+    private volatile int lastDirtyKeys;
+    private volatile int lastUpserted;
+    private volatile long lastCostMs;
+    private volatile LocalDateTime lastRunTime;
+
+    /**
+     * 执行一轮增量计算，返回 upsert 的特征行数
+     * 上一轮还没跑完时直接跳过
+     */
+    public int runIncremental() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("⏭️ 增量特征计算仍在进行，跳过本次");
+            return 0;
+        }
+
+        long startTime = System.currentTimeMillis();
+        String taskId = "FEATURE_INCR_" + startTime;
+        try {
+            int upserted = doRun();
+            lastCostMs = System.currentTimeMillis() - startTime;
+            lastRunTime = LocalDateTime.now();
+            recordMetrics(taskId, upserted > 0 ? "SUCCESS" : "NO_DATA");
+            log.info("✅ [增量特征-{}] 变更 key {} 个，upsert {} 行，延迟 {}s，耗时 {}ms",
+                    taskId, lastDirtyKeys, upserted, getLagSeconds(), lastCostMs);
+            return upserted;
+        } catch (Exception e) {
+            lastCostMs = System.currentTimeMillis() - startTime;
+            recordMetrics(taskId, "FAILED");
+            throw new CustomException("增量特征计算失败: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int doRun() {
+        LocalDateTime upperTime = LocalDateTime.now().minusSeconds(safetySeconds).withNano(0);
+
+        FeatureWatermark watermark = featureWatermarkMapper.selectBySource(SOURCE_STUDENT_BEHAVIOR);
+        LocalDateTime lastTime;
+        long lastId;
+        if (watermark == null) {
+            // 第一次运行：和原来的夜间全量一样，从最近 initialDays 天开始
+            lastTime = LocalDate.now().minusDays(initialDays).atStartOfDay();
+            lastId = 0L;
+        } else {
+            lastTime = watermark.getLastTime();
+            lastId = watermark.getLastId() == null ? 0L : watermark.getLastId();
+        }
+
+        // 1) 扫描高水位之后的变更行，按 (学生, 课程, 日期) 去重
+        Map<String, BehaviorChange> dirtyKeys = new LinkedHashMap<>();
+        boolean drained = false;
+        while (dirtyKeys.size() < maxKeysPerRun) {
+            List<BehaviorChange> page = learningFeaturesMapper.selectChangedBehavior(lastTime, lastId, upperTime, scanPageSize);
+            if (page == null || page.isEmpty()) {
+                drained = true;
+                break;
+            }
+            for (BehaviorChange change : page) {
+                dirtyKeys.putIfAbsent(change.getStudentId() + ":" + change.getCourseId() + ":" + change.getBehaviorDate(), change);
+            }
+            BehaviorChange last = page.get(page.size() - 1);
+            lastTime = last.getUpdateTime();
+            lastId = last.getId();
+            if (page.size() < scanPageSize) {
+                drained = true;
+                break;
+            }
+        }
+
+        // 2) 只重算这些 key
+        List<BehaviorChange> keys = new ArrayList<>(dirtyKeys.values());
+        int upserted = 0;
+        for (int from = 0; from < keys.size(); from += RECOMPUTE_CHUNK_SIZE) {
+            List<BehaviorChange> chunk = keys.subList(from, Math.min(keys.size(), from + RECOMPUTE_CHUNK_SIZE));
+            List<LearningFeatures> rows = learningFeaturesMapper.calculateFeaturesForKeys(chunk);
+            if (rows != null && !rows.isEmpty()) {
+                learningFeaturesMapper.insertOrUpdateBatch(rows);
+                upserted += rows.size();
+            }
+        }
+
+        // 3) 特征写完才推进高水位
+        if (!keys.isEmpty() || watermark == null) {
+            featureWatermarkMapper.upsert(SOURCE_STUDENT_BEHAVIOR, lastTime, lastId);
+        }
+
+        watermarkTime = lastTime;
+        watermarkId = lastId;
+        // 扫到底了说明 upperTime 之前的变更都处理完；被 maxKeysPerRun 截断时只处理到高水位
+        processedUpTo = drained ? upperTime : lastTime;
+        lastDirtyKeys = keys.size();
+        lastUpserted = upserted;
+        return upserted;
+    }
+
+    /**
+     * 特征延迟（秒）：当前时间与“已全部反映到 learning_features 的时间点”之差，还没跑过时为 -1
+     */
+    public long getLagSeconds() {
+        LocalDateTime upTo = processedUpTo;
+        return upTo == null ? -1 : Duration.between(upTo, LocalDateTime.now()).getSeconds();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("watermark_time", watermarkTime == null ? null : watermarkTime.toString());
+        stats.put("watermark_id", watermarkId);
+        stats.put("lag_seconds", getLagSeconds());
+        stats.put("last_dirty_keys", lastDirtyKeys);
+        stats.put("last_upserted", lastUpserted);
+        stats.put("last_cost_ms", lastCostMs);
+        stats.put("last_run_time", lastRunTime == null ? null : lastRunTime.toString());
+        stats.put("running", running.get());
+        return stats;
+    }
+
+    private void recordMetrics(String taskId, String status) {
+        metricsSink.record("feature_incremental", taskId, lastCostMs, status, (double) lastDirtyKeys);
+        metricsSink.record("feature_lag_seconds", taskId, lastCostMs, status, (double) getLagSeconds());
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.service.feature;
+
+import com.example.algorithm.RiskPredictor;
+import com.example.entity.LearningFeatures;
+import com.example.entity.StudentBehaviorEvent;
+import com.example.mapper.HomeworkMapper;
+import com.example.mapper.LearningFeaturesMapper;
+import com.example.mapper.StudentBehaviorEventMapper;
+import com.example.service.ingest.BehaviorEventIngestor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 实时特征物化（student_behavior_event -> learning_features）
+ *
+ * 内存里按 (学生, 课程, 日期) 维护当天的事件汇总：登录次数、观看秒数、是否看完、
+ * 提交过的作业、作业得分、迟交次数、事件总数。每个 key 第一次出现时用一条聚合 SQL 从事件表补齐，
+ * 之后只在事件写库成功后累加（同步写在事务提交后，异步管道在批量写入成功后）。
+ * 定时把有变化的 key 批量 upsert 到 learning_features，并立即重新打分，风险分数秒级跟上学习行为。
+ *
+ * 当天还没有特征行时按事件汇总插入整行；已有的行里观看时长、完成率、作业提交率、登录次数
+ * 和 student_behavior 的增量/夜间任务取较大值（都是当天累计量，只进事件表的视频心跳也能体现），
+ * 作业均分、迟交次数、距上次登录天数、互动水平按事件汇总更新；视频参与度、专注度仍归 student_behavior。
+ */
+@Service
+public class RealtimeFeatureUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(RealtimeFeatureUpdater.class);
+
+    // 每条 upsert / 打分 SQL 处理多少个 key
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    // 互动水平：一天 50 个事件封顶（和 Behavior_Feature_Select 的口径一致）
+    private static final double INTERACTION_CAP = 50.0;
+
+    @Resource
+    private StudentBehaviorEventMapper studentBehaviorEventMapper;
+
+    @Resource
+    private LearningFeaturesMapper learningFeaturesMapper;
+
+    @Resource
+    private HomeworkMapper homeworkMapper;
+
+    @Resource
+    private RiskPredictor riskPredictor;
+
+    @Resource
+    private BehaviorEventIngestor behaviorEventIngestor;
+
+    @Value("${app.features.realtime-enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.features.realtime-rescore:true}")
+    private boolean rescore;
+
+    private final Map<DayKey, DayAggregate> aggregates = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile int lastFlushRows;
+    private volatile long lastFlushCostMs;
+    private volatile LocalDateTime lastFlushTime;
+
+    @PostConstruct
+    public void init() {
+        // 视频心跳走异步管道：批量写入成功后再累加
+        behaviorEventIngestor.setFlushListener(this::onBatchWritten);
+        log.info("✅ 实时特征物化{}", enabled ? "已启用" : "未启用");
+    }
+
+    /**
+     * 确保 key 已从事件表补齐
+     * 调用方必须在写事件之前调用，补齐时就不会把本次事件算进去，之后的 afterWrite 也不会重复累加
+     */
+    public void prepare(Integer studentId, Integer courseId, LocalDateTime eventTime) {
+        if (!enabled || studentId == null || courseId == null) return;
+        DayKey key = new DayKey(studentId, courseId, (eventTime == null ? LocalDateTime.now() : eventTime).toLocalDate());
+        if (aggregates.containsKey(key)) return;
+
+        // 查库放在 Map 外面做，避免持有 ConcurrentHashMap 的桶锁去等数据库
+        DayAggregate loaded;
+        try {
+            LocalDateTime from = key.day().atStartOfDay();
+            loaded = DayAggregate.fromSummary(
+                    studentBehaviorEventMapper.summarizeDay(studentId, courseId, from, from.plusDays(1)));
+        } catch (Exception e) {
+            // 补齐失败不影响写事件，只是这个 key 暂不做实时物化（夜间/增量任务兜底）
+            log.warn("⚠️ 实时特征补齐失败 student={}, course={}, day={}: {}", studentId, courseId, key.day(), e.getMessage());
+            return;
+        }
+        aggregates.putIfAbsent(key, loaded);
+    }
+
+    /**
+     * 同步写入一条事件之后调用：在事务里就等提交后再累加，回滚则不计
+     * value 对视频类事件是观看秒数
+     */
+    public void afterWrite(Integer studentId, Integer courseId, String behaviorType, String relatedId,
+                           Double score, boolean late, Double value, LocalDateTime eventTime) {
+        if (!enabled || studentId == null || courseId == null) return;
+        LocalDateTime time = eventTime == null ? LocalDateTime.now() : eventTime;
+        Runnable apply = () -> apply(studentId, courseId, behaviorType, relatedId, score, late, value, time);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * 异步管道批量写入成功后的回调（在写线程里执行）
+     */
+    public void onBatchWritten(List<StudentBehaviorEvent> batch) {
+        if (!enabled) return;
+        for (StudentBehaviorEvent e : batch) {
+            apply(e.getStudentId(), e.getCourseId(), e.getBehaviorType(), e.getRelatedId(), e.getScore(),
+                    Boolean.TRUE.equals(e.getIsLate()), e.getBehaviorValue(), e.getBehaviorTime());
+        }
+    }
+
+    private void apply(Integer studentId, Integer courseId, String behaviorType, String relatedId,
+                       Double score, boolean late, Double value, LocalDateTime eventTime) {
+        LocalDate day = (eventTime == null ? LocalDateTime.now() : eventTime).toLocalDate();
+        // 没有 prepare 过（补齐失败或已过期清掉）的 key 不累加，否则会少算当天已有的事件
+        DayAggregate aggregate = aggregates.get(new DayKey(studentId, courseId, day));
+        if (aggregate == null) return;
+        aggregate.apply(behaviorType, relatedId, score, late, value);
+        applied.incrementAndGet();
+    }
+
+    /**
+     * 把有变化的 key 写到 learning_features 并重新打分
+     */
+    @Scheduled(fixedDelayString = "${app.features.realtime-flush-ms:5000}")
+    public void flush() {
+        if (!enabled || aggregates.isEmpty()) return;
+        if (!flushing.compareAndSet(false, true)) return;
+
+        long start = System.currentTimeMillis();
+        try {
+            List<DayKey> keys = new ArrayList<>();
+            List<DayAggregate> owners = new ArrayList<>();
+            List<LearningFeatures> rows = new ArrayList<>();
+            Map<Integer, Integer> homeworkTotals = new HashMap<>();
+
+            for (Map.Entry<DayKey, DayAggregate> entry : aggregates.entrySet()) {
+                Snapshot snapshot = entry.getValue().drainIfDirty();
+                if (snapshot == null) continue;
+                keys.add(entry.getKey());
+                owners.add(entry.getValue());
+                rows.add(toFeatures(entry.getKey(), snapshot, homeworkTotals));
+            }
+            if (rows.isEmpty()) return;
+
+            int written = 0;
+            for (int from = 0; from < rows.size(); from += FLUSH_CHUNK_SIZE) {
+                int to = Math.min(rows.size(), from + FLUSH_CHUNK_SIZE);
+                List<LearningFeatures> chunk = rows.subList(from, to);
+                try {
+                    learningFeaturesMapper.upsertRealtimeFeatures(chunk);
+                    written += chunk.size();
+                } catch (Exception e) {
+                    // 写失败的 key 重新标脏，下一轮再写
+                    owners.subList(from, to).forEach(DayAggregate::markDirty);
+                    failedFlushes.incrementAndGet();
+                    log.error("❌ 实时特征写入失败（{} 个 key）: {}", chunk.size(), e.getMessage());
+                    continue;
+                }
+
+                if (rescore) {
+                    try {
+                        riskPredictor.rescoreFeatures(learningFeaturesMapper.selectScoringByKeys(chunk));
+                    } catch (Exception e) {
+                        log.warn("⚠️ 实时特征重新打分失败（{} 个 key）: {}", chunk.size(), e.getMessage());
+                    }
+                }
+            }
+
+            lastFlushRows = written;
+            flushedRows.addAndGet(written);
+            lastFlushCostMs = System.currentTimeMillis() - start;
+            lastFlushTime = LocalDateTime.now();
+            log.debug("实时特征刷新 {} / {} 个 key，耗时 {}ms", written, keys.size(), lastFlushCostMs);
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    private LearningFeatures toFeatures(DayKey key, Snapshot s, Map<Integer, Integer> homeworkTotals) {
+        int totalHomework = homeworkTotals.computeIfAbsent(key.courseId(), this::countHomework);
+
+        LearningFeatures f = new LearningFeatures();
+        f.setStudentId(key.studentId());
+        f.setCourseId(key.courseId());
+        f.setFeatureDate(key.day().toString());
+
+        // 口径和 Behavior_Feature_Select 保持一致：观看时长按分钟，各比例 0-1
+        f.setVideoWatchTime((double) Math.round(s.videoSeconds() / 60.0));
+        f.setVideoCompletionRate(s.videoCompleted() ? 1.0 : 0.0);
+
+        f.setHomeworkSubmitRate(totalHomework > 0 ? Math.min(1.0, s.homeworkSubmitted() * 1.0 / totalHomework) : 0.0);
+        // 当天没有带分数的提交时传 null：新行留空，已有行保留原值（upsert 里 IFNULL）
+        Double avgScore = s.homeworkScoreCount() > 0 ? s.homeworkScoreSum() / s.homeworkScoreCount() : null;
+        f.setHomeworkAvgScore(avgScore);
+        f.setHomeworkQualityScore(avgScore);
+        f.setHomeworkDelayCount(s.homeworkLateCount());
+
+        f.setLoginFrequency(s.loginCount());
+        f.setLastLoginDays(s.loginCount() > 0 ? (int) (LocalDate.now().toEpochDay() - key.day().toEpochDay()) : null);
+        f.setInteractionLevel(Math.min(1.0, s.eventCount() / INTERACTION_CAP));
+        return f;
+    }
+
+    private int countHomework(Integer courseId) {
+        try {
+            return homeworkMapper.count(courseId, null);
+        } catch (Exception e) {
+            log.warn("⚠️ 查询课程作业数失败 course={}: {}", courseId, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 零点过后先把前一天剩余的变化写掉，再清掉过期的 key
+     */
+    @Scheduled(cron = "0 2 0 * * ?")
+    public void evictExpired() {
+        flush();
+        LocalDate today = LocalDate.now();
+        int before = aggregates.size();
+        aggregates.entrySet().removeIf(e -> e.getKey().day().isBefore(today) && !e.getValue().isDirty());
+        log.info("🧹 实时特征累加器清理过期 key {} 个，剩余 {} 个", before - aggregates.size(), aggregates.size());
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long dirty = aggregates.values().stream().filter(DayAggregate::isDirty).count();
+        stats.put("enabled", enabled);
+        stats.put("tracked_keys", aggregates.size());
+        stats.put("dirty_keys", dirty);
+        stats.put("applied_events", applied.get());
+        stats.put("flushed_rows", flushedRows.get());
+        stats.put("failed_flushes", failedFlushes.get());
+        stats.put("last_flush_rows", lastFlushRows);
+        stats.put("last_flush_cost_ms", lastFlushCostMs);
+        stats.put("last_flush_time", lastFlushTime == null ? null : lastFlushTime.toString());
+        return stats;
+    }
+
+    private record DayKey(Integer studentId, Integer courseId, LocalDate day) {
+    }
+
+    /**
+     * 某一时刻的汇总值（flush 时拷出来，不持有锁去写库）
+     */
+    private record Snapshot(int loginCount, double videoSeconds, boolean videoCompleted,
+                            int homeworkSubmitted, double homeworkScoreSum, int homeworkScoreCount,
+                            int homeworkLateCount, int eventCount) {
+    }
+
+    /**
+     * 单个 学生+课程+日期 的事件汇总
+     */
+    private static final class DayAggregate {
+        private int loginCount;
+        private double videoSeconds;
+        private boolean videoCompleted;
+        private final Set<String> homeworkIds = new HashSet<>();
+        private double homeworkScoreSum;
+        private int homeworkScoreCount;
+        private int homeworkLateCount;
+        private int eventCount;
+        private boolean dirty;
+
+        static DayAggregate fromSummary(Map<String, Object> row) {
+            DayAggregate a = new DayAggregate();
+            if (row == null) return a;
+            a.loginCount = intOf(row.get("login_count"));
+            a.videoSeconds = doubleOf(row.get("video_seconds"));
+            a.videoCompleted = intOf(row.get("video_complete_count")) > 0;
+            Object ids = row.get("homework_ids");
+            if (ids != null && !ids.toString().isEmpty()) {
+                for (String id : ids.toString().split(",")) {
+                    a.homeworkIds.add(id);
+                }
+            }
+            a.homeworkScoreSum = doubleOf(row.get("homework_score_sum"));
+            a.homeworkScoreCount = intOf(row.get("homework_score_count"));
+            a.homeworkLateCount = intOf(row.get("homework_late_count"));
+            a.eventCount = intOf(row.get("event_count"));
+            // 补齐出来的当天数据可能还没进过 learning_features，第一次也写一遍
+            a.dirty = a.eventCount > 0;
+            return a;
+        }
+
+        synchronized void apply(String behaviorType, String relatedId, Double score, boolean late, Double value) {
+            if (behaviorType != null) {
+                switch (behaviorType) {
+                    case "LOGIN" -> loginCount++;
+                    case "VIDEO_PROGRESS", "VIDEO_SESSION", "VIDEO_WATCH" -> videoSeconds += value == null ? 0 : value;
+                    case "VIDEO_COMPLETE" -> videoCompleted = true;
+                    case "HOMEWORK_SUBMIT" -> {
+                        if (relatedId != null) homeworkIds.add(relatedId);
+                        if (score != null) {
+                            homeworkScoreSum += score;
+                            homeworkScoreCount++;
+                        }
+                        if (late) homeworkLateCount++;
+                    }
+                    default -> {
+                        // EXAM / EXAM_SUBMIT 等只计入互动水平
+                    }
+                }
+            }
+            eventCount++;
+            dirty = true;
+        }
+
+        synchronized Snapshot drainIfDirty() {
+            if (!dirty) return null;
+            dirty = false;
+            return new Snapshot(loginCount, videoSeconds, videoCompleted, homeworkIds.size(),
+                    homeworkScoreSum, homeworkScoreCount, homeworkLateCount, eventCount);
+        }
+
+        synchronized void markDirty() {
+            dirty = true;
+        }
+
+        synchronized boolean isDirty() {
+            return dirty;
+        }
+
+        private static int intOf(Object v) {
+            return v instanceof Number n ? n.intValue() : 0;
+        }
+
+        private static double doubleOf(Object v) {
+            return v instanceof Number n ? n.doubleValue() : 0.0;
+        }
+    }
+}
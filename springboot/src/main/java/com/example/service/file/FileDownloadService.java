@@ -0,0 +1,194 @@
+package com.example.service.file;
+
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件下载（流式，支持断点续传 / 拖动进度条）
+ *
+ * 不再把整个文件读成 byte[] 再写出，大视频、多人同时下载也不会占满堆：
+ *   - Tomcat 支持 sendfile 时交给它直接从文件发到 socket（零拷贝，不占请求线程）；
+ *   - 否则用 FileChannel.transferTo 分段写到响应流，每次最多 chunk-size 字节；
+ *   - 支持单段 Range（206 Partial Content / 416），多段 Range 按整个文件返回；
+ *   - ETag 和 Last-Modified 支持条件请求（304），If-Range 不匹配时返回整个文件；
+ *     按内容哈希存储的文件 ETag 就是哈希，内容永不变，允许浏览器长期缓存；其它文件 ETag 取大小 + 修改时间。
+ */
+@Service
+public class FileDownloadService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileDownloadService.class);
+
+    // Tomcat sendfile 约定的请求属性
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Resource
+    private FileStorageService fileStorageService;
+
+    @Value("${app.files.sendfile-enabled:true}")
+    private boolean sendfileEnabled;
+
+    @Value("${app.files.chunk-size:1048576}")
+    private long chunkSize;
+
+    private final AtomicLong fullResponses = new AtomicLong();
+    private final AtomicLong partialResponses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong sendfileResponses = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+
+    /**
+     * 输出文件内容到响应
+     * @param downloadName 另存为的文件名，null 用 fileName
+     */
+    public void download(String fileName, String downloadName, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Path file = fileStorageService.resolve(fileName);
+        if (file == null || !Files.isRegularFile(file) || !Files.isReadable(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "文件不存在");
+            return;
+        }
+
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        boolean immutable = fileStorageService.isContentAddressed(fileName);
+        String etag = immutable
+                ? "\"" + fileName.substring(0, 64) + "\""
+                : "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        if (immutable) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        }
+
+        // If-None-Match / If-Modified-Since 命中时 Spring 已写好 304 和 ETag / Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            notModified.incrementAndGet();
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment;filename=" + URLEncoder.encode(
+                        downloadName == null || downloadName.isBlank() ? fileName : downloadName, StandardCharsets.UTF_8));
+        response.setContentType(MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                long rangeStart = range.getRangeStart(length);
+                long rangeEnd = range.getRangeEnd(length);
+                if (length == 0 || rangeStart >= length || rangeStart > rangeEnd) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                start = rangeStart;
+                end = rangeEnd;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                partialResponses.incrementAndGet();
+            } else {
+                // 多段或格式不对：按 RFC 7233 可以忽略 Range，返回整个文件
+                fullResponses.incrementAndGet();
+            }
+        } else {
+            fullResponses.incrementAndGet();
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(Math.max(0, count));
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (sendfileEnabled && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            sendfileResponses.incrementAndGet();
+            bytesServed.addAndGet(count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, Math.min(chunkSize, remaining), out);
+                if (written <= 0) break;
+                position += written;
+                remaining -= written;
+            }
+            bytesServed.addAndGet(count - remaining);
+        } catch (IOException e) {
+            // 播放器拖动进度条、用户取消下载都会中途断开连接，不算错误
+            log.debug("文件下载中断 {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("full_responses", fullResponses.get());
+        stats.put("partial_responses", partialResponses.get());
+        stats.put("not_modified", notModified.get());
+        stats.put("sendfile_responses", sendfileResponses.get());
+        stats.put("bytes_served", bytesServed.get());
+        return stats;
+    }
+
+    /**
+     * If-Range 与当前 ETag / 修改时间一致（或没带）时才按 Range 返回，否则文件已变，返回整个文件
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return etag.equals(ifRange);
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return since != -1 && lastModified / 1000 <= since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
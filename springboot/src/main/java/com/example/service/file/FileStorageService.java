@@ -0,0 +1,167 @@
+package com.example.service.file;
+
+import com.example.exception.CustomException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 本地文件存储（按内容 SHA-256 寻址，相同文件只存一份）
+ *
+ * 上传时边读边算哈希，写进 files/.tmp 下的临时文件，不再 getBytes() 把整个文件读进内存；
+ * 写完按哈希放到 files/sha256/前2位/再2位/哈希，已存在就删掉临时文件（去重）。
+ * 下载名是 "哈希.扩展名"（扩展名只用来定 Content-Type），内容相同扩展名不同也只存一份；
+ * 存储名只由内容决定，同一份课件传多少次都是同一个下载地址；
+ * 以前按 "时间戳-原文件名" 存在 files/ 下的文件仍按原名下载。
+ */
+@Service
+public class FileStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+
+    private static final Pattern HASHED_NAME = Pattern.compile("^[0-9a-f]{64}(\\.[a-z0-9]{1,10})?$");
+    private static final Pattern EXTENSION = Pattern.compile("^[a-z0-9]{1,10}$");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // 本地磁盘文件的存储路径
+    private final Path baseDir = Paths.get(System.getProperty("user.dir"), "files").toAbsolutePath().normalize();
+    private final Path hashDir = baseDir.resolve("sha256");
+    private final Path tmpDir = baseDir.resolve(".tmp");
+
+    private final AtomicLong uploads = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong bytesStored = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * 保存上传的文件
+     * @return 存储名（哈希.扩展名），下载地址用它
+     */
+    public StoredFile store(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new CustomException("上传文件不能为空");
+        }
+        Path tmp = null;
+        try {
+            Files.createDirectories(tmpDir);
+            tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = file.getInputStream(); OutputStream out = Files.newOutputStream(tmp)) {
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                    size += n;
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String name = hash + extension(file.getOriginalFilename());
+            Path target = locate(hash);
+            Files.createDirectories(target.getParent());
+
+            boolean dedup;
+            if (Files.exists(target)) {
+                dedup = true;
+            } else {
+                try {
+                    // 临时目录和目标在同一个文件系统里，rename 是原子的
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                    tmp = null;
+                    dedup = false;
+                } catch (FileAlreadyExistsException e) {
+                    // 另一个请求刚好同时传了同一个文件（有的文件系统 rename 会直接覆盖，内容相同也无妨）
+                    dedup = true;
+                }
+            }
+
+            uploads.incrementAndGet();
+            if (dedup) {
+                deduplicated.incrementAndGet();
+                bytesSaved.addAndGet(size);
+            } else {
+                bytesStored.addAndGet(size);
+            }
+            return new StoredFile(name, hash, size, dedup);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.warn("⚠️ 文件上传失败 {}: {}", file.getOriginalFilename(), e.getMessage());
+            throw new CustomException("文件上传失败");
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    log.debug("临时文件删除失败 {}: {}", tmp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 下载名对应的磁盘路径；不在存储目录里的返回 null（防止 ../ 读到其它文件）
+     */
+    public Path resolve(String fileName) {
+        if (fileName == null || fileName.isBlank()) return null;
+        if (isContentAddressed(fileName)) {
+            return locate(fileName);
+        }
+        Path file = baseDir.resolve(fileName).normalize();
+        return file.startsWith(baseDir) && !file.startsWith(tmpDir) ? file : null;
+    }
+
+    /**
+     * 是否按内容哈希存储（内容不会变，可以长期缓存）
+     */
+    public boolean isContentAddressed(String fileName) {
+        return fileName != null && HASHED_NAME.matcher(fileName).matches();
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("uploads", uploads.get());
+        stats.put("deduplicated", deduplicated.get());
+        stats.put("bytes_stored", bytesStored.get());
+        stats.put("bytes_saved", bytesSaved.get());
+        return stats;
+    }
+
+    private Path locate(String hashedName) {
+        String hash = hashedName.substring(0, 64);
+        return hashDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static String extension(String originalName) {
+        if (originalName == null) return "";
+        int dot = originalName.lastIndexOf('.');
+        if (dot < 0 || dot == originalName.length() - 1) return "";
+        String ext = originalName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(ext).matches() ? "." + ext : "";
+    }
+
+    public record StoredFile(String name, String sha256, long size, boolean deduplicated) {
+    }
+}
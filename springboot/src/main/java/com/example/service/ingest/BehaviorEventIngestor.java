@@ -0,0 +1,216 @@
+package com.example.service.ingest;
+
+import com.example.entity.StudentBehaviorEvent;
+import com.example.exception.CustomException;
+import com.example.mapper.StudentBehaviorEventMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * student_behavior_event 异步写入管道
+ *
+ * 请求线程只负责把事件放进有界队列就返回；后台单线程攒批，
+ * 满 batchSize 条或等够 lingerMs 毫秒就用一条多行 INSERT 提交。
+ * 队列满时请求线程最多等待 offerTimeoutMs，仍放不进去就拒绝（背压）。
+ * 应用关闭时停止接收新事件，并把队列里剩余的事件全部写完。
+ * 入队（检查运行状态 + offer）持读锁，关闭时持写锁翻转状态：写锁拿到后不会再有事件进队，
+ * 写线程看到 running=false 时队列里已经是全部事件，不会漏写。
+ */
+@Service
+public class BehaviorEventIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(BehaviorEventIngestor.class);
+
+    private static final int MAX_FLUSH_RETRIES = 3;
+
+    @Resource
+    private StudentBehaviorEventMapper studentBehaviorEventMapper;
+
+    @Value("${app.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.ingest.linger-ms:200}")
+    private long lingerMs;
+
+    @Value("${app.ingest.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    private BlockingQueue<StudentBehaviorEvent> queue;
+    private Thread writer;
+    private volatile boolean running;
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+
+    // 批量写入成功后的回调（在写线程里执行）
+    private volatile Consumer<List<StudentBehaviorEvent>> flushListener;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::runLoop, "behavior-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("✅ 行为事件写入管道启动: capacity={}, batchSize={}, lingerMs={}", queueCapacity, batchSize, lingerMs);
+    }
+
+    /**
+     * 提交一条事件，成功入队即返回
+     * @throws CustomException 队列已满或管道已关闭
+     */
+    public void submit(StudentBehaviorEvent event) {
+        boolean offered;
+        runningLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new CustomException("服务正在关闭，请稍后重试");
+            }
+            offered = queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offered = false;
+        } finally {
+            runningLock.readLock().unlock();
+        }
+        if (!offered) {
+            rejected.incrementAndGet();
+            throw new CustomException("系统繁忙，请稍后重试");
+        }
+        accepted.incrementAndGet();
+    }
+
+    public void setFlushListener(Consumer<List<StudentBehaviorEvent>> flushListener) {
+        this.flushListener = flushListener;
+    }
+
+    /**
+     * 管道运行状态（队列深度、累计接收/拒绝/写入/丢弃条数、批次数）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queue_depth", queue.size());
+        stats.put("queue_capacity", queueCapacity);
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.get());
+        stats.put("batches", batches.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 等正在入队的请求放完，之后的 submit 都会被拒绝
+        runningLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+        try {
+            // 写线程发现 running=false 后会把队列清空再退出
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("⚠️ 行为事件写入管道关闭超时，剩余 {} 条未写入", queue.size());
+        }
+        log.info("🛑 行为事件写入管道已关闭: {}", getStats());
+    }
+
+    private void runLoop() {
+        List<StudentBehaviorEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                StudentBehaviorEvent first = queue.poll(lingerMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // 攒批：先把已有的取走，不够再等到 linger 截止
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                queue.drainTo(batch, batchSize - batch.size());
+                while (batch.size() < batchSize && running) {
+                    long waitNanos = deadline - System.nanoTime();
+                    if (waitNanos <= 0) break;
+                    StudentBehaviorEvent next = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 关闭阶段不响应中断，继续把剩余事件写完
+                Thread.interrupted();
+            } catch (Exception e) {
+                log.error("❌ 行为事件写入管道异常: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<StudentBehaviorEvent> batch) {
+        if (batch.isEmpty()) return;
+
+        for (int attempt = 1; attempt <= MAX_FLUSH_RETRIES; attempt++) {
+            try {
+                studentBehaviorEventMapper.insertEventBatch(batch);
+                written.addAndGet(batch.size());
+                batches.incrementAndGet();
+                notifyListener(batch);
+                return;
+            } catch (Exception e) {
+                log.warn("⚠️ 行为事件批量写入失败（第 {} 次，{} 条）: {}", attempt, batch.size(), e.getMessage());
+                sleepQuietly(100L * attempt);
+            }
+        }
+
+        dropped.addAndGet(batch.size());
+        log.error("❌ 行为事件批量写入重试耗尽，丢弃 {} 条", batch.size());
+    }
+
+    private void notifyListener(List<StudentBehaviorEvent> batch) {
+        Consumer<List<StudentBehaviorEvent>> listener = flushListener;
+        if (listener == null) return;
+        try {
+            listener.accept(batch);
+        } catch (Exception e) {
+            log.error("❌ 行为事件写入回调失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.service.ingest;
+
+import com.example.mapper.StudentBehaviorEventMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 当天视频观看秒数累加器（按 学生+课程+日期）
+ *
+ * 每个 key 第一次访问时从库里补齐当天已观看秒数和是否已完成（各查一次），
+ * 之后心跳只在内存里累加，完成判定和 VIDEO_COMPLETE 幂等都不再查库。
+ * 过了零点，前一天的 key 由定时任务清掉。
+ */
+@Component
+public class VideoWatchAccumulator {
+
+    private static final Logger log = LoggerFactory.getLogger(VideoWatchAccumulator.class);
+
+    @Resource
+    private StudentBehaviorEventMapper studentBehaviorEventMapper;
+
+    private final Map<WatchKey, WatchState> states = new ConcurrentHashMap<>();
+
+    /**
+     * 取当天观看状态，不存在就从库里补齐
+     * 调用方应在把本次心跳交给写入管道之前先调用，避免补齐时把本次心跳重复算进去
+     */
+    public WatchState stateOf(Integer studentId, Integer courseId, LocalDate day) {
+        WatchKey key = new WatchKey(studentId, courseId, day);
+        WatchState state = states.get(key);
+        if (state != null) return state;
+
+        // 查库放在 Map 外面做，避免持有 ConcurrentHashMap 的桶锁去等数据库
+        Integer watched = studentBehaviorEventMapper.sumVideoSeconds(studentId, courseId, day);
+        Boolean completed = studentBehaviorEventMapper.existsCompleteEvent(studentId, courseId, day);
+        WatchState loaded = new WatchState(watched == null ? 0 : watched, Boolean.TRUE.equals(completed));
+
+        WatchState existing = states.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * 零点过后清掉前一天的状态
+     */
+    @Scheduled(cron = "0 1 0 * * ?")
+    public void evictExpired() {
+        LocalDate today = LocalDate.now();
+        int before = states.size();
+        states.keySet().removeIf(key -> key.day().isBefore(today));
+        log.info("🧹 视频观看累加器清理过期状态 {} 条，剩余 {} 条", before - states.size(), states.size());
+    }
+
+    private record WatchKey(Integer studentId, Integer courseId, LocalDate day) {
+    }
+
+    /**
+     * 单个 学生+课程+日期 的观看状态
+     */
+    public static final class WatchState {
+        private double watchedSeconds;
+        private boolean completed;
+
+        WatchState(double watchedSeconds, boolean completed) {
+            this.watchedSeconds = watchedSeconds;
+            this.completed = completed;
+        }
+
+        /**
+         * 累加观看秒数；本次首次达到阈值时返回 true（调用方负责写 VIDEO_COMPLETE）
+         * threshold < 0 表示只累加、不判定
+         */
+        public synchronized boolean addAndCheckComplete(double deltaSeconds, double threshold) {
+            watchedSeconds += deltaSeconds;
+            if (completed || threshold < 0 || watchedSeconds < threshold) {
+                return false;
+            }
+            completed = true;
+            return true;
+        }
+
+        /**
+         * VIDEO_COMPLETE 没能写入时回退完成标记，下次心跳再判定
+         */
+        public synchronized void resetCompleted() {
+            completed = false;
+        }
+
+        public synchronized double getWatchedSeconds() {
+            return watchedSeconds;
+        }
+
+        public synchronized boolean isCompleted() {
+            return completed;
+        }
+    }
+}
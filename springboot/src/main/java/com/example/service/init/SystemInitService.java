@@ -1,6 +1,10 @@
 package com.example.service.init;
 
+import com.example.mapper.ExamSubmissionMapper;
+import com.example.mapper.FeatureWatermarkMapper;
+import com.example.mapper.RiskAlertDailyMapper;
 import com.example.mapper.SystemMetricMapper;
+import com.example.service.rollup.RiskAlertRollupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +21,18 @@ public class SystemInitService implements ApplicationRunner {
     @Autowired
     private SystemMetricMapper systemMetricMapper;
 
+    @Autowired
+    private FeatureWatermarkMapper featureWatermarkMapper;
+
+    @Autowired
+    private ExamSubmissionMapper examSubmissionMapper;
+
+    @Autowired
+    private RiskAlertDailyMapper riskAlertDailyMapper;
+
+    @Autowired
+    private RiskAlertRollupService riskAlertRollupService;
+
     @Autowired(required = false)
     private JdbcTemplate jdbcTemplate;
 
@@ -28,6 +44,7 @@ public class SystemInitService implements ApplicationRunner {
             // 1. 创建系统指标表
             systemMetricMapper.createMetricsTableIfNotExists();
             log.info("✅ 系统指标表初始化完成");
+            addMetricValueColumnIfMissing();
 
             // 2. 创建健康检查视图（如果不存在）
             createHealthViewIfNotExists();
@@ -36,13 +53,59 @@ public class SystemInitService implements ApplicationRunner {
             int cleaned = systemMetricMapper.cleanupOldMetrics();
             log.info("🧹 清理过期指标数据: {} 条", cleaned);
 
+            // 4. 增量特征计算用的高水位表和索引
+            featureWatermarkMapper.createTableIfNotExists();
+            log.info("✅ 增量特征高水位表初始化完成");
+            addBehaviorUpdateTimeIndexIfMissing();
+
+            // 5. 异步交卷队列表
+            examSubmissionMapper.createTableIfNotExists();
+            log.info("✅ 异步交卷表初始化完成");
+
         } catch (Exception e) {
             log.warn("⚠️ 系统初始化过程中出现异常（可能表已存在）: {}", e.getMessage());
         }
 
+        // 6. 看板用的预警日汇总表（新建时从 risk_alerts 全量汇总一次）
+        initAlertRollup();
+
         log.info("🚀 系统初始化完成");
     }
 
+    private void addMetricValueColumnIfMissing() {
+        try {
+            systemMetricMapper.addMetricValueColumn();
+            log.info("✅ system_metrics 已补充 metric_value 列");
+        } catch (Exception e) {
+            log.debug("metric_value 列可能已存在: {}", e.getMessage());
+        }
+    }
+
+    private void addBehaviorUpdateTimeIndexIfMissing() {
+        try {
+            featureWatermarkMapper.addBehaviorUpdateTimeIndex();
+            log.info("✅ student_behavior 已补充 idx_update_time 索引");
+        } catch (Exception e) {
+            log.debug("idx_update_time 索引可能已存在: {}", e.getMessage());
+        }
+    }
+
+    private void initAlertRollup() {
+        try {
+            riskAlertDailyMapper.createTableIfNotExists();
+            try {
+                riskAlertDailyMapper.addAlertTimeIndex();
+                log.info("✅ risk_alerts 已补充 idx_alert_time 索引");
+            } catch (Exception e) {
+                log.debug("idx_alert_time 索引可能已存在: {}", e.getMessage());
+            }
+            riskAlertRollupService.rebuildAllIfEmpty();
+            log.info("✅ 预警日汇总表初始化完成");
+        } catch (Exception e) {
+            log.warn("⚠️ 预警日汇总表初始化失败: {}", e.getMessage());
+        }
+    }
+
     private void createHealthViewIfNotExists() {
         try {
             if (jdbcTemplate != null) {
@@ -0,0 +1,71 @@
+package com.example.service.metrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 无锁有界环形缓冲（多生产者、单消费者）
+ *
+ * 生产者用 CAS 抢占 tail 上的一个位置再写入槽位，满了直接返回 false，从不阻塞；
+ * 消费者从 head 依次取，遇到已抢占但还没写完的槽位就停下，下次再取。
+ * 容量取不小于 capacity 的 2 的幂，下标用位与代替取模。
+ */
+class MetricRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // 只有消费者线程写 head
+    private final AtomicLong head = new AtomicLong();
+
+    MetricRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 放入一个元素，满了返回 false
+     */
+    boolean offer(T item) {
+        while (true) {
+            long t = tail.get();
+            if (t - head.get() >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.lazySet((int) (t & mask), item);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 取出最多 max 个元素放进 out（只能由一个线程调用）
+     * @return 取出的个数
+     */
+    int drainTo(List<T> out, int max) {
+        long h = head.get();
+        int n = 0;
+        while (n < max) {
+            int index = (int) (h & mask);
+            T item = slots.get(index);
+            if (item == null) break;
+            slots.lazySet(index, null);
+            out.add(item);
+            h++;
+            n++;
+        }
+        head.lazySet(h);
+        return n;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.service.metrics;
+
+import com.example.entity.SystemMetric;
+import com.example.mapper.SystemMetricMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * system_metrics 异步批量写入
+ *
+ * record 只把指标放进无锁环形缓冲就返回，不查库、不加锁、不阻塞；缓冲满了丢掉并计数。
+ * 定时任务每隔 flush-ms 把缓冲里的指标用多行 INSERT 写库，每批最多 batch-size 条。
+ * 指标写在调用方事务之外，业务回滚了执行记录也还在；写库失败只丢这一批，不重试。
+ */
+@Service
+public class MetricsSink {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsSink.class);
+
+    @Resource
+    private SystemMetricMapper systemMetricMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.metrics-sink.capacity:8192}")
+    private int capacity;
+
+    @Value("${app.metrics-sink.batch-size:500}")
+    private int batchSize;
+
+    private MetricRingBuffer<SystemMetric> buffer;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile LocalDateTime lastFlushTime;
+
+    @PostConstruct
+    public void init() {
+        buffer = new MetricRingBuffer<>(capacity);
+        FunctionCounter.builder("metrics.sink.dropped", dropped, AtomicLong::get)
+                .description("缓冲满被丢弃的 system_metrics 记录数")
+                .register(meterRegistry);
+        FunctionCounter.builder("metrics.sink.written", written, AtomicLong::get)
+                .description("写入 system_metrics 的记录数")
+                .register(meterRegistry);
+        Gauge.builder("metrics.sink.buffered", buffer, MetricRingBuffer::size)
+                .description("等待写入 system_metrics 的记录数")
+                .register(meterRegistry);
+        log.info("✅ 指标异步写入启动: 缓冲 {} 条, 每批 {} 条", buffer.capacity(), batchSize);
+    }
+
+    /**
+     * 记录一次任务执行指标
+     * @return 缓冲满被丢弃时返回 false
+     */
+    public boolean record(String metricName, String taskId, long executionTime, String status) {
+        return record(metricName, taskId, executionTime, status, null);
+    }
+
+    /**
+     * 记录带数值的指标（如吞吐量、延迟）
+     * @return 缓冲满被丢弃时返回 false
+     */
+    public boolean record(String metricName, String taskId, long executionTime, String status, Double metricValue) {
+        SystemMetric metric = new SystemMetric(metricName, taskId, executionTime, status, metricValue, LocalDateTime.now());
+        if (buffer.offer(metric)) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.metrics-sink.flush-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 把缓冲里的指标全部写库（只在定时线程 / 关闭时调用，同一时刻只有一个线程在取）
+     * @return 写入条数
+     */
+    public synchronized int flush() {
+        int total = 0;
+        List<SystemMetric> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                systemMetricMapper.insertMetricBatch(batch);
+                written.addAndGet(batch.size());
+                batches.incrementAndGet();
+                total += batch.size();
+            } catch (Exception e) {
+                failed.addAndGet(batch.size());
+                log.warn("⚠️ system_metrics 批量写入失败, 丢弃 {} 条: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+        if (total > 0) {
+            lastFlushTime = LocalDateTime.now();
+        }
+        return total;
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("capacity", buffer.capacity());
+        stats.put("buffered", buffer.size());
+        stats.put("accepted", accepted.get());
+        stats.put("dropped", dropped.get());
+        stats.put("written", written.get());
+        stats.put("failed", failed.get());
+        stats.put("batches", batches.get());
+        stats.put("last_flush_time", lastFlushTime == null ? null : lastFlushTime.toString());
+        return stats;
+    }
+}
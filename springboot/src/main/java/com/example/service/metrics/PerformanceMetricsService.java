@@ -0,0 +1,132 @@
+package com.example.service.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从 Micrometer 注册表里整理性能指标（给 /api/monitor/performance 用）
+ *
+ * 分位数是各计时器最近约 2 分钟滑动窗口内的 p50/p95/p99（application.yml 的 management.metrics.distribution），
+ * 次数、平均、最大值是启动以来的累计；长期趋势看 /actuator/prometheus。
+ */
+@Service
+public class PerformanceMetricsService {
+
+    private static final int TOP_N = 20;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 接口延迟：按 (uri, method, status) 一组，按 p99 从高到低
+     */
+    public List<Map<String, Object>> httpLatency() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Timer timer : meterRegistry.find("http.server.requests").timers()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("uri", timer.getId().getTag("uri"));
+            row.put("method", timer.getId().getTag("method"));
+            row.put("status", timer.getId().getTag("status"));
+            rows.add(describe(timer, row));
+        }
+        return topByP99(rows);
+    }
+
+    /**
+     * SQL 语句耗时：按 Mapper 方法一组，按 p99 从高到低
+     */
+    public List<Map<String, Object>> statementLatency() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Timer timer : meterRegistry.find("mybatis.statement").timers()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("statement", timer.getId().getTag("statement"));
+            row.put("type", timer.getId().getTag("type"));
+            row.put("outcome", timer.getId().getTag("outcome"));
+            rows.add(describe(timer, row));
+        }
+        return topByP99(rows);
+    }
+
+    /**
+     * 定时任务耗时（@Scheduled 方法，Spring 自动采集）
+     */
+    public List<Map<String, Object>> scheduledTasks() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Timer timer : meterRegistry.find("tasks.scheduled.execution").timers()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("task", timer.getId().getTag("code.namespace") + "." + timer.getId().getTag("code.function"));
+            row.put("outcome", timer.getId().getTag("outcome"));
+            rows.add(describe(timer, row));
+        }
+        rows.sort(Comparator.comparing(r -> String.valueOf(r.get("task"))));
+        return rows;
+    }
+
+    /**
+     * 连接池饱和度：活跃 / 最大，等待连接的线程数，获取连接耗时
+     */
+    public Map<String, Object> connectionPool() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        double active = gauge("hikaricp.connections.active");
+        double max = gauge("hikaricp.connections.max");
+        pool.put("active", (long) active);
+        pool.put("idle", (long) gauge("hikaricp.connections.idle"));
+        pool.put("pending", (long) gauge("hikaricp.connections.pending"));
+        pool.put("max", (long) max);
+        pool.put("saturation", max > 0 ? round(active / max) : 0);
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        if (acquire != null) {
+            pool.put("acquire", describe(acquire, new LinkedHashMap<>()));
+        }
+        Timer usage = meterRegistry.find("hikaricp.connections.usage").timer();
+        if (usage != null) {
+            pool.put("usage", describe(usage, new LinkedHashMap<>()));
+        }
+        return pool;
+    }
+
+    private Map<String, Object> describe(Timer timer, Map<String, Object> row) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        row.put("count", snapshot.count());
+        row.put("mean_ms", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        row.put("max_ms", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile p : snapshot.percentileValues()) {
+            row.put(percentileKey(p.percentile()), round(p.value(TimeUnit.MILLISECONDS)));
+        }
+        return row;
+    }
+
+    private static String percentileKey(double percentile) {
+        // 0.5 -> p50，0.95 -> p95，0.99 -> p99
+        return "p" + (int) Math.round(percentile * 100) + "_ms";
+    }
+
+    private static List<Map<String, Object>> topByP99(List<Map<String, Object>> rows) {
+        rows.sort(Comparator.comparingDouble((Map<String, Object> r) -> {
+            Object v = r.get("p99_ms");
+            return v instanceof Number n ? n.doubleValue() : 0;
+        }).reversed());
+        return rows.size() > TOP_N ? new ArrayList<>(rows.subList(0, TOP_N)) : rows;
+    }
+
+    private double gauge(String name) {
+        Gauge gauge = meterRegistry.find(name).gauge();
+        return gauge == null ? 0 : gauge.value();
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.service.retention;
+
+import com.example.mapper.BehaviorEventPartitionMapper;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 把 student_behavior_event 的一个分区归档成 gzip 压缩的列式文件
+ *
+ * 文件是逐行的 JSON（NDJSON），整体 gzip：
+ *   第一行   文件头：格式、表名、分区、列名
+ *   中间各行 行组：{"rows": n, "data": {"id": [...], "student_id": [...], ...}}，每组最多 ROW_GROUP_SIZE 行，
+ *            同一列的值放在一起，重复度高（学生、课程、类型），压缩率比按行存好得多
+ *   最后一行 {"totalRows": N}，读的时候用来确认文件完整
+ * 先写 .tmp 再改名，半截文件不会被当成归档。
+ */
+@Service
+public class BehaviorEventArchiver {
+
+    static final String FORMAT = "columnar-json-v1";
+    static final String SUFFIX = ".cjson.gz";
+
+    private static final int ROW_GROUP_SIZE = 10_000;
+
+    private static final String[] COLUMNS = {
+            "id", "student_id", "course_id", "behavior_type", "related_id", "score", "is_late",
+            "attempt_no", "behavior_value", "behavior_extra", "behavior_time", "create_time"
+    };
+
+    private static final JsonFactory JSON = new ObjectMapper().getFactory();
+
+    @Resource
+    private BehaviorEventPartitionMapper behaviorEventPartitionMapper;
+
+    /**
+     * 归档一个分区到 dir/分区名.cjson.gz
+     * @return 写入的行数
+     */
+    @Transactional(readOnly = true)
+    public long archivePartition(String partition, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path target = dir.resolve(partition + SUFFIX);
+        Path tmp = dir.resolve(partition + SUFFIX + ".tmp");
+
+        long total = 0;
+        try (Cursor<Map<String, Object>> cursor = behaviorEventPartitionMapper.streamPartition(partition);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024);
+             JsonGenerator gen = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.setRootValueSeparator(null);
+
+            gen.writeStartObject();
+            gen.writeStringField("format", FORMAT);
+            gen.writeStringField("table", "student_behavior_event");
+            gen.writeStringField("partition", partition);
+            gen.writeArrayFieldStart("columns");
+            for (String column : COLUMNS) {
+                gen.writeString(column);
+            }
+            gen.writeEndArray();
+            gen.writeStringField("createdTime", LocalDateTime.now().toString());
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+
+            List<Map<String, Object>> group = new ArrayList<>(ROW_GROUP_SIZE);
+            for (Map<String, Object> row : cursor) {
+                group.add(row);
+                if (group.size() == ROW_GROUP_SIZE) {
+                    writeGroup(gen, group);
+                    total += group.size();
+                    group.clear();
+                }
+            }
+            if (!group.isEmpty()) {
+                writeGroup(gen, group);
+                total += group.size();
+            }
+
+            gen.writeStartObject();
+            gen.writeNumberField("totalRows", total);
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return total;
+    }
+
+    private static void writeGroup(JsonGenerator gen, List<Map<String, Object>> group) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("rows", group.size());
+        gen.writeObjectFieldStart("data");
+        for (String column : COLUMNS) {
+            gen.writeArrayFieldStart(column);
+            for (Map<String, Object> row : group) {
+                writeValue(gen, row.get(column));
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+
+    private static void writeValue(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (value instanceof Timestamp ts) {
+            gen.writeString(ts.toLocalDateTime().toString());
+        } else if (value instanceof TemporalAccessor) {
+            gen.writeString(value.toString());
+        } else if (value instanceof byte[] bytes) {
+            gen.writeString(new String(bytes, StandardCharsets.UTF_8));
+        } else {
+            gen.writeObject(value);
+        }
+    }
+}
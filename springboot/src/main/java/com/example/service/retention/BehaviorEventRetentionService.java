@@ -0,0 +1,277 @@
+package com.example.service.retention;
+
+import com.example.mapper.BehaviorEventPartitionMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * student_behavior_event 分区与保留策略
+ *
+ * 表按 behavior_time 每月一个 RANGE COLUMNS 分区（p202602 存 2026-02 的事件），最后一个 pmax 兜底。
+ * 每天凌晨维护一次：
+ *   1. 表还没分区时只告警、不动表。转换是一次性的迁移步骤（主键改为 (id, behavior_time)，
+ *      分区键必须在主键里），ALTER 会重建整张表、期间阻塞写入，要在低峰手动调
+ *      {@link #convertAndMaintain()}（POST /api/monitor/behavior-retention/convert）；
+ *   2. 预建未来几个月的分区（从 pmax 里拆出来，pmax 平时是空的，很快）；
+ *   3. 整个月都早于保留期的分区：先归档成 files/ 下的压缩列式文件、核对行数，再 DROP PARTITION。
+ * DROP PARTITION 是删文件，不像 DELETE 那样逐行删、写大量 undo。
+ */
+@Service
+public class BehaviorEventRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(BehaviorEventRetentionService.class);
+
+    private static final String TABLE = "student_behavior_event";
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final Pattern SAFE_NAME = Pattern.compile("^[A-Za-z0-9_]+$");
+
+    @Resource
+    private BehaviorEventPartitionMapper behaviorEventPartitionMapper;
+
+    @Resource
+    private BehaviorEventArchiver behaviorEventArchiver;
+
+    @Value("${app.behavior-retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.behavior-retention.retention-days:180}")
+    private int retentionDays;
+
+    @Value("${app.behavior-retention.premake-months:2}")
+    private int premakeMonths;
+
+    @Value("${app.behavior-retention.archive-enabled:true}")
+    private boolean archiveEnabled;
+
+    @Value("${app.behavior-retention.archive-dir:files/archive/student_behavior_event}")
+    private String archiveDir;
+
+    @Value("${app.behavior-retention.convert-unpartitioned:false}")
+    private boolean convertUnpartitioned;
+
+    // 最近一次维护结果（给监控接口用）
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @Scheduled(cron = "${app.behavior-retention.cron:0 10 1 * * ?}")
+    public void scheduledMaintain() {
+        if (!enabled) return;
+        try {
+            maintain();
+        } catch (Exception e) {
+            log.error("❌ 行为事件分区维护失败: {}", e.getMessage(), e);
+            Map<String, Object> failed = new HashMap<>(lastRun);
+            failed.put("last_error", e.getMessage());
+            failed.put("last_error_time", LocalDateTime.now().toString());
+            lastRun = failed;
+        }
+    }
+
+    /**
+     * 执行一次分区维护（DDL 会隐式提交，不能放在事务里调用）
+     */
+    public synchronized Map<String, Object> maintain() throws Exception {
+        return maintain(convertUnpartitioned);
+    }
+
+    /**
+     * 迁移步骤：表还没分区时转成分区表，再做一次维护。
+     * 转换会锁表重建 student_behavior_event，只在低峰由运维显式调用
+     */
+    public synchronized Map<String, Object> convertAndMaintain() throws Exception {
+        return maintain(true);
+    }
+
+    private Map<String, Object> maintain(boolean convert) throws Exception {
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+
+        List<PartitionInfo> partitions = loadPartitions();
+        boolean converted = false;
+        if (partitions.isEmpty()) {
+            if (!convert) {
+                log.warn("⚠️ {} 还没有分区，保留策略不生效；请在低峰调用 POST /api/monitor/behavior-retention/convert 做一次转换", TABLE);
+                return lastRun;
+            }
+            convertToPartitioned(today);
+            converted = true;
+            partitions = loadPartitions();
+        }
+
+        int created = ensureFuturePartitions(partitions, today);
+        if (created > 0) {
+            partitions = loadPartitions();
+        }
+
+        LocalDate cutoff = today.minusDays(retentionDays);
+        List<String> archived = new ArrayList<>();
+        List<String> dropped = new ArrayList<>();
+        long archivedRows = 0;
+        for (PartitionInfo p : partitions) {
+            // 上界 <= 截止日期：整个分区都过期了
+            if (p.upperBound() == null || p.upperBound().isAfter(cutoff)) continue;
+
+            String name = safe(p.name());
+            if (archiveEnabled) {
+                long rows = behaviorEventArchiver.archivePartition(name, archivePath());
+                long current = behaviorEventPartitionMapper.countPartition(name);
+                if (current != rows) {
+                    // 归档期间又写进了旧时间的事件，下次再来
+                    log.warn("⚠️ 分区 {} 归档 {} 行，现有 {} 行，不一致，暂不删除", name, rows, current);
+                    continue;
+                }
+                archived.add(name);
+                archivedRows += rows;
+            }
+            behaviorEventPartitionMapper.executeDdl("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+            dropped.add(name);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("last_run_time", LocalDateTime.now().toString());
+        result.put("converted", converted);
+        result.put("partitions", partitions.size() - dropped.size());
+        result.put("created_partitions", created);
+        result.put("archived_partitions", archived);
+        result.put("archived_rows", archivedRows);
+        result.put("dropped_partitions", dropped);
+        result.put("cutoff", cutoff.toString());
+        result.put("elapsed_ms", System.currentTimeMillis() - start);
+        lastRun = result;
+
+        log.info("🗂️ 行为事件分区维护完成: 新建 {} 个, 归档 {} 个({} 行), 删除 {} 个, 耗时 {}ms",
+                created, archived.size(), archivedRows, dropped.size(), System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * 未分区的表转成按月分区：从最早事件所在月（最多回溯到保留期前一个月）到预建月份，
+     * 更早的数据都落在第一个分区里，等它过期时一起归档
+     */
+    private void convertToPartitioned(LocalDate today) {
+        LocalDate first = today.withDayOfMonth(1);
+        LocalDateTime minTime = behaviorEventPartitionMapper.selectMinBehaviorTime();
+        if (minTime != null) {
+            LocalDate oldest = minTime.toLocalDate().withDayOfMonth(1);
+            LocalDate floor = today.minusDays(retentionDays).withDayOfMonth(1).minusMonths(1);
+            first = oldest.isBefore(floor) ? floor : oldest;
+            if (first.isAfter(today.withDayOfMonth(1))) {
+                first = today.withDayOfMonth(1);
+            }
+        }
+        LocalDate end = today.withDayOfMonth(1).plusMonths(premakeMonths + 1L);
+
+        StringBuilder ddl = new StringBuilder("ALTER TABLE ").append(TABLE)
+                .append(" DROP PRIMARY KEY, ADD PRIMARY KEY (id, behavior_time)")
+                .append(" PARTITION BY RANGE COLUMNS (behavior_time) (");
+        for (LocalDate month = first; month.isBefore(end); month = month.plusMonths(1)) {
+            ddl.append(partitionDef(month)).append(", ");
+        }
+        ddl.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+
+        log.info("🗂️ {} 转为按月分区: {} ~ {}", TABLE, first, end.minusMonths(1));
+        behaviorEventPartitionMapper.executeDdl(ddl.toString());
+    }
+
+    /**
+     * 保证从本月到 premakeMonths 个月后都有独立分区
+     * @return 新建的分区数
+     */
+    private int ensureFuturePartitions(List<PartitionInfo> partitions, LocalDate today) {
+        LocalDate target = today.withDayOfMonth(1).plusMonths(premakeMonths + 1L);
+        LocalDate last = null;
+        boolean hasMax = false;
+        for (PartitionInfo p : partitions) {
+            if (p.upperBound() == null) {
+                hasMax = true;
+            } else if (last == null || p.upperBound().isAfter(last)) {
+                last = p.upperBound();
+            }
+        }
+        if (last == null) {
+            last = today.withDayOfMonth(1);
+        }
+
+        int created = 0;
+        for (LocalDate month = last; month.isBefore(target); month = month.plusMonths(1)) {
+            String ddl = hasMax
+                    ? "ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+                      + partitionDef(month) + ", PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE))"
+                    : "ALTER TABLE " + TABLE + " ADD PARTITION (" + partitionDef(month) + ")";
+            behaviorEventPartitionMapper.executeDdl(ddl);
+            created++;
+        }
+        return created;
+    }
+
+    private static String partitionDef(LocalDate month) {
+        return "PARTITION " + month.format(MONTH_NAME) + " VALUES LESS THAN ('" + month.plusMonths(1) + " 00:00:00')";
+    }
+
+    private List<PartitionInfo> loadPartitions() {
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (Map<String, Object> row : behaviorEventPartitionMapper.selectPartitions()) {
+            String name = String.valueOf(row.get("name"));
+            String description = row.get("description") == null ? null : String.valueOf(row.get("description"));
+            long rows = row.get("tableRows") == null ? 0 : ((Number) row.get("tableRows")).longValue();
+            partitions.add(new PartitionInfo(name, parseUpperBound(description), rows));
+        }
+        return partitions;
+    }
+
+    /**
+     * PARTITION_DESCRIPTION 形如 '2026-03-01 00:00:00'，MAXVALUE 返回 null
+     */
+    static LocalDate parseUpperBound(String description) {
+        if (description == null) return null;
+        String value = description.replace("'", "").trim();
+        if (value.isEmpty() || "MAXVALUE".equalsIgnoreCase(value) || value.length() < 10) return null;
+        try {
+            return LocalDate.parse(value.substring(0, 10));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private Path archivePath() {
+        Path dir = Paths.get(archiveDir);
+        return dir.isAbsolute() ? dir : Paths.get(System.getProperty("user.dir")).resolve(dir);
+    }
+
+    private static String safe(String name) {
+        if (!SAFE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("非法分区名: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(lastRun);
+        stats.put("enabled", enabled);
+        stats.put("retention_days", retentionDays);
+        stats.put("archive_enabled", archiveEnabled);
+        return stats;
+    }
+
+    private record PartitionInfo(String name, LocalDate upperBound, long tableRows) {
+    }
+}
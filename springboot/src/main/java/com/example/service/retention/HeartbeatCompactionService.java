@@ -0,0 +1,130 @@
+package com.example.service.retention;
+
+import com.example.mapper.StudentBehaviorEventMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 视频心跳压缩任务
+ *
+ * 播放时每次心跳一行 VIDEO_PROGRESS，事后基本只按时间段求和，单行几乎不会再读。
+ * 定时把早于 settle 分钟、已经结束的观看会话交给 HeartbeatSessionCompactor 合并成一行 VIDEO_SESSION，
+ * 每个 (学生, 课程) 一个小事务，互不影响；一轮最多处理 max-pairs-per-run 组，没处理完的下一轮继续。
+ * 15 秒一次心跳时，半小时的会话 120 行变 1 行。
+ */
+@Service
+public class HeartbeatCompactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(HeartbeatCompactionService.class);
+
+    @Resource
+    private StudentBehaviorEventMapper studentBehaviorEventMapper;
+
+    @Resource
+    private HeartbeatSessionCompactor heartbeatSessionCompactor;
+
+    @Value("${app.heartbeat-compaction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.heartbeat-compaction.settle-minutes:30}")
+    private int settleMinutes;
+
+    @Value("${app.heartbeat-compaction.session-gap-minutes:10}")
+    private int sessionGapMinutes;
+
+    @Value("${app.heartbeat-compaction.max-session-minutes:120}")
+    private int maxSessionMinutes;
+
+    @Value("${app.heartbeat-compaction.max-pairs-per-run:500}")
+    private int maxPairsPerRun;
+
+    @Value("${app.heartbeat-compaction.max-rows-per-pair:5000}")
+    private int maxRowsPerPair;
+
+    private final AtomicLong totalHeartbeats = new AtomicLong();
+    private final AtomicLong totalSessions = new AtomicLong();
+    private final AtomicLong totalFailures = new AtomicLong();
+
+    // 最近一次执行结果（给监控接口用）
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @Scheduled(cron = "${app.heartbeat-compaction.cron:0 7/15 * * * ?}")
+    public void scheduledCompact() {
+        if (!enabled) return;
+        try {
+            compact();
+        } catch (Exception e) {
+            log.error("❌ 视频心跳压缩失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 执行一轮压缩
+     */
+    public synchronized Map<String, Object> compact() {
+        long start = System.currentTimeMillis();
+        LocalDateTime before = LocalDateTime.now().minusMinutes(settleMinutes);
+        Duration gap = Duration.ofMinutes(sessionGapMinutes);
+        Duration maxSpan = Duration.ofMinutes(maxSessionMinutes);
+
+        List<Map<String, Object>> pairs = studentBehaviorEventMapper.selectHeartbeatPairs(before, maxPairsPerRun);
+        int heartbeats = 0;
+        int sessions = 0;
+        int failures = 0;
+        for (Map<String, Object> pair : pairs) {
+            Integer studentId = ((Number) pair.get("studentId")).intValue();
+            Integer courseId = ((Number) pair.get("courseId")).intValue();
+            try {
+                HeartbeatSessionCompactor.CompactResult r = heartbeatSessionCompactor.compact(
+                        studentId, courseId, before, gap, maxSpan, maxRowsPerPair);
+                heartbeats += r.heartbeats();
+                sessions += r.sessions();
+            } catch (Exception e) {
+                failures++;
+                log.warn("⚠️ 心跳压缩失败 student={}, course={}: {}", studentId, courseId, e.getMessage());
+            }
+        }
+        totalHeartbeats.addAndGet(heartbeats);
+        totalSessions.addAndGet(sessions);
+        totalFailures.addAndGet(failures);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("last_run_time", LocalDateTime.now().toString());
+        result.put("before", before.toString());
+        result.put("pairs", pairs.size());
+        result.put("heartbeats", heartbeats);
+        result.put("sessions", sessions);
+        result.put("failures", failures);
+        result.put("elapsed_ms", System.currentTimeMillis() - start);
+        lastRun = result;
+
+        if (heartbeats > 0 || failures > 0) {
+            log.info("🗜️ 视频心跳压缩完成: {} 组, {} 条心跳 -> {} 个会话, 失败 {} 组, 耗时 {}ms",
+                    pairs.size(), heartbeats, sessions, failures, System.currentTimeMillis() - start);
+        }
+        return result;
+    }
+
+    /**
+     * 运行状态（给监控接口用）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(lastRun);
+        stats.put("enabled", enabled);
+        stats.put("total_heartbeats", totalHeartbeats.get());
+        stats.put("total_sessions", totalSessions.get());
+        stats.put("total_failures", totalFailures.get());
+        return stats;
+    }
+}
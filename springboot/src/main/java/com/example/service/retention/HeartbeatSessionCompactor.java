@@ -0,0 +1,207 @@
+package com.example.service.retention;
+
+import com.example.entity.StudentBehaviorEvent;
+import com.example.mapper.StudentBehaviorEventMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 把一个学生一门课已经结束的视频心跳（VIDEO_PROGRESS）合并成观看会话（VIDEO_SESSION）
+ *
+ * 会话切分：相邻两次心跳间隔超过 gap、跨天、或者会话长度超过 maxSpan 就切开。
+ * 汇总行：
+ *   behavior_value = 会话内心跳秒数之和（sumWatchSecondsFrom / sumVideoSeconds 直接累加）
+ *   attempt_no     = 合并掉的心跳数（事件数统计按心跳数算）
+ *   behavior_time  = 会话开始时间（会话不跨天，按天统计和分区归属都不变）
+ *   behavior_extra = {start, end, seconds, heartbeats, maxPosition, duration, avgPlaybackRate}
+ * 插入汇总行和删除心跳在同一个事务里，读的一方要么看到心跳，要么看到汇总，不会重复或丢失。
+ */
+@Service
+public class HeartbeatSessionCompactor {
+
+    static final String HEARTBEAT_TYPE = "VIDEO_PROGRESS";
+    static final String SESSION_TYPE = "VIDEO_SESSION";
+
+    private static final int INSERT_CHUNK_SIZE = 500;
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Resource
+    private StudentBehaviorEventMapper studentBehaviorEventMapper;
+
+    /**
+     * 压缩某学生某课程早于 before 的心跳
+     * @param gap      心跳间隔超过它就算新会话
+     * @param maxSpan  单个会话最长时长
+     * @param maxRows  一次最多读取的心跳数（读满时最后一个会话可能没读完，留到下次）
+     */
+    @Transactional
+    public CompactResult compact(Integer studentId, Integer courseId, LocalDateTime before,
+                                 Duration gap, Duration maxSpan, int maxRows) {
+        List<StudentBehaviorEvent> heartbeats =
+                studentBehaviorEventMapper.selectHeartbeats(studentId, courseId, before, maxRows);
+        if (heartbeats.isEmpty()) return new CompactResult(0, 0);
+
+        List<Session> sessions = split(heartbeats, gap, maxSpan);
+        // 最后一个会话：只有确定后面不会再接上心跳才算结束
+        Session last = sessions.get(sessions.size() - 1);
+        boolean truncated = heartbeats.size() >= maxRows;
+        if (truncated || !last.end.isBefore(before.minus(gap))) {
+            sessions.remove(sessions.size() - 1);
+        }
+        if (sessions.isEmpty()) return new CompactResult(0, 0);
+
+        List<StudentBehaviorEvent> summaries = new ArrayList<>(sessions.size());
+        List<Integer> ids = new ArrayList<>();
+        for (Session s : sessions) {
+            summaries.add(s.toEvent(studentId, courseId));
+            ids.addAll(s.ids);
+        }
+        for (int i = 0; i < summaries.size(); i += INSERT_CHUNK_SIZE) {
+            studentBehaviorEventMapper.insertEventBatch(
+                    summaries.subList(i, Math.min(i + INSERT_CHUNK_SIZE, summaries.size())));
+        }
+
+        LocalDateTime from = sessions.get(0).start;
+        LocalDateTime to = sessions.get(sessions.size() - 1).end;
+        int deleted = 0;
+        for (int i = 0; i < ids.size(); i += DELETE_CHUNK_SIZE) {
+            deleted += studentBehaviorEventMapper.deleteHeartbeats(
+                    ids.subList(i, Math.min(i + DELETE_CHUNK_SIZE, ids.size())), from, to);
+        }
+        if (deleted != ids.size()) {
+            // 心跳在读取之后被别处删了（比如分区被归档删除），回滚，下一轮重新读
+            throw new IllegalStateException("心跳删除数不一致: 期望 " + ids.size() + ", 实际 " + deleted);
+        }
+        return new CompactResult(ids.size(), summaries.size());
+    }
+
+    /**
+     * 按时间升序的心跳切分成会话
+     */
+    static List<Session> split(List<StudentBehaviorEvent> heartbeats, Duration gap, Duration maxSpan) {
+        List<Session> sessions = new ArrayList<>();
+        Session current = null;
+        for (StudentBehaviorEvent e : heartbeats) {
+            LocalDateTime t = e.getBehaviorTime();
+            if (current == null
+                    || Duration.between(current.end, t).compareTo(gap) > 0
+                    || !t.toLocalDate().equals(current.start.toLocalDate())
+                    || Duration.between(current.start, t).compareTo(maxSpan) > 0) {
+                current = new Session(t);
+                sessions.add(current);
+            }
+            current.add(e);
+        }
+        return sessions;
+    }
+
+    static final class Session {
+        final LocalDateTime start;
+        LocalDateTime end;
+        final List<Integer> ids = new ArrayList<>();
+        double seconds;
+        Double maxPosition;
+        Double duration;
+        double rateSecondsSum;
+        double rateWeight;
+        double rateSum;
+        int rateCount;
+
+        Session(LocalDateTime start) {
+            this.start = start;
+            this.end = start;
+        }
+
+        void add(StudentBehaviorEvent e) {
+            ids.add(e.getId());
+            end = e.getBehaviorTime();
+            double delta = e.getBehaviorValue() == null ? 0 : e.getBehaviorValue();
+            seconds += delta;
+
+            JsonNode extra = parse(e.getBehaviorExtra());
+            if (extra == null) return;
+            Double position = number(extra, "currentTime");
+            if (position != null && (maxPosition == null || position > maxPosition)) maxPosition = position;
+            Double d = number(extra, "duration");
+            if (d != null && (duration == null || d > duration)) duration = d;
+            Double rate = number(extra, "playbackRate");
+            if (rate != null && rate > 0) {
+                rateSecondsSum += rate * delta;
+                rateWeight += delta;
+                rateSum += rate;
+                rateCount++;
+            }
+        }
+
+        /**
+         * 平均倍速按心跳秒数加权；秒数都为 0 时取简单平均
+         */
+        Double avgPlaybackRate() {
+            if (rateWeight > 0) return round(rateSecondsSum / rateWeight);
+            return rateCount > 0 ? round(rateSum / rateCount) : null;
+        }
+
+        StudentBehaviorEvent toEvent(Integer studentId, Integer courseId) {
+            Map<String, Object> extra = new LinkedHashMap<>();
+            extra.put("start", start.toString());
+            extra.put("end", end.toString());
+            extra.put("seconds", seconds);
+            extra.put("heartbeats", ids.size());
+            extra.put("maxPosition", maxPosition);
+            extra.put("duration", duration);
+            extra.put("avgPlaybackRate", avgPlaybackRate());
+
+            StudentBehaviorEvent event = new StudentBehaviorEvent();
+            event.setStudentId(studentId);
+            event.setCourseId(courseId);
+            event.setBehaviorType(SESSION_TYPE);
+            event.setIsLate(false);
+            event.setAttemptNo(ids.size());
+            event.setBehaviorValue(seconds);
+            try {
+                event.setBehaviorExtra(JSON.writeValueAsString(extra));
+            } catch (Exception ex) {
+                throw new IllegalStateException("behavior_extra 序列化失败：" + ex.getMessage(), ex);
+            }
+            event.setBehaviorTime(start);
+            return event;
+        }
+
+        private static JsonNode parse(String json) {
+            if (json == null || json.isBlank()) return null;
+            try {
+                return JSON.readTree(json);
+            } catch (Exception ex) {
+                return null;
+            }
+        }
+
+        private static Double number(JsonNode node, String field) {
+            JsonNode v = node.get(field);
+            return v != null && v.isNumber() ? v.asDouble() : null;
+        }
+
+        private static double round(double v) {
+            return Math.round(v * 1000) / 1000.0;
+        }
+    }
+
+    /**
+     * @param heartbeats 合并掉的心跳行数
+     * @param sessions   写入的会话行数
+     */
+    public record CompactResult(int heartbeats, int sessions) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.service.rollup;
+
+import com.example.entity.RiskAlert;
+import com.example.mapper.RiskAlertDailyMapper;
+import com.example.service.cache.DashboardCache;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 预警日汇总（risk_alert_daily）维护
+ *
+ * RiskAlertService 新增、改状态、改等级/类型、删除时，在同一事务里给对应格子加减 1；
+ * 看板只读这张表，行数是 天数 × 等级 × 类型 × 状态，不再扫 risk_alerts。
+ * 增量更新失败只记日志，不影响预警本身，由每天的修复任务按 risk_alerts 重建最近几天兜底。
+ * 汇总有变化时，事务提交后让看板缓存失效。
+ * 重建（删掉再汇总）走 TransactionTemplate，启动和定时修复都是类内调用，@Transactional 的代理管不到；
+ * 汇总用 upsert 直接赋值，删和插之间并发进来的增量不会撞主键把重建整个打断。
+ */
+@Service
+public class RiskAlertRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskAlertRollupService.class);
+
+    // 全量重建的起始日期（早于任何预警）
+    private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+
+    @Resource
+    private RiskAlertDailyMapper riskAlertDailyMapper;
+
+    @Resource
+    private DashboardCache dashboardCache;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.dashboard.rollup-repair-days:35}")
+    private int repairDays;
+
+    /**
+     * 新增了一条预警
+     */
+    public void onAdded(RiskAlert alert) {
+        apply(alert.getAlertTime(), alert.getAlertLevel(), alert.getAlertType(), alert.getStatus(), 1);
+    }
+
+    /**
+     * 批量新增了一批预警：先按格子合并，每个格子只更新一次
+     */
+    public void onAddedBatch(List<RiskAlert> alerts) {
+        Map<Cell, Integer> cells = new HashMap<>();
+        for (RiskAlert alert : alerts) {
+            LocalDate date = alertDate(alert.getAlertTime());
+            if (date == null) continue;
+            cells.merge(new Cell(date, nullToEmpty(alert.getAlertLevel()), nullToEmpty(alert.getAlertType()),
+                    nullToEmpty(alert.getStatus())), 1, Integer::sum);
+        }
+        cells.forEach((cell, delta) -> applyCell(cell.date(), cell.level(), cell.type(), cell.status(), delta));
+    }
+
+    /**
+     * 删除了一条预警（传删除前的记录）
+     */
+    public void onDeleted(RiskAlert before) {
+        apply(before.getAlertTime(), before.getAlertLevel(), before.getAlertType(), before.getStatus(), -1);
+    }
+
+    /**
+     * 预警被修改：before 是修改前的记录，alertTime/level/type/status 是修改后的值（null 表示没改）
+     * 旧格子按原来的预警日期减，新格子按修改后的预警日期加
+     */
+    public void onChanged(RiskAlert before, String alertTime, String level, String type, String status) {
+        String newTime = alertTime != null ? alertTime : before.getAlertTime();
+        String newLevel = level != null ? level : before.getAlertLevel();
+        String newType = type != null ? type : before.getAlertType();
+        String newStatus = status != null ? status : before.getStatus();
+        if (Objects.equals(alertDate(newTime), alertDate(before.getAlertTime()))
+                && Objects.equals(newLevel, before.getAlertLevel())
+                && Objects.equals(newType, before.getAlertType())
+                && Objects.equals(newStatus, before.getStatus())) {
+            return;
+        }
+        apply(before.getAlertTime(), before.getAlertLevel(), before.getAlertType(), before.getStatus(), -1);
+        apply(newTime, newLevel, newType, newStatus, 1);
+    }
+
+    private void apply(String alertTime, String level, String type, String status, int delta) {
+        LocalDate date = alertDate(alertTime);
+        // 解析不出日期的预警重建时同样不统计，两边口径一致
+        if (date == null) return;
+        applyCell(date, nullToEmpty(level), nullToEmpty(type), nullToEmpty(status), delta);
+    }
+
+    private void applyCell(LocalDate date, String level, String type, String status, int delta) {
+        try {
+            riskAlertDailyMapper.applyDelta(date, level, type, status, delta);
+            dashboardCache.invalidateAfterCommit();
+        } catch (Exception e) {
+            log.warn("⚠️ 预警日汇总增量更新失败（等待修复任务重建）: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从 risk_alerts 重建 days 天（含今天）以来的汇总；days <= 0 表示全量
+     * @return 重建后的汇总行数
+     */
+    public int rebuild(int days) {
+        LocalDate from = days > 0 ? LocalDate.now().minusDays(days - 1L) : EPOCH;
+        Integer rows = transactionTemplate.execute(tx -> {
+            riskAlertDailyMapper.deleteFrom(from);
+            int n = riskAlertDailyMapper.rebuildFrom(from.toString());
+            dashboardCache.invalidateAfterCommit();
+            return n;
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * 启动时汇总表为空（刚建表）就全量重建一次
+     */
+    public void rebuildAllIfEmpty() {
+        if (riskAlertDailyMapper.countRows() > 0) return;
+        int rows = rebuild(0);
+        log.info("✅ 预警日汇总全量重建完成: {} 行", rows);
+    }
+
+    /**
+     * 修复任务：每天重建最近 repairDays 天，纠正增量更新失败或绕过服务直接改库造成的偏差
+     */
+    @Scheduled(cron = "${app.dashboard.rollup-repair-cron:0 30 3 * * ?}")
+    public void repair() {
+        long start = System.currentTimeMillis();
+        try {
+            int rows = rebuild(repairDays);
+            log.info("🔧 预警日汇总修复完成: 最近 {} 天, {} 行, 耗时 {}ms", repairDays, rows, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("❌ 预警日汇总修复失败: {}", e.getMessage(), e);
+        }
+    }
+
+    // ===== 看板查询（都只读汇总表）=====
+
+    public List<Map<String, Object>> sumByDate(LocalDate from) {
+        return riskAlertDailyMapper.sumByDate(from);
+    }
+
+    public List<Map<String, Object>> sumByLevel(LocalDate from) {
+        return riskAlertDailyMapper.sumByLevel(from);
+    }
+
+    public List<Map<String, Object>> sumByType(LocalDate from) {
+        return riskAlertDailyMapper.sumByType(from);
+    }
+
+    public int sumForDate(LocalDate date) {
+        return riskAlertDailyMapper.sumForDate(date);
+    }
+
+    /**
+     * alert_time 是字符串，取前 10 位当日期（兼容 "yyyy-MM-dd HH:mm:ss" 和 LocalDateTime.toString()）
+     */
+    static LocalDate alertDate(String alertTime) {
+        if (alertTime == null || alertTime.length() < 10) return null;
+        try {
+            return LocalDate.parse(alertTime.substring(0, 10));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    private record Cell(LocalDate date, String level, String type, String status) {
+    }
+}
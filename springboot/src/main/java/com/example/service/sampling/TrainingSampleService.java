@@ -0,0 +1,111 @@
+package com.example.service.sampling;
+
+import com.example.algorithm.TrainingSampler;
+import com.example.entity.LearningFeatures;
+import com.example.exception.CustomException;
+import com.example.mapper.LearningFeaturesMapper;
+import jakarta.annotation.Resource;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * 训练样本抽样服务
+ *
+ * 代替原来的 ORDER BY RAND() LIMIT n（每次训练都要把 learning_features 整表排序）：
+ *   id-range  —— 默认，按主键分段随机读取，读取量随样本数增长，和表大小无关；
+ *   reservoir —— 流式读一遍整表做蓄水池抽样，均匀性最好，适合表不大的时候。
+ * 默认按风险标签分层，高/低风险样本各占一半（某类不够时由另一类补齐）。
+ * 同样的数据 + 同样的种子抽出同样的样本。
+ */
+@Service
+public class TrainingSampleService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrainingSampleService.class);
+
+    // 训练标签：风险概率超过该值视为高风险
+    private static final double HIGH_RISK_PROBABILITY = 0.6;
+
+    @Resource
+    private LearningFeaturesMapper learningFeaturesMapper;
+
+    @Value("${app.training.sampling:id-range}")
+    private String strategy;
+
+    @Value("${app.training.sample-stratified:true}")
+    private boolean stratifiedByDefault;
+
+    @Value("${app.training.sample-max-scan-factor:50}")
+    private int maxScanFactor;
+
+    @Value("${app.training.seed:42}")
+    private long defaultSeed;
+
+    /**
+     * 训练标签（1 高风险 / 0 低风险）
+     */
+    public static int riskLabel(LearningFeatures features) {
+        return (features.getRiskProbability() != null && features.getRiskProbability() > HIGH_RISK_PROBABILITY) ? 1 : 0;
+    }
+
+    /**
+     * 抽取训练样本（只读事务内完成，分段读取看到的是同一份快照）
+     * @param seed     随机种子，null 用配置的 app.training.seed
+     * @param stratify 是否按风险标签分层，null 用配置
+     */
+    @Transactional(readOnly = true)
+    public List<LearningFeatures> sample(int limit, Long seed, Boolean stratify) {
+        if (limit <= 0) {
+            throw new CustomException("抽样数量必须大于 0");
+        }
+        long useSeed = seed != null ? seed : defaultSeed;
+        boolean useStrata = stratify != null ? stratify : stratifiedByDefault;
+        int strata = useStrata ? 2 : 1;
+        ToIntFunction<LearningFeatures> stratumOf = useStrata ? TrainingSampleService::riskLabel : f -> 0;
+
+        long start = System.currentTimeMillis();
+        List<LearningFeatures> sample = "reservoir".equalsIgnoreCase(strategy)
+                ? sampleByReservoir(limit, strata, stratumOf, useSeed)
+                : sampleByIdRange(limit, strata, stratumOf, useSeed);
+
+        long positives = sample.stream().filter(f -> riskLabel(f) == 1).count();
+        log.info("🎯 训练样本抽样完成: 方式={}, 分层={}, 种子={}, 样本={} (高风险 {}), 耗时 {}ms",
+                strategy, useStrata, useSeed, sample.size(), positives, System.currentTimeMillis() - start);
+        return sample;
+    }
+
+    private List<LearningFeatures> sampleByIdRange(int limit, int strata,
+                                                   ToIntFunction<LearningFeatures> stratumOf, long seed) {
+        Map<String, Object> range = learningFeaturesMapper.selectIdRange();
+        if (range == null || range.get("minId") == null || range.get("maxId") == null) {
+            return List.of();
+        }
+        long minId = ((Number) range.get("minId")).longValue();
+        long maxId = ((Number) range.get("maxId")).longValue();
+        long maxScanRows = (long) limit * Math.max(1, maxScanFactor);
+
+        return TrainingSampler.sampleByIdRange(minId, maxId, limit, strata, stratumOf,
+                learningFeaturesMapper::selectTrainingRange, seed, maxScanRows);
+    }
+
+    private List<LearningFeatures> sampleByReservoir(int limit, int strata,
+                                                     ToIntFunction<LearningFeatures> stratumOf, long seed) {
+        TrainingSampler.Reservoir<LearningFeatures> reservoir = new TrainingSampler.Reservoir<>(limit, strata, stratumOf, seed);
+        try (Cursor<LearningFeatures> cursor = learningFeaturesMapper.streamTrainingData()) {
+            for (LearningFeatures features : cursor) {
+                reservoir.offer(features);
+            }
+        } catch (IOException e) {
+            throw new CustomException("读取训练数据失败: " + e.getMessage());
+        }
+        return reservoir.result();
+    }
+}
@@ -5,6 +5,7 @@ CREATE TABLE IF NOT EXISTS system_metrics (
     task_id VARCHAR(100) NOT NULL COMMENT '任务ID',
     execution_time BIGINT NOT NULL COMMENT '执行耗时(ms)',
     status VARCHAR(20) NOT NULL COMMENT '执行状态: SUCCESS/FAILED/NO_DATA',
+    metric_value DOUBLE NULL COMMENT '指标数值（如吞吐量 rows/s）',
     created_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     INDEX idx_metric_name (metric_name),
     INDEX idx_created_time (created_time),
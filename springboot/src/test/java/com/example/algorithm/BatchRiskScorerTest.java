@@ -0,0 +1,61 @@
+package com.example.algorithm;
+
+import com.example.entity.LearningFeatures;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 批量打分引擎与单条预测的一致性测试
+ */
+public class BatchRiskScorerTest {
+
+    /**
+     * 批量打分（向量/标量任一路径）必须和 LogisticRegression.predictProbability 逐行一致
+     */
+    @Test
+    public void testBatchScoreMatchesSinglePrediction() {
+        Random random = new Random(42);
+        FeatureExtractor extractor = new FeatureExtractor();
+        LogisticRegression model = new LogisticRegression();
+        double[] weights = new double[FeatureExtractor.FEATURE_SIZE];
+        for (int j = 0; j < weights.length; j++) {
+            weights[j] = random.nextGaussian();
+        }
+        model.setWeights(weights);
+        model.setBias(-0.3);
+
+        // 故意取一个不是向量宽度整数倍的行数，覆盖尾部标量分支
+        int stride = 64;
+        int rows = 37;
+        LearningFeatures[] samples = new LearningFeatures[rows];
+        double[] matrix = new double[FeatureExtractor.FEATURE_SIZE * stride];
+        for (int i = 0; i < rows; i++) {
+            samples[i] = randomFeatures(random);
+            extractor.extractInto(samples[i], matrix, i, stride);
+        }
+
+        double[] out = new double[stride];
+        new BatchRiskScorer().score(matrix, stride, rows, model.getModelParameters(), out);
+
+        for (int i = 0; i < rows; i++) {
+            double expected = model.predictProbability(extractor.extractFeatures(samples[i]));
+            assertEquals(expected, out[i], 0.0, "第 " + i + " 行打分不一致");
+        }
+    }
+
+    private LearningFeatures randomFeatures(Random random) {
+        LearningFeatures f = new LearningFeatures();
+        f.setVideoWatchTime(random.nextDouble() * 200);
+        f.setVideoCompletionRate(random.nextDouble() * 100);
+        f.setHomeworkSubmitRate(random.nextDouble());
+        f.setHomeworkAvgScore(random.nextDouble() * 100);
+        f.setLoginFrequency(random.nextInt(60));
+        f.setFocusScore(random.nextDouble());
+        f.setStudyConsistency(random.nextDouble() * 100);
+        f.setInteractionLevel(random.nextDouble());
+        return f;
+    }
+}
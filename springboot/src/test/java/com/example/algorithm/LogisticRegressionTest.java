@@ -0,0 +1,84 @@
+package com.example.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 并行训练的可复现性测试
+ */
+public class LogisticRegressionTest {
+
+    private static final int SAMPLES = 10000; // 大于一个梯度分块（4096），覆盖多块归约
+
+    /**
+     * 同一个 seed，线程数不同，训练出的参数必须逐位相同
+     */
+    @Test
+    public void testTrainParallelIsDeterministicAcrossThreadCounts() {
+        List<double[]> features = new ArrayList<>();
+        List<Integer> labels = new ArrayList<>();
+        generate(features, labels);
+
+        for (int batchSize : new int[]{0, 512}) {
+            LogisticRegression single = newModel(batchSize, 1);
+            LogisticRegression parallel = newModel(batchSize, 4);
+            single.trainParallel(features, labels);
+            parallel.trainParallel(features, labels);
+
+            assertArrayEquals(single.getWeights(), parallel.getWeights(), 0.0, "batchSize=" + batchSize + " 权重不一致");
+            assertEquals(single.getBias(), parallel.getBias(), 0.0, "batchSize=" + batchSize + " 偏置不一致");
+        }
+    }
+
+    /**
+     * 小批量训练能学到数据里的规律，并且损失收敛后提前停止
+     */
+    @Test
+    public void testMiniBatchConvergesAndStopsEarly() {
+        List<double[]> features = new ArrayList<>();
+        List<Integer> labels = new ArrayList<>();
+        generate(features, labels);
+
+        LogisticRegression model = newModel(256, 2);
+        model.setLearningRate(0.5);
+        model.setMaxIterations(500);
+        model.setConvergenceTolerance(1e-5);
+        int epochs = model.trainParallel(features, labels);
+
+        assertTrue(epochs < 500, "应在最大轮数前收敛，实际轮数: " + epochs);
+        ModelMetrics metrics = model.evaluate(features, labels, 0.5);
+        assertTrue(metrics.getAccuracy() > 0.8, "准确率过低: " + metrics.getAccuracy());
+    }
+
+    private LogisticRegression newModel(int batchSize, int parallelism) {
+        LogisticRegression model = new LogisticRegression();
+        model.setMaxIterations(30);
+        model.setLearningRate(0.1);
+        model.setBatchSize(batchSize);
+        model.setParallelism(parallelism);
+        model.setSeed(7L);
+        model.setConvergenceTolerance(0.0);
+        return model;
+    }
+
+    private void generate(List<double[]> features, List<Integer> labels) {
+        Random random = new Random(123);
+        for (int i = 0; i < SAMPLES; i++) {
+            double[] x = new double[FeatureExtractor.FEATURE_SIZE];
+            double z = 3.0;
+            for (int j = 0; j < x.length; j++) {
+                x[j] = random.nextDouble();
+                z -= 0.8 * x[j];
+            }
+            features.add(x);
+            labels.add(z + random.nextGaussian() * 0.3 > 0 ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.algorithm;
+
+import com.example.entity.ModelVersion;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 模型快照：权重解析兼容性、打分与训练器一致
+ */
+public class ModelSnapshotTest {
+
+    private static final double[] WEIGHTS = {0.5, -1.25, 2.0, 0.0, -0.75, 1e-3, 3.5, -2.0};
+
+    /**
+     * 新的 JSON 格式和旧的 Arrays.toString 格式都能解析，且和原值逐位相同
+     */
+    @Test
+    public void testParseWeightsRoundTrip() {
+        assertArrayEquals(WEIGHTS, ModelSnapshot.parseWeights(ModelSnapshot.formatWeights(WEIGHTS)));
+        assertArrayEquals(WEIGHTS, ModelSnapshot.parseWeights(Arrays.toString(WEIGHTS)));
+
+        assertThrows(IllegalArgumentException.class, () -> ModelSnapshot.parseWeights(""));
+        assertThrows(IllegalArgumentException.class, () -> ModelSnapshot.parseWeights("[0.1, abc]"));
+    }
+
+    /**
+     * 快照打分和 LogisticRegression.predictProbability 一致；阈值取自模型版本
+     */
+    @Test
+    public void testSnapshotMatchesTrainer() {
+        ModelVersion model = new ModelVersion();
+        model.setId(7);
+        model.setWeights(ModelSnapshot.formatWeights(WEIGHTS));
+        model.setBias(-0.3);
+        model.setMediumThreshold(0.6);
+        ModelSnapshot snapshot = ModelSnapshot.fromModelVersion(model);
+
+        LogisticRegression trainer = new LogisticRegression();
+        trainer.setWeights(WEIGHTS.clone());
+        trainer.setBias(-0.3);
+
+        double[] x = {0.9, 0.2, 0.7, 0.1, 0.5, 0.3, 0.8, 0.4};
+        assertTrue(snapshot.isUsable());
+        assertEquals(trainer.predictProbability(x), snapshot.predictProbability(x), 0.0);
+        assertEquals("MEDIUM", snapshot.riskLevel(0.5));
+        assertEquals("HIGH", snapshot.riskLevel(0.65));
+
+        // 维度不对的权重拒绝加载
+        model.setWeights("[1.0, 2.0]");
+        assertThrows(IllegalArgumentException.class, () -> ModelSnapshot.fromModelVersion(model));
+        assertFalse(ModelSnapshot.EMPTY.isUsable());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 训练样本抽样：分层均衡、固定种子可复现、读取量和表大小无关
+ */
+public class TrainingSamplerTest {
+
+    // 模拟一张 id 有空洞的表：id 为 3 的倍数的行不存在，每 10 行有 1 行高风险
+    private static final long MAX_ID = 200_000;
+
+    private static boolean exists(long id) {
+        return id % 3 != 0;
+    }
+
+    private static int label(Long id) {
+        return id % 10 == 1 ? 1 : 0;
+    }
+
+    private static List<Long> read(long from, long to, AtomicLong scanned) {
+        List<Long> rows = new ArrayList<>();
+        for (long id = Math.max(1, from); id < Math.min(to, MAX_ID + 1); id++) {
+            if (exists(id)) rows.add(id);
+        }
+        scanned.addAndGet(rows.size());
+        return rows;
+    }
+
+    @Test
+    public void testIdRangeStratifiedAndReproducible() {
+        AtomicLong scanned = new AtomicLong();
+        List<Long> first = TrainingSampler.sampleByIdRange(1, MAX_ID, 1000, 2, TrainingSamplerTest::label,
+                (from, to) -> read(from, to, scanned), 42, 50_000);
+        List<Long> second = TrainingSampler.sampleByIdRange(1, MAX_ID, 1000, 2, TrainingSamplerTest::label,
+                (from, to) -> read(from, to, new AtomicLong()), 42, 50_000);
+
+        assertEquals(1000, first.size());
+        assertEquals(first, second);
+        assertEquals(1000, new HashSet<>(first).size());
+        assertEquals(500, first.stream().filter(id -> label(id) == 1).count());
+        // 高风险只占 1/10，也只需要读样本量的几十倍，远小于整表
+        assertTrue(scanned.get() < 50_000, "scanned=" + scanned.get());
+
+        List<Long> otherSeed = TrainingSampler.sampleByIdRange(1, MAX_ID, 1000, 2, TrainingSamplerTest::label,
+                (from, to) -> read(from, to, new AtomicLong()), 7, 50_000);
+        assertNotEquals(first, otherSeed);
+    }
+
+    @Test
+    public void testReservoirFillsShortStratum() {
+        // 只有 30 行高风险，剩下的名额由低风险补齐
+        TrainingSampler.Reservoir<Long> reservoir = new TrainingSampler.Reservoir<>(200, 2, id -> id <= 30 ? 1 : 0, 42);
+        for (long id = 1; id <= 10_000; id++) {
+            reservoir.offer(id);
+        }
+        List<Long> sample = reservoir.result();
+
+        assertEquals(200, sample.size());
+        assertEquals(30, sample.stream().filter(id -> id <= 30).count());
+        assertEquals(200, new HashSet<>(sample).size());
+
+        TrainingSampler.Reservoir<Long> again = new TrainingSampler.Reservoir<>(200, 2, id -> id <= 30 ? 1 : 0, 42);
+        for (long id = 1; id <= 10_000; id++) {
+            again.offer(id);
+        }
+        assertEquals(sample, again.result());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.service;
+
+import com.example.algorithm.ModelRegistry;
+import com.example.entity.ModelVersion;
+import com.example.mapper.ModelVersionMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 模型激活：激活后库里那一行必须仍是 is_active=1
+ */
+public class ModelVersionServiceTest {
+
+    /**
+     * 用内存里的一行模拟 model_versions，mapper 的各个更新按 SQL 的语义改这一行
+     */
+    @Test
+    public void testActivateModelKeepsRowActive() {
+        ModelVersion row = new ModelVersion();
+        row.setId(3);
+        row.setIsActive(false);
+        row.setStatus("TRAINED");
+        row.setUpdatedTime("2026-01-01T00:00");
+
+        ModelVersionMapper mapper = mock(ModelVersionMapper.class);
+        when(mapper.selectById(3)).thenAnswer(inv -> copy(row));
+        when(mapper.deactivateAllModels()).thenAnswer(inv -> {
+            row.setIsActive(false);
+            row.setUpdatedTime("deactivated");
+            return 1;
+        });
+        when(mapper.markDeployed(eq(3), anyString())).thenAnswer(inv -> {
+            row.setIsActive(true);
+            row.setStatus("DEPLOYED");
+            row.setDeployedTime(inv.getArgument(1));
+            row.setUpdatedTime("deployed");
+            return 1;
+        });
+        when(mapper.updateActiveStatus(eq(3), any())).thenAnswer(inv -> {
+            row.setIsActive(inv.getArgument(1));
+            row.setUpdatedTime("active-status");
+            return 1;
+        });
+        // updateById 按 <set> 写所有非空字段
+        when(mapper.updateById(any())).thenAnswer(inv -> {
+            ModelVersion m = inv.getArgument(0);
+            if (m.getIsActive() != null) row.setIsActive(m.getIsActive());
+            if (m.getStatus() != null) row.setStatus(m.getStatus());
+            if (m.getDeployedTime() != null) row.setDeployedTime(m.getDeployedTime());
+            if (m.getUpdatedTime() != null) row.setUpdatedTime(m.getUpdatedTime());
+            return 1;
+        });
+
+        ModelRegistry registry = mock(ModelRegistry.class);
+        ModelVersionService service = new ModelVersionService();
+        ReflectionTestUtils.setField(service, "modelVersionMapper", mapper);
+        ReflectionTestUtils.setField(service, "modelRegistry", registry);
+
+        service.activateModel(3);
+
+        assertTrue(row.getIsActive());
+        assertEquals("DEPLOYED", row.getStatus());
+        assertNotNull(row.getDeployedTime());
+        assertEquals("deployed", row.getUpdatedTime());
+
+        // 交给注册表的是激活后的那一行，版本戳和库里一致
+        ArgumentCaptor<ModelVersion> activated = ArgumentCaptor.forClass(ModelVersion.class);
+        verify(registry).activate(activated.capture(), any());
+        assertTrue(activated.getValue().getIsActive());
+        assertEquals(row.getUpdatedTime(), activated.getValue().getUpdatedTime());
+    }
+
+    private static ModelVersion copy(ModelVersion row) {
+        ModelVersion m = new ModelVersion();
+        m.setId(row.getId());
+        m.setIsActive(row.getIsActive());
+        m.setStatus(row.getStatus());
+        m.setDeployedTime(row.getDeployedTime());
+        m.setUpdatedTime(row.getUpdatedTime());
+        return m;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.service.alert;
+
+import com.example.entity.LearningFeatures;
+import com.example.entity.RiskAlert;
+import com.example.mapper.LearningFeaturesMapper;
+import com.example.mapper.RiskAlertMapper;
+import com.example.service.RiskAlertService;
+import com.example.service.metrics.MetricsSink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 预警生成去重：处理掉的预警不会被同一行旧特征反复生成，一个学生一门课一轮最多一条
+ */
+public class RiskAlertEngineTest {
+
+    private final List<LearningFeatures> features = new ArrayList<>();
+    private final List<Map<String, Object>> alertStates = new ArrayList<>();
+    private final List<RiskAlert> inserted = new ArrayList<>();
+
+    private RiskAlertEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        LearningFeaturesMapper featuresMapper = mock(LearningFeaturesMapper.class);
+        when(featuresMapper.selectAlertCandidatesChunk(any(), any(), any(), any(), any())).thenAnswer(inv -> {
+            Integer lastId = inv.getArgument(3);
+            return features.stream().filter(f -> f.getId() > lastId).toList();
+        });
+        RiskAlertMapper alertMapper = mock(RiskAlertMapper.class);
+        when(alertMapper.selectAlertKeyStates(any())).thenAnswer(inv -> alertStates);
+        RiskAlertService alertService = mock(RiskAlertService.class);
+        when(alertService.addBatch(anyList())).thenAnswer(inv -> {
+            List<RiskAlert> batch = inv.getArgument(0);
+            inserted.addAll(batch);
+            return batch.size();
+        });
+
+        engine = new RiskAlertEngine();
+        ReflectionTestUtils.setField(engine, "learningFeaturesMapper", featuresMapper);
+        ReflectionTestUtils.setField(engine, "riskAlertMapper", alertMapper);
+        ReflectionTestUtils.setField(engine, "riskAlertService", alertService);
+        ReflectionTestUtils.setField(engine, "metricsSink", mock(MetricsSink.class));
+        ReflectionTestUtils.setField(engine, "defaultThreshold", 0.7);
+        ReflectionTestUtils.setField(engine, "lookbackDays", 7);
+        ReflectionTestUtils.setField(engine, "pageSize", 1000);
+        ReflectionTestUtils.setField(engine, "insertBatchSize", 200);
+        ReflectionTestUtils.setField(engine, "weakThreshold", 0.6);
+    }
+
+    /**
+     * 生成 -> 老师处理掉 -> 再扫描：同一行特征不再生成；之后新生成的特征行仍高风险才再预警
+     */
+    @Test
+    public void testResolvedAlertIsNotRecreatedFromSameFeatureRow() {
+        features.add(feature(1, "2026-10-16", "2026-10-16 08:00:00", 0.1, 0.9));
+
+        engine.generate(null, null);
+        assertEquals(1, inserted.size());
+        assertEquals("VIDEO", inserted.get(0).getAlertType());
+
+        // 预警已处理（RESOLVED），最近一条在特征生成之后
+        alertStates.add(state(7, 3, "VIDEO", 0, "2026-10-16 09:30:00"));
+        inserted.clear();
+        Map<String, Object> result = engine.generate(null, null);
+        assertEquals(0, inserted.size());
+        assertEquals(1, result.get("suppressedHandled"));
+
+        // 第二天的新特征行仍然高风险，重新预警
+        features.add(feature(2, "2026-10-17", "2026-10-17 08:00:00", 0.1, 0.9));
+        inserted.clear();
+        engine.generate(null, null);
+        assertEquals(1, inserted.size());
+        assertEquals("2026-10-17", featureDate(inserted.get(0)));
+    }
+
+    /**
+     * 还有未结束的同类型预警时不重复生成
+     */
+    @Test
+    public void testOpenAlertSuppresses() {
+        features.add(feature(1, "2026-10-17", "2026-10-17 08:00:00", 0.1, 0.9));
+        alertStates.add(state(7, 3, "VIDEO", 1, "2026-10-10 09:30:00"));
+
+        Map<String, Object> result = engine.generate(null, null);
+        assertEquals(0, inserted.size());
+        assertEquals(1, result.get("suppressedOpen"));
+    }
+
+    /**
+     * 最薄弱的维度每天不同：同一学生同一门课只按最近一天生成一条，不会同时出好几种类型
+     */
+    @Test
+    public void testOneAlertPerStudentCourse() {
+        // 前一天视频最差，当天作业最差
+        features.add(feature(1, "2026-10-16", "2026-10-16 08:00:00", 0.1, 0.9));
+        features.add(feature(2, "2026-10-17", "2026-10-17 08:00:00", 0.9, 0.1));
+
+        engine.generate(null, null);
+        assertEquals(1, inserted.size());
+        assertEquals("HOMEWORK", inserted.get(0).getAlertType());
+    }
+
+    private static LearningFeatures feature(int id, String date, String createdTime,
+                                            double videoRate, double homeworkRate) {
+        LearningFeatures f = new LearningFeatures();
+        f.setId(id);
+        f.setStudentId(7);
+        f.setCourseId(3);
+        f.setStudentName("张三");
+        f.setCourseName("高等数学");
+        f.setFeatureDate(date);
+        f.setCreatedTime(createdTime);
+        f.setVideoCompletionRate(videoRate);
+        f.setHomeworkSubmitRate(homeworkRate);
+        f.setHomeworkAvgScore(homeworkRate * 100);
+        f.setLastLoginDays(0);
+        f.setRiskScore(85.0);
+        f.setRiskProbability(0.85);
+        return f;
+    }
+
+    private static Map<String, Object> state(int studentId, int courseId, String type, int open, String lastTime) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("studentId", studentId);
+        row.put("courseId", courseId);
+        row.put("alertType", type);
+        row.put("openCount", open);
+        row.put("lastAlertTime", lastTime);
+        return row;
+    }
+
+    private static String featureDate(RiskAlert alert) {
+        String data = alert.getFeatureData();
+        int i = data.indexOf("featureDate\": \"") + "featureDate\": \"".length();
+        return data.substring(i, i + 10);
+    }
+}
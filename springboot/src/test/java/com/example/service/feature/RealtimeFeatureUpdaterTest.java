@@ -0,0 +1,110 @@
+package com.example.service.feature;
+
+import com.example.algorithm.RiskPredictor;
+import com.example.entity.LearningFeatures;
+import com.example.mapper.HomeworkMapper;
+import com.example.mapper.LearningFeaturesMapper;
+import com.example.mapper.StudentBehaviorEventMapper;
+import com.example.service.ingest.BehaviorEventIngestor;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 实时特征物化：当天的行已经存在后，后续刷新仍要更新视频、作业、登录这几列
+ */
+public class RealtimeFeatureUpdaterTest {
+
+    // 当天累计量，和 student_behavior 的任务合并，已有行也必须更新
+    private static final String[] DAILY_TOTAL_COLUMNS = {
+            "video_watch_time", "video_completion_rate", "homework_submit_rate",
+            "homework_avg_score", "login_frequency"
+    };
+
+    /**
+     * 同一个 key 刷新两次：第二次写出的行带着新的观看时长、完成率、提交率、均分、登录次数
+     */
+    @Test
+    public void testSecondFlushCarriesUpdatedTotals() {
+        List<LearningFeatures> written = new ArrayList<>();
+        LearningFeaturesMapper featuresMapper = mock(LearningFeaturesMapper.class);
+        when(featuresMapper.upsertRealtimeFeatures(anyList())).thenAnswer(inv -> {
+            List<LearningFeatures> rows = inv.getArgument(0);
+            written.addAll(rows);
+            return rows.size();
+        });
+        HomeworkMapper homeworkMapper = mock(HomeworkMapper.class);
+        when(homeworkMapper.count(any(), any())).thenReturn(4);
+
+        RealtimeFeatureUpdater updater = new RealtimeFeatureUpdater();
+        ReflectionTestUtils.setField(updater, "studentBehaviorEventMapper", mock(StudentBehaviorEventMapper.class));
+        ReflectionTestUtils.setField(updater, "learningFeaturesMapper", featuresMapper);
+        ReflectionTestUtils.setField(updater, "homeworkMapper", homeworkMapper);
+        ReflectionTestUtils.setField(updater, "riskPredictor", mock(RiskPredictor.class));
+        ReflectionTestUtils.setField(updater, "behaviorEventIngestor", mock(BehaviorEventIngestor.class));
+        ReflectionTestUtils.setField(updater, "enabled", true);
+        ReflectionTestUtils.setField(updater, "rescore", false);
+
+        LocalDateTime now = LocalDateTime.now();
+        updater.prepare(1, 2, now);
+        updater.afterWrite(1, 2, "LOGIN", null, null, false, null, now);
+        updater.afterWrite(1, 2, "VIDEO_PROGRESS", null, null, false, 600.0, now);
+        updater.afterWrite(1, 2, "HOMEWORK_SUBMIT", "10", 60.0, false, null, now);
+        updater.flush();
+
+        updater.afterWrite(1, 2, "LOGIN", null, null, false, null, now);
+        updater.afterWrite(1, 2, "VIDEO_PROGRESS", null, null, false, 1200.0, now);
+        updater.afterWrite(1, 2, "VIDEO_COMPLETE", "2", null, false, null, now);
+        updater.afterWrite(1, 2, "HOMEWORK_SUBMIT", "11", 90.0, false, null, now);
+        updater.flush();
+
+        assertEquals(2, written.size());
+        LearningFeatures first = written.get(0);
+        LearningFeatures second = written.get(1);
+
+        assertEquals(10.0, first.getVideoWatchTime());
+        assertEquals(30.0, second.getVideoWatchTime());
+        assertEquals(0.0, first.getVideoCompletionRate());
+        assertEquals(1.0, second.getVideoCompletionRate());
+        assertEquals(0.25, first.getHomeworkSubmitRate());
+        assertEquals(0.5, second.getHomeworkSubmitRate());
+        assertEquals(60.0, first.getHomeworkAvgScore());
+        assertEquals(75.0, second.getHomeworkAvgScore());
+        assertEquals(1, first.getLoginFrequency());
+        assertEquals(2, second.getLoginFrequency());
+    }
+
+    /**
+     * upsert 的 ON DUPLICATE KEY UPDATE 要写到这几列，否则已有行上面的变化到不了库里
+     */
+    @Test
+    public void testUpsertUpdatesDailyTotalsOnExistingRow() throws Exception {
+        String xml;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("mapper/LearningFeaturesMapper.xml")) {
+            assertNotNull(in);
+            xml = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Matcher m = Pattern.compile("<insert id=\"upsertRealtimeFeatures\".*?ON DUPLICATE KEY UPDATE(.*?)</insert>",
+                Pattern.DOTALL).matcher(xml);
+        assertTrue(m.find());
+        String updates = m.group(1);
+        for (String column : DAILY_TOTAL_COLUMNS) {
+            assertTrue(updates.contains(column + " ="), column + " 不在实时 upsert 的更新列里");
+        }
+    }
+}
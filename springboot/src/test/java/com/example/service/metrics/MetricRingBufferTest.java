@@ -0,0 +1,170 @@
+package com.example.service.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 指标环形缓冲：满了丢弃不阻塞，多个生产者同时写时每个生产者的元素按写入顺序取出
+ */
+public class MetricRingBufferTest {
+
+    private static final int PRODUCERS = 8;
+
+    private record Item(int producer, int seq) {}
+
+    /**
+     * 容量取 2 的幂；满了 offer 返回 false，取空后又能写
+     */
+    @Test
+    public void testDropOnFullAndFifo() {
+        MetricRingBuffer<Integer> buffer = new MetricRingBuffer<>(5);
+        assertEquals(8, buffer.capacity());
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(8));
+        assertEquals(8, buffer.size());
+
+        List<Integer> out = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(out, 3));
+        assertEquals(List.of(0, 1, 2), out);
+
+        // 腾出来的位置可以再写，绕回数组开头后顺序不变
+        assertTrue(buffer.offer(8));
+        assertTrue(buffer.offer(9));
+        out.clear();
+        assertEquals(7, buffer.drainTo(out, 100));
+        assertEquals(List.of(3, 4, 5, 6, 7, 8, 9), out);
+        assertEquals(0, buffer.size());
+    }
+
+    /**
+     * 没有消费者时多个生产者一起写爆缓冲：正好接收 capacity 个，其余全部丢弃，取出的都是接收的那些
+     */
+    @Test
+    public void testConcurrentProducersDropOnFull() throws Exception {
+        MetricRingBuffer<Item> buffer = new MetricRingBuffer<>(1024);
+        int perProducer = 1000;
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Set<Item> acceptedItems = ConcurrentHashMap.newKeySet();
+
+        runProducers(perProducer, item -> {
+            if (buffer.offer(item)) {
+                accepted.incrementAndGet();
+                acceptedItems.add(item);
+            } else {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(buffer.capacity(), accepted.get());
+        assertEquals(PRODUCERS * perProducer - buffer.capacity(), rejected.get());
+        assertEquals(buffer.capacity(), buffer.size());
+
+        List<Item> drained = new ArrayList<>();
+        assertEquals(buffer.capacity(), buffer.drainTo(drained, Integer.MAX_VALUE));
+        assertEquals(acceptedItems, new HashSet<>(drained));
+        assertInProducerOrder(drained);
+        assertEquals(0, buffer.drainTo(new ArrayList<>(), Integer.MAX_VALUE));
+    }
+
+    /**
+     * 生产者写、单个消费者同时取：接收的一个不少、不重复，每个生产者的元素按写入顺序出来
+     */
+    @Test
+    public void testConcurrentProducersWithConsumer() throws Exception {
+        MetricRingBuffer<Item> buffer = new MetricRingBuffer<>(64);
+        int perProducer = 20_000;
+        AtomicInteger rejected = new AtomicInteger();
+        Set<Item> acceptedItems = ConcurrentHashMap.newKeySet();
+
+        CountDownLatch producersDone = new CountDownLatch(1);
+        List<Item> drained = new ArrayList<>();
+        Thread consumer = new Thread(() -> {
+            List<Item> batch = new ArrayList<>();
+            while (true) {
+                boolean done = producersDone.getCount() == 0;
+                batch.clear();
+                int n = buffer.drainTo(batch, 16);
+                drained.addAll(batch);
+                // 生产者都结束后再取到空，说明所有写完的槽位都取走了
+                if (n == 0 && done) break;
+                if (n == 0) Thread.onSpinWait();
+            }
+        });
+        consumer.start();
+
+        runProducers(perProducer, item -> {
+            if (buffer.offer(item)) {
+                acceptedItems.add(item);
+            } else {
+                rejected.incrementAndGet();
+            }
+        });
+        producersDone.countDown();
+        consumer.join(TimeUnit.SECONDS.toMillis(30));
+        assertFalse(consumer.isAlive());
+
+        assertEquals(PRODUCERS * perProducer, acceptedItems.size() + rejected.get());
+        assertEquals(acceptedItems.size(), drained.size());
+        assertEquals(acceptedItems, new HashSet<>(drained));
+        assertInProducerOrder(drained);
+        assertEquals(0, buffer.size());
+    }
+
+    /**
+     * PRODUCERS 个线程同时起跑，各自按 seq 递增写 perProducer 个元素
+     */
+    private static void runProducers(int perProducer, Consumer<Item> offer) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                int producer = p;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int seq = 0; seq < perProducer; seq++) {
+                        offer.accept(new Item(producer, seq));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void assertInProducerOrder(List<Item> drained) {
+        int[] last = new int[PRODUCERS];
+        Arrays.fill(last, -1);
+        for (Item item : drained) {
+            assertTrue(item.seq() > last[item.producer()],
+                    "生产者 " + item.producer() + " 的 " + item.seq() + " 排在 " + last[item.producer()] + " 后面");
+            last[item.producer()] = item.seq();
+        }
+    }
+}
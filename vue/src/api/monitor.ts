@@ -1,28 +1,69 @@
 // src/api/monitor.ts - 系统监控API模块
 import { request } from './health'  // 复用同一个axios实例
 
+// 计时器摘要：次数、平均/最大耗时，以及 p50_ms / p95_ms / p99_ms 等分位数
+export interface TimerSummary {
+    count: number
+    mean_ms: number
+    max_ms: number
+    [percentile: `p${number}_ms`]: number
+}
+
+export interface HttpLatency extends TimerSummary {
+    uri: string
+    method: string
+    status: string
+}
+
+export interface SqlLatency extends TimerSummary {
+    statement: string
+    type: string
+    outcome: string
+}
+
+export interface ScheduledTaskLatency extends TimerSummary {
+    task: string
+    outcome: string
+}
+
+export interface ConnectionPool {
+    active: number
+    idle: number
+    pending: number
+    max: number
+    saturation: number
+    acquire?: TimerSummary
+    usage?: TimerSummary
+}
+
+// 各组件 getStats() 返回的运行状态（计数、开关、时间戳、最近一轮的明细等）
+export type ComponentStats = Record<string, unknown>
+
 export interface PerformanceMetrics {
-    memory: {
-        heap_used: string
-        non_heap_used: string
-        heap_max: string
-    }
-    os: {
-        available_processors: number
-        name: string
-        arch: string
-        version: string
-    }
-    threads: {
-        daemon_threads: number
-        total_threads: number
-        peak_threads: number
-    }
-    jvm: {
-        name: string
-        vendor: string
-        version: string
-    }
+    timestamp: string
+    status: 'success' | 'error'
+    message?: string
+    http_latency?: HttpLatency[]
+    sql_latency?: SqlLatency[]
+    connection_pool?: ConnectionPool
+    scheduled_tasks?: ScheduledTaskLatency[]
+    scheduler_metrics?: Record<string, unknown>[] | string
+    event_ingest?: ComponentStats
+    video_watch_states?: number
+    feature_incremental?: ComponentStats
+    feature_realtime?: ComponentStats
+    model_registry?: ComponentStats
+    dashboard_cache?: ComponentStats
+    prediction_executor?: ComponentStats
+    behavior_retention?: ComponentStats
+    heartbeat_compaction?: ComponentStats
+    metrics_sink?: ComponentStats
+    alert_engine?: ComponentStats
+    exam_answer_key_cache?: ComponentStats
+    exam_submission_queue?: ComponentStats
+    stat_counters?: ComponentStats
+    file_download?: ComponentStats
+    file_storage?: ComponentStats
 }
 
 export const monitorAPI = {